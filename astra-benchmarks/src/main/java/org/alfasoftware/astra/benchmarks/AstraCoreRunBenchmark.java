@@ -0,0 +1,100 @@
+package org.alfasoftware.astra.benchmarks;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.alfasoftware.astra.core.refactoring.operations.methods.MethodInvocationRefactor;
+import org.alfasoftware.astra.core.utils.ASTOperation;
+import org.alfasoftware.astra.core.utils.AstraCore;
+import org.alfasoftware.astra.core.utils.RunStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a whole {@link AstraCore#run(String, UseCase)} of a method rename, for different values of
+ * {@link UseCase#getBatchSize()} and {@link UseCase#getParallelism()}.
+ *
+ * <p>As a run changes the files it processes, a fresh corpus is generated before every run, so each iteration is a
+ * single run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AstraCoreRunBenchmark {
+
+  @Param({ "2000" })
+  public int files;
+
+  @Param({ "10" })
+  public int matchPercentage;
+
+  @Param({ "100", "500" })
+  public int batchSize;
+
+  @Param({ "1", "4" })
+  public int parallelism;
+
+  private BenchmarkCorpus corpus;
+
+
+  @Setup(Level.Iteration)
+  public void setUp() throws IOException {
+    corpus = BenchmarkCorpus.generate(files, matchPercentage);
+  }
+
+
+  @TearDown(Level.Iteration)
+  public void tearDown() throws IOException {
+    corpus.close();
+  }
+
+
+  @Benchmark
+  public RunStatistics renameMethod() {
+    return AstraCore.run(corpus.getGeneratedDirectory().toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(
+          MethodInvocationRefactor
+            .from(
+              MethodMatcher.builder()
+                .withFullyQualifiedDeclaringType(SyntheticCodebase.SERVICE_TYPE)
+                .withMethodName(SyntheticCodebase.TARGET_METHOD)
+                .build())
+            .to(new MethodInvocationRefactor.Changes().toNewMethodName(SyntheticCodebase.REPLACEMENT_METHOD)));
+      }
+
+      @Override
+      public String[] getSources() {
+        return corpus.getSources();
+      }
+
+      @Override
+      public int getBatchSize() {
+        return batchSize;
+      }
+
+      @Override
+      public int getParallelism() {
+        return parallelism;
+      }
+    });
+  }
+}
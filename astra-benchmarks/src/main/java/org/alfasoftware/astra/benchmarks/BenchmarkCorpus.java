@@ -0,0 +1,120 @@
+package org.alfasoftware.astra.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.alfasoftware.astra.benchmarks.SyntheticCodebase.GeneratedFiles;
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.alfasoftware.astra.core.utils.CompilationUnitProperty;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+
+/**
+ * A {@link SyntheticCodebase} written to a temporary directory for the lifetime of a benchmark trial.
+ */
+final class BenchmarkCorpus implements AutoCloseable {
+
+  private final Path root;
+  private final GeneratedFiles generatedFiles;
+
+
+  private BenchmarkCorpus(Path root, GeneratedFiles generatedFiles) {
+    this.root = root;
+    this.generatedFiles = generatedFiles;
+  }
+
+
+  static BenchmarkCorpus generate(int files, int matchPercentage) throws IOException {
+    return generate(SyntheticCodebase.builder()
+        .withPackages(Math.max(1, files / 50))
+        .withFiles(files)
+        .withMatchPercentage(matchPercentage)
+        .build());
+  }
+
+
+  static BenchmarkCorpus generate(SyntheticCodebase codebase) throws IOException {
+    Path root = Files.createTempDirectory("astra-benchmark");
+    return new BenchmarkCorpus(root, codebase.writeTo(root));
+  }
+
+
+  Path getRoot() {
+    return root;
+  }
+
+
+  /**
+   * @return the directory containing the generated classes, which use cases should be run over
+   */
+  Path getGeneratedDirectory() {
+    return generatedFiles.getGeneratedDirectory();
+  }
+
+
+  List<Path> getJavaFiles() {
+    return generatedFiles.getFiles();
+  }
+
+
+  List<Path> getMatchingFiles() {
+    return generatedFiles.getMatchingFiles();
+  }
+
+
+  String[] getSources() {
+    return new String[] { root.toString() };
+  }
+
+
+  String[] getClassPath() {
+    return new String[0];
+  }
+
+
+  /**
+   * Parses every generated class in one batch, with bindings resolved. The path of each file is set as the
+   * {@link CompilationUnitProperty#ABSOLUTE_PATH} of its compilation unit.
+   */
+  List<CompilationUnit> parse() {
+    return parse(getJavaFiles(), true);
+  }
+
+
+  /**
+   * Parses {@code files} with a single batch parser, as {@link org.alfasoftware.astra.core.utils.AstraCore} parses
+   * each chunk of a run.
+   */
+  List<CompilationUnit> parse(List<Path> files, boolean resolveBindings) {
+    ASTParser parser = AstraUtils.createBatchParser(getSources(), getClassPath(), resolveBindings);
+    String[] paths = files.stream().map(Path::toString).toArray(String[]::new);
+    String[] encodings = new String[paths.length];
+    Arrays.fill(encodings, "UTF-8");
+    List<CompilationUnit> compilationUnits = new ArrayList<>(paths.length);
+    parser.createASTs(paths, encodings, new String[0], new FileASTRequestor() {
+      @Override
+      public void acceptAST(String sourceFilePath, CompilationUnit ast) {
+        ast.setProperty(CompilationUnitProperty.ABSOLUTE_PATH, Path.of(sourceFilePath));
+        compilationUnits.add(ast);
+      }
+    }, null);
+    return compilationUnits;
+  }
+
+
+  @Override
+  public void close() throws IOException {
+    try (Stream<Path> paths = Files.walk(root)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
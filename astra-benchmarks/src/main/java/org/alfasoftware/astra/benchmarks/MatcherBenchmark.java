@@ -0,0 +1,89 @@
+package org.alfasoftware.astra.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.alfasoftware.astra.core.matchers.Matcher;
+import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.matchers.TypeMatcher;
+import org.alfasoftware.astra.core.utils.ClassVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures matching every method invocation in the corpus with a {@link MethodMatcher}, and every type declaration
+ * with a {@link TypeMatcher}. Most invocations in the corpus are of other methods, so this mostly measures how
+ * quickly non-matches are rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatcherBenchmark {
+
+  @Param({ "1000" })
+  public int files;
+
+  @Param({ "10" })
+  public int matchPercentage;
+
+  private final List<MethodInvocation> methodInvocations = new ArrayList<>();
+  private final List<AbstractTypeDeclaration> typeDeclarations = new ArrayList<>();
+  private final MethodMatcher methodMatcher = MethodMatcher.builder()
+      .withFullyQualifiedDeclaringType(SyntheticCodebase.SERVICE_TYPE)
+      .withMethodName(SyntheticCodebase.TARGET_METHOD)
+      .withFullyQualifiedParameters(List.of(String.class.getName()))
+      .build();
+  private final Matcher typeMatcher = TypeMatcher.builder()
+      .asClass()
+      .withPublicVisibility()
+      .withNameLike(".*7")
+      .build();
+
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    try (BenchmarkCorpus corpus = BenchmarkCorpus.generate(files, matchPercentage)) {
+      for (CompilationUnit compilationUnit : corpus.parse()) {
+        ClassVisitor visitor = new ClassVisitor();
+        compilationUnit.accept(visitor);
+        methodInvocations.addAll(visitor.getMethodInvocations());
+        typeDeclarations.addAll(visitor.getAbstractTypeDeclarations());
+      }
+    }
+  }
+
+
+  @Benchmark
+  public void methodMatcher(Blackhole blackhole) {
+    for (MethodInvocation methodInvocation : methodInvocations) {
+      blackhole.consume(methodMatcher.matches(methodInvocation, (CompilationUnit) methodInvocation.getRoot()));
+    }
+  }
+
+
+  @Benchmark
+  public void typeMatcher(Blackhole blackhole) {
+    for (AbstractTypeDeclaration typeDeclaration : typeDeclarations) {
+      blackhole.consume(typeMatcher.matches(typeDeclaration));
+    }
+  }
+}
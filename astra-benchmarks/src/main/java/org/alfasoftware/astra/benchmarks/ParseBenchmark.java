@@ -0,0 +1,67 @@
+package org.alfasoftware.astra.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures batch parsing with {@link org.alfasoftware.astra.core.utils.AstraUtils#createBatchParser} and
+ * {@code ASTParser.createASTs}, splitting the corpus into batches as a run does for {@code UseCase.getBatchSize()}.
+ * Each batch pays for setting up its own classpath environment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+
+  @Param({ "1000" })
+  public int files;
+
+  @Param({ "100", "500" })
+  public int batchSize;
+
+  @Param({ "true", "false" })
+  public boolean resolveBindings;
+
+  private BenchmarkCorpus corpus;
+
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    corpus = BenchmarkCorpus.generate(files, 10);
+  }
+
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    corpus.close();
+  }
+
+
+  @Benchmark
+  public void createASTs(Blackhole blackhole) {
+    List<Path> javaFiles = corpus.getJavaFiles();
+    for (int start = 0; start < javaFiles.size(); start += batchSize) {
+      blackhole.consume(corpus.parse(javaFiles.subList(start, Math.min(start + batchSize, javaFiles.size())), resolveBindings));
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package org.alfasoftware.astra.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.alfasoftware.astra.core.refactoring.operations.imports.UnusedImportRefactor;
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.alfasoftware.astra.core.utils.CompilationUnitProperty;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
+import org.eclipse.jface.text.BadLocationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the two steps of removing unused imports from changed files: recording the removals with
+ * {@link UnusedImportRefactor}, and applying recorded changes to the source with
+ * {@link AstraUtils#makeChangesFromAST(String, ASTRewrite)}. Every generated file has an unused import to remove.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RewriteBenchmark {
+
+  @Param({ "1000" })
+  public int files;
+
+  private final UnusedImportRefactor unusedImportRefactor = new UnusedImportRefactor();
+  private List<CompilationUnit> compilationUnits;
+  private final List<String> sources = new ArrayList<>();
+  private final List<ASTRewrite> rewriters = new ArrayList<>();
+
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    try (BenchmarkCorpus corpus = BenchmarkCorpus.generate(files, 10)) {
+      compilationUnits = corpus.parse();
+      for (CompilationUnit compilationUnit : compilationUnits) {
+        sources.add(Files.readString((Path) compilationUnit.getProperty(CompilationUnitProperty.ABSOLUTE_PATH)));
+        rewriters.add(removeUnusedImports(compilationUnit));
+      }
+    }
+  }
+
+
+  @Benchmark
+  public void unusedImportRefactor(Blackhole blackhole) throws Exception {
+    for (CompilationUnit compilationUnit : compilationUnits) {
+      blackhole.consume(removeUnusedImports(compilationUnit));
+    }
+  }
+
+
+  @Benchmark
+  public void makeChangesFromAST(Blackhole blackhole) throws BadLocationException {
+    for (int i = 0; i < sources.size(); i++) {
+      blackhole.consume(AstraUtils.makeChangesFromAST(sources.get(i), rewriters.get(i)));
+    }
+  }
+
+
+  private ASTRewrite removeUnusedImports(CompilationUnit compilationUnit) throws IOException, BadLocationException {
+    ASTRewrite rewriter = ASTRewrite.create(compilationUnit.getAST());
+    for (Object type : compilationUnit.types()) {
+      unusedImportRefactor.run(compilationUnit, (ASTNode) type, rewriter);
+    }
+    return rewriter;
+  }
+}
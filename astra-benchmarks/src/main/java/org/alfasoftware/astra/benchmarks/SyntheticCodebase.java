@@ -0,0 +1,422 @@
+package org.alfasoftware.astra.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a tree of compilable Java source files, to give benchmarks and scaling tests reproducible inputs of a
+ * chosen size and shape.
+ *
+ * <p>The tree contains a small API package, declaring {@link #SERVICE_TYPE}, {@link #LEGACY_TYPE} and
+ * {@link #LEGACY_ANNOTATION}, a package declaring their replacements, and a number of generated packages of classes
+ * which use the API. Every generated class imports a type it does not use, so that import cleanup has work to do.
+ * A chosen percentage of the classes - the matching classes - also call {@link #TARGET_METHOD}, reference
+ * {@link #LEGACY_TYPE} and are annotated with {@link #LEGACY_ANNOTATION}, so that refactors of those have matches to
+ * change.
+ *
+ * <p>Optionally, the classes in each package form inheritance chains of a chosen depth, and chosen percentages of
+ * classes use static imports, or import the API on demand rather than by single type imports.
+ *
+ * <p>Each of these choices is made per class by a seeded random number generator, so the same settings always produce
+ * the same tree.
+ */
+public final class SyntheticCodebase {
+
+  /** The package declaring the types used by the generated classes. */
+  public static final String API_PACKAGE = "com.example.synthetic.api";
+  /** A type whose methods are called by every generated class. */
+  public static final String SERVICE_TYPE = API_PACKAGE + ".Service";
+  /** A method of {@link #SERVICE_TYPE}, called only by the matching classes. */
+  public static final String TARGET_METHOD = "target";
+  /** A method of {@link #SERVICE_TYPE} with the same signature as {@link #TARGET_METHOD}, which no class calls. */
+  public static final String REPLACEMENT_METHOD = "replacement";
+  /** A static method of {@link #SERVICE_TYPE}, called through a static import by classes which use static imports. */
+  public static final String STATIC_METHOD = "format";
+  /** A type referenced only by the matching classes. */
+  public static final String LEGACY_TYPE = API_PACKAGE + ".LegacyType";
+  /** An annotation used only by the matching classes. */
+  public static final String LEGACY_ANNOTATION = API_PACKAGE + ".LegacyAnnotation";
+  /** The package declaring the replacements for the legacy types, which no class uses. */
+  public static final String NEW_API_PACKAGE = "com.example.synthetic.newapi";
+  /** A type with the same shape as {@link #LEGACY_TYPE}, in another package. */
+  public static final String NEW_TYPE = NEW_API_PACKAGE + ".NewType";
+  /** An annotation with the same shape as {@link #LEGACY_ANNOTATION}, in another package. */
+  public static final String NEW_ANNOTATION = NEW_API_PACKAGE + ".NewAnnotation";
+
+  /** The package under which the generated classes are declared, in sub-packages. */
+  public static final String GENERATED_PACKAGE = "com.example.synthetic.generated";
+
+  private final int packages;
+  private final int files;
+  private final int methodsPerFile;
+  private final int matchPercentage;
+  private final int inheritanceDepth;
+  private final int staticImportPercentage;
+  private final int onDemandImportPercentage;
+  private final long seed;
+
+
+  private SyntheticCodebase(Builder builder) {
+    this.packages = builder.packages;
+    this.files = builder.files;
+    this.methodsPerFile = builder.methodsPerFile;
+    this.matchPercentage = builder.matchPercentage;
+    this.inheritanceDepth = builder.inheritanceDepth;
+    this.staticImportPercentage = builder.staticImportPercentage;
+    this.onDemandImportPercentage = builder.onDemandImportPercentage;
+    this.seed = builder.seed;
+  }
+
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+
+  /**
+   * Builder for {@link SyntheticCodebase}s.
+   */
+  public static class Builder {
+    private int packages = 10;
+    private int files = 100;
+    private int methodsPerFile = 10;
+    private int matchPercentage = 10;
+    private int inheritanceDepth = 1;
+    private int staticImportPercentage = 0;
+    private int onDemandImportPercentage = 0;
+    private long seed = 1;
+
+
+    private Builder() {
+      super();
+    }
+
+
+    /**
+     * @param packages the number of packages to spread the generated classes over
+     */
+    public Builder withPackages(int packages) {
+      if (packages < 1) {
+        throw new IllegalArgumentException("Number of packages must be at least 1 but was [" + packages + "]");
+      }
+      this.packages = packages;
+      return this;
+    }
+
+
+    /**
+     * @param files the number of classes to generate, not counting the API packages
+     */
+    public Builder withFiles(int files) {
+      if (files < 0) {
+        throw new IllegalArgumentException("Number of files must not be negative but was [" + files + "]");
+      }
+      this.files = files;
+      return this;
+    }
+
+
+    /**
+     * @param methodsPerFile the number of methods in each generated class, which controls the size of the files
+     */
+    public Builder withMethodsPerFile(int methodsPerFile) {
+      if (methodsPerFile < 1) {
+        throw new IllegalArgumentException("Number of methods per file must be at least 1 but was [" + methodsPerFile + "]");
+      }
+      this.methodsPerFile = methodsPerFile;
+      return this;
+    }
+
+
+    /**
+     * @param matchPercentage the percentage of generated classes which call {@link SyntheticCodebase#TARGET_METHOD},
+     *          reference {@link SyntheticCodebase#LEGACY_TYPE} and use {@link SyntheticCodebase#LEGACY_ANNOTATION}
+     */
+    public Builder withMatchPercentage(int matchPercentage) {
+      this.matchPercentage = checkPercentage("Match", matchPercentage);
+      return this;
+    }
+
+
+    /**
+     * @param inheritanceDepth the length of the inheritance chains formed by the classes in each package, each class
+     *          extending the previous one in its package. The default of 1 means no class extends another.
+     */
+    public Builder withInheritanceDepth(int inheritanceDepth) {
+      if (inheritanceDepth < 1) {
+        throw new IllegalArgumentException("Inheritance depth must be at least 1 but was [" + inheritanceDepth + "]");
+      }
+      this.inheritanceDepth = inheritanceDepth;
+      return this;
+    }
+
+
+    /**
+     * @param staticImportPercentage the percentage of generated classes which statically import and call
+     *          {@link SyntheticCodebase#STATIC_METHOD}
+     */
+    public Builder withStaticImportPercentage(int staticImportPercentage) {
+      this.staticImportPercentage = checkPercentage("Static import", staticImportPercentage);
+      return this;
+    }
+
+
+    /**
+     * @param onDemandImportPercentage the percentage of generated classes which import the API package, and any
+     *          static members, on demand
+     */
+    public Builder withOnDemandImportPercentage(int onDemandImportPercentage) {
+      this.onDemandImportPercentage = checkPercentage("On demand import", onDemandImportPercentage);
+      return this;
+    }
+
+
+    /**
+     * @param seed the seed for the choices made for each class
+     */
+    public Builder withSeed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+
+    public SyntheticCodebase build() {
+      return new SyntheticCodebase(this);
+    }
+
+
+    private static int checkPercentage(String description, int percentage) {
+      if (percentage < 0 || percentage > 100) {
+        throw new IllegalArgumentException(description + " percentage must be between 0 and 100 but was [" + percentage + "]");
+      }
+      return percentage;
+    }
+  }
+
+
+  /**
+   * The files written for a {@link SyntheticCodebase}.
+   */
+  public static final class GeneratedFiles {
+    private final Path generatedDirectory;
+    private final List<Path> files;
+    private final List<Path> matchingFiles;
+
+
+    private GeneratedFiles(Path generatedDirectory, List<Path> files, List<Path> matchingFiles) {
+      this.generatedDirectory = generatedDirectory;
+      this.files = Collections.unmodifiableList(files);
+      this.matchingFiles = Collections.unmodifiableList(matchingFiles);
+    }
+
+
+    /**
+     * @return the directory containing the generated classes, but not the API packages. Use cases should be run over
+     *         this directory, so that they do not change the API.
+     */
+    public Path getGeneratedDirectory() {
+      return generatedDirectory;
+    }
+
+
+    /**
+     * @return the generated classes, not including the API packages
+     */
+    public List<Path> getFiles() {
+      return files;
+    }
+
+
+    /**
+     * @return the generated classes which use {@link SyntheticCodebase#TARGET_METHOD},
+     *         {@link SyntheticCodebase#LEGACY_TYPE} and {@link SyntheticCodebase#LEGACY_ANNOTATION}
+     */
+    public List<Path> getMatchingFiles() {
+      return matchingFiles;
+    }
+  }
+
+
+  /**
+   * Writes the source tree under {@code root}, which is also the source path needed to resolve its bindings.
+   */
+  public GeneratedFiles writeTo(Path root) throws IOException {
+    writeApiPackages(root);
+
+    Random random = new Random(seed);
+    List<Path> generatedFiles = new ArrayList<>(files);
+    List<Path> matchingFiles = new ArrayList<>();
+    for (int i = 0; i < files; i++) {
+      String packageName = GENERATED_PACKAGE + ".p" + (i % packages);
+      GeneratedClass generatedClass = new GeneratedClass(
+        "Type" + i,
+        (i / packages) % inheritanceDepth == 0 ? null : "Type" + (i - packages),
+        random.nextInt(100) < matchPercentage,
+        random.nextInt(100) < staticImportPercentage,
+        random.nextInt(100) < onDemandImportPercentage);
+      Path file = packageDirectory(root, packageName).resolve(generatedClass.name + ".java");
+      Files.writeString(file, generatedClass.generate(packageName));
+      generatedFiles.add(file);
+      if (generatedClass.matching) {
+        matchingFiles.add(file);
+      }
+    }
+    return new GeneratedFiles(packageDirectory(root, GENERATED_PACKAGE), generatedFiles, matchingFiles);
+  }
+
+
+  private void writeApiPackages(Path root) throws IOException {
+    Files.writeString(packageDirectory(root, API_PACKAGE).resolve("Service.java"),
+        "package " + API_PACKAGE + ";\n"
+        + "\n"
+        + "public class Service {\n"
+        + "\n"
+        + "  public static String " + STATIC_METHOD + "(int value) {\n"
+        + "    return Integer.toString(value);\n"
+        + "  }\n"
+        + "\n"
+        + "  public void " + TARGET_METHOD + "(String value) {\n"
+        + "  }\n"
+        + "\n"
+        + "  public void " + REPLACEMENT_METHOD + "(String value) {\n"
+        + "  }\n"
+        + "\n"
+        + "  public int other(int value) {\n"
+        + "    return value + 1;\n"
+        + "  }\n"
+        + "}\n");
+    for (String type : List.of(LEGACY_TYPE, NEW_TYPE)) {
+      Files.writeString(packageDirectory(root, packageName(type)).resolve(simpleName(type) + ".java"),
+          "package " + packageName(type) + ";\n"
+          + "\n"
+          + "public class " + simpleName(type) + " {\n"
+          + "\n"
+          + "  public String describe() {\n"
+          + "    return \"" + simpleName(type) + "\";\n"
+          + "  }\n"
+          + "}\n");
+    }
+    for (String annotation : List.of(LEGACY_ANNOTATION, NEW_ANNOTATION)) {
+      Files.writeString(packageDirectory(root, packageName(annotation)).resolve(simpleName(annotation) + ".java"),
+          "package " + packageName(annotation) + ";\n"
+          + "\n"
+          + "import java.lang.annotation.Retention;\n"
+          + "import java.lang.annotation.RetentionPolicy;\n"
+          + "\n"
+          + "@Retention(RetentionPolicy.RUNTIME)\n"
+          + "public @interface " + simpleName(annotation) + " {\n"
+          + "  String value() default \"\";\n"
+          + "}\n");
+    }
+  }
+
+
+  /**
+   * The choices made for one generated class.
+   */
+  private final class GeneratedClass {
+    private final String name;
+    private final String superClassName;
+    private final boolean matching;
+    private final boolean staticImport;
+    private final boolean onDemandImport;
+
+
+    private GeneratedClass(String name, String superClassName, boolean matching, boolean staticImport, boolean onDemandImport) {
+      this.name = name;
+      this.superClassName = superClassName;
+      this.matching = matching;
+      this.staticImport = staticImport;
+      this.onDemandImport = onDemandImport;
+    }
+
+
+    private String generate(String packageName) {
+      StringBuilder source = new StringBuilder()
+          .append("package ").append(packageName).append(";\n")
+          .append("\n");
+      if (staticImport) {
+        source.append("import static ").append(SERVICE_TYPE).append(onDemandImport ? ".*" : "." + STATIC_METHOD).append(";\n")
+            .append("\n");
+      }
+      source.append("import java.util.ArrayList;\n")
+          .append("import java.util.List;\n")
+          .append("import java.util.Map;\n")
+          .append("\n");
+      if (onDemandImport) {
+        source.append("import ").append(API_PACKAGE).append(".*;\n");
+      } else {
+        if (matching) {
+          source.append("import ").append(LEGACY_ANNOTATION).append(";\n")
+              .append("import ").append(LEGACY_TYPE).append(";\n");
+        }
+        source.append("import ").append(SERVICE_TYPE).append(";\n");
+      }
+      source.append("\n")
+          .append("/**\n")
+          .append(" * Generated class ").append(name).append(".\n")
+          .append(" */\n")
+          .append("public class ").append(name);
+      if (superClassName != null) {
+        source.append(" extends ").append(superClassName);
+      }
+      source.append(" {\n")
+          .append("\n")
+          .append("  private final Service service = new Service();\n")
+          .append("  private final List<String> values = new ArrayList<>();\n");
+      if (matching) {
+        source.append("  private final ").append(simpleName(LEGACY_TYPE)).append(" legacy = new ")
+            .append(simpleName(LEGACY_TYPE)).append("();\n");
+      }
+      for (int method = 0; method < methodsPerFile; method++) {
+        generateMethod(source, method);
+      }
+      return source.append("}\n").toString();
+    }
+
+
+    private void generateMethod(StringBuilder source, int method) {
+      source.append("\n")
+          .append("  /**\n")
+          .append("   * Generated method ").append(method).append(".\n")
+          .append("   */\n");
+      if (superClassName != null) {
+        source.append("  @Override\n");
+      }
+      if (matching && method == 0) {
+        source.append("  @").append(simpleName(LEGACY_ANNOTATION)).append("(\"").append(name).append("\")\n");
+      }
+      source.append("  public int method").append(method).append("(int input) {\n")
+          .append("    int result = service.other(input * ").append(method + 1).append(");\n")
+          .append("    values.add(").append(staticImport ? STATIC_METHOD + "(result)" : "String.valueOf(result)").append(");\n");
+      if (matching && method == 0) {
+        source.append("    service.").append(TARGET_METHOD).append("(legacy.describe());\n");
+      }
+      source.append("    if (result > ").append(method).append(") {\n")
+          .append("      return values.size();\n")
+          .append("    }\n")
+          .append("    return result;\n")
+          .append("  }\n");
+    }
+  }
+
+
+  private static String packageName(String fullyQualifiedName) {
+    return fullyQualifiedName.substring(0, fullyQualifiedName.lastIndexOf('.'));
+  }
+
+
+  private static String simpleName(String fullyQualifiedName) {
+    return fullyQualifiedName.substring(fullyQualifiedName.lastIndexOf('.') + 1);
+  }
+
+
+  private static Path packageDirectory(Path root, String packageName) throws IOException {
+    return Files.createDirectories(root.resolve(packageName.replace('.', '/')));
+  }
+}
@@ -0,0 +1,57 @@
+package org.alfasoftware.astra.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.alfasoftware.astra.core.utils.ClassVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures collecting the nodes of already parsed compilation units with a {@link ClassVisitor}, as is done once
+ * for each file before its operations are run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VisitBenchmark {
+
+  @Param({ "1000" })
+  public int files;
+
+  private List<CompilationUnit> compilationUnits;
+
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    try (BenchmarkCorpus corpus = BenchmarkCorpus.generate(files, 10)) {
+      compilationUnits = corpus.parse();
+    }
+  }
+
+
+  @Benchmark
+  public void classVisitor(Blackhole blackhole) {
+    for (CompilationUnit compilationUnit : compilationUnits) {
+      ClassVisitor visitor = new ClassVisitor();
+      compilationUnit.accept(visitor);
+      blackhole.consume(visitor.getVisitedNodesByType());
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package org.alfasoftware.astra.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.analysis.operations.methods.FindMethodInvocationsAnalysis;
+import org.alfasoftware.astra.core.analysis.operations.methods.MethodAnalysisResult;
+import org.alfasoftware.astra.core.matchers.AnnotationMatcher;
+import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.alfasoftware.astra.core.refactoring.operations.annotations.AnnotationChangeRefactor;
+import org.alfasoftware.astra.core.refactoring.operations.methods.MethodInvocationRefactor;
+import org.alfasoftware.astra.core.refactoring.operations.types.TypeReferenceRefactor;
+import org.alfasoftware.astra.core.utils.ASTOperation;
+import org.alfasoftware.astra.core.utils.AstraCore;
+import org.alfasoftware.astra.core.utils.RunStatistics;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs representative use cases over generated source trees of increasing size, recording the throughput and peak
+ * heap of each run.
+ *
+ * <p>The sizes are read from the {@value #FILE_COUNTS_PROPERTY} system property, as a comma separated list of file
+ * counts. By default only a small tree is used, so that this runs quickly as part of the build; the {@code scaling}
+ * profile of this module runs over 1,000, 10,000 and 100,000 files. The measurements are logged, and appended to the
+ * CSV file named by the {@value #REPORT_PROPERTY} system property.
+ *
+ * <p>Peak heap is the sum of the peak usage of each heap memory pool during the run. As the pools can peak at
+ * different times, this is an upper bound.
+ */
+public class TestScaling {
+
+  private static final Logger log = LoggerFactory.getLogger(TestScaling.class);
+
+  static final String FILE_COUNTS_PROPERTY = "astra.scaling.files";
+  static final String REPORT_PROPERTY = "astra.scaling.report";
+
+  private static final int MATCH_PERCENTAGE = 10;
+  private static final String REPORT_HEADER = "useCase,files,matchingFiles,millis,filesPerSecond,peakHeapMegabytes,filesChanged";
+
+
+  @Test
+  public void testMethodRename() throws IOException {
+    runAtEachSize("methodRename", () -> Set.of(
+        MethodInvocationRefactor
+          .from(
+            MethodMatcher.builder()
+              .withFullyQualifiedDeclaringType(SyntheticCodebase.SERVICE_TYPE)
+              .withMethodName(SyntheticCodebase.TARGET_METHOD)
+              .build())
+          .to(new MethodInvocationRefactor.Changes().toNewMethodName(SyntheticCodebase.REPLACEMENT_METHOD))),
+      (corpus, operations, statistics) -> {
+        assertEquals(corpus.getMatchingFiles().size(), statistics.getFilesChanged());
+        assertTrue(Files.readString(corpus.getMatchingFiles().get(0)).contains("service." + SyntheticCodebase.REPLACEMENT_METHOD + "("));
+      });
+  }
+
+
+  @Test
+  public void testTypeMove() throws IOException {
+    runAtEachSize("typeMove", () -> Set.of(
+        TypeReferenceRefactor.builder()
+          .fromType(SyntheticCodebase.LEGACY_TYPE)
+          .toType(SyntheticCodebase.NEW_TYPE)
+          .build()),
+      (corpus, operations, statistics) -> {
+        assertEquals(corpus.getMatchingFiles().size(), statistics.getFilesChanged());
+        assertTrue(Files.readString(corpus.getMatchingFiles().get(0)).contains("NewType legacy"));
+      });
+  }
+
+
+  @Test
+  public void testAnnotationSwap() throws IOException {
+    runAtEachSize("annotationSwap", () -> Set.of(
+        AnnotationChangeRefactor.builder()
+          .from(AnnotationMatcher.builder().withFullyQualifiedName(SyntheticCodebase.LEGACY_ANNOTATION).build())
+          .to(SyntheticCodebase.NEW_ANNOTATION)
+          .build()),
+      (corpus, operations, statistics) -> {
+        assertEquals(corpus.getMatchingFiles().size(), statistics.getFilesChanged());
+        assertTrue(Files.readString(corpus.getMatchingFiles().get(0)).contains("@NewAnnotation("));
+      });
+  }
+
+
+  @Test
+  public void testMethodInvocationAnalysis() throws IOException {
+    runAtEachSize("methodInvocationAnalysis", () -> Set.of(
+        new FindMethodInvocationsAnalysis(Set.of(
+          MethodMatcher.builder()
+            .withFullyQualifiedDeclaringType(SyntheticCodebase.SERVICE_TYPE)
+            .withMethodName(SyntheticCodebase.TARGET_METHOD)
+            .build()))),
+      (corpus, operations, statistics) -> {
+        assertEquals(0, statistics.getFilesChanged());
+        FindMethodInvocationsAnalysis analysis = (FindMethodInvocationsAnalysis) operations.iterator().next();
+        int invocationsFound = analysis.getResults().stream()
+            .map(MethodAnalysisResult::getValue)
+            .mapToInt(List::size)
+            .sum();
+        assertEquals(corpus.getMatchingFiles().size(), invocationsFound);
+      });
+  }
+
+
+  private void runAtEachSize(String useCaseName, Supplier<Set<? extends ASTOperation>> operations,
+      RunAssertions assertions) throws IOException {
+    for (int files : fileCounts()) {
+      try (BenchmarkCorpus corpus = BenchmarkCorpus.generate(SyntheticCodebase.builder()
+          .withPackages(Math.max(1, files / 50))
+          .withFiles(files)
+          .withMatchPercentage(MATCH_PERCENTAGE)
+          .withInheritanceDepth(3)
+          .withStaticImportPercentage(20)
+          .withOnDemandImportPercentage(20)
+          .build())) {
+        Set<? extends ASTOperation> useCaseOperations = operations.get();
+        RunStatistics statistics = runAndRecord(useCaseName, corpus, new UseCase() {
+          @Override
+          public Set<? extends ASTOperation> getOperations() {
+            return useCaseOperations;
+          }
+
+          @Override
+          public String[] getSources() {
+            return corpus.getSources();
+          }
+        });
+        assertions.check(corpus, useCaseOperations, statistics);
+      }
+    }
+  }
+
+
+  private RunStatistics runAndRecord(String useCaseName, BenchmarkCorpus corpus, UseCase useCase) throws IOException {
+    List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .collect(Collectors.toList());
+    System.gc();
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+    RunStatistics statistics = AstraCore.run(corpus.getGeneratedDirectory().toString(), useCase);
+
+    long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    int files = corpus.getJavaFiles().size();
+    long millis = Math.max(1, statistics.getRunDuration().toMillis());
+    long filesPerSecond = files * 1000L / millis;
+    long peakHeapMegabytes = peakHeapBytes / (1024 * 1024);
+    log.info("Scaling [" + useCaseName + "] over [" + files + "] files: [" + millis + "] ms, [" + filesPerSecond
+        + "] files/s, peak heap [" + peakHeapMegabytes + "] MB");
+    appendToReport(String.join(",", useCaseName, Integer.toString(files), Integer.toString(corpus.getMatchingFiles().size()),
+        Long.toString(millis), Long.toString(filesPerSecond), Long.toString(peakHeapMegabytes),
+        Long.toString(statistics.getFilesChanged())));
+    return statistics;
+  }
+
+
+  private static void appendToReport(String line) throws IOException {
+    Path report = Paths.get(System.getProperty(REPORT_PROPERTY, "target/scaling-report.csv"));
+    if (report.toAbsolutePath().getParent() != null) {
+      Files.createDirectories(report.toAbsolutePath().getParent());
+    }
+    if (!Files.exists(report)) {
+      Files.writeString(report, REPORT_HEADER + System.lineSeparator(), StandardCharsets.UTF_8);
+    }
+    Files.writeString(report, line + System.lineSeparator(), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+  }
+
+
+  private static List<Integer> fileCounts() {
+    return Arrays.stream(System.getProperty(FILE_COUNTS_PROPERTY, "200").split(","))
+        .map(String::trim)
+        .map(Integer::valueOf)
+        .collect(Collectors.toList());
+  }
+
+
+  @FunctionalInterface
+  private interface RunAssertions {
+    void check(BenchmarkCorpus corpus, Set<? extends ASTOperation> operations, RunStatistics statistics) throws IOException;
+  }
+}
@@ -0,0 +1,85 @@
+package org.alfasoftware.astra.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.utils.CompilationUnitProperty;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Test;
+
+/**
+ * Tests for the generated source trees used by benchmarks and scaling tests, see {@link SyntheticCodebase}.
+ */
+public class TestSyntheticCodebase {
+
+  private final SyntheticCodebase codebase = SyntheticCodebase.builder()
+      .withPackages(3)
+      .withFiles(60)
+      .withMethodsPerFile(3)
+      .withMatchPercentage(25)
+      .withInheritanceDepth(4)
+      .withStaticImportPercentage(50)
+      .withOnDemandImportPercentage(50)
+      .build();
+
+
+  /**
+   * Every generated class compiles, with all of its bindings resolved, whatever combination of imports,
+   * inheritance and matches it was generated with.
+   */
+  @Test
+  public void testGeneratedClassesCompile() throws IOException {
+    try (BenchmarkCorpus corpus = BenchmarkCorpus.generate(codebase)) {
+      List<CompilationUnit> compilationUnits = corpus.parse();
+
+      assertEquals(60, compilationUnits.size());
+      for (CompilationUnit compilationUnit : compilationUnits) {
+        List<String> errors = Arrays.stream(compilationUnit.getProblems())
+            .filter(IProblem::isError)
+            .map(IProblem::getMessage)
+            .collect(Collectors.toList());
+        assertEquals("Errors in " + compilationUnit.getProperty(CompilationUnitProperty.ABSOLUTE_PATH), List.of(), errors);
+      }
+    }
+  }
+
+
+  @Test
+  public void testSameSettingsGenerateSameTree() throws IOException {
+    try (BenchmarkCorpus first = BenchmarkCorpus.generate(codebase);
+         BenchmarkCorpus second = BenchmarkCorpus.generate(codebase)) {
+      assertEquals(relativise(first.getRoot(), first.getMatchingFiles()), relativise(second.getRoot(), second.getMatchingFiles()));
+      for (int i = 0; i < first.getJavaFiles().size(); i++) {
+        assertEquals(Files.readString(first.getJavaFiles().get(i)), Files.readString(second.getJavaFiles().get(i)));
+      }
+    }
+  }
+
+
+  @Test
+  public void testMatchingFilesUseTheLegacyApi() throws IOException {
+    try (BenchmarkCorpus corpus = BenchmarkCorpus.generate(codebase)) {
+      assertTrue(!corpus.getMatchingFiles().isEmpty() && corpus.getMatchingFiles().size() < 60);
+      for (Path file : corpus.getJavaFiles()) {
+        String content = Files.readString(file);
+        boolean matching = corpus.getMatchingFiles().contains(file);
+        assertEquals(file.toString(), matching, content.contains("service." + SyntheticCodebase.TARGET_METHOD + "("));
+        assertEquals(file.toString(), matching, content.contains("LegacyType legacy"));
+        assertEquals(file.toString(), matching, content.contains("@LegacyAnnotation("));
+      }
+    }
+  }
+
+
+  private static List<Path> relativise(Path root, List<Path> files) {
+    return files.stream().map(root::relativize).collect(Collectors.toList());
+  }
+}
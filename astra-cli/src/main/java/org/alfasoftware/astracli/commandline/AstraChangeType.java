@@ -45,10 +45,13 @@ class AstraChangeType implements Runnable {
     split = "[,;]")
   File[] classpath;
 
+  @CommandLine.Mixin
+  StatisticsOutput statisticsOutput = new StatisticsOutput();
+
     @Override
     public void run() {
       log.info("Starting [changetype] refactor: [" + types[0] + "] to [" + types[1] + "]");
-      AstraCore.run(directory.getAbsolutePath(), new UseCase() {
+      statisticsOutput.write(AstraCore.run(directory.getAbsolutePath(), new UseCase() {
 
         @Override
         public Set<? extends ASTOperation> getOperations() {
@@ -64,6 +67,6 @@ class AstraChangeType implements Runnable {
         public Set<String> getAdditionalClassPathEntries() {
           return Arrays.asList(classpath).stream().map(File::getAbsolutePath).collect(Collectors.toSet());
         }
-      });
+      }));
     }
 }
\ No newline at end of file
@@ -86,6 +86,9 @@ class AstraMethodInvocation implements Runnable {
       split = "[,;]")
     File[] classpath;
 
+    @CommandLine.Mixin
+    StatisticsOutput statisticsOutput = new StatisticsOutput();
+
 
     @Override
     public void run() {
@@ -115,7 +118,7 @@ class AstraMethodInvocation implements Runnable {
 
 
     private void performMethodRefactor(MethodMatcher.Builder methodbuilder, MethodInvocationRefactor.Changes changes) {
-      AstraCore.run(directory.getAbsolutePath(), new UseCase() {
+      statisticsOutput.write(AstraCore.run(directory.getAbsolutePath(), new UseCase() {
 
         @Override
         public Set<? extends ASTOperation> getOperations() {
@@ -129,6 +132,6 @@ class AstraMethodInvocation implements Runnable {
         public Set<String> getAdditionalClassPathEntries() {
           return Arrays.asList(classpath).stream().map(File::getAbsolutePath).collect(Collectors.toSet());
         }
-      });
+      }));
     }
 }
\ No newline at end of file
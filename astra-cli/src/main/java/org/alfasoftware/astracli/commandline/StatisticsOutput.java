@@ -0,0 +1,38 @@
+package org.alfasoftware.astracli.commandline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.alfasoftware.astra.core.utils.RunStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import picocli.CommandLine;
+
+/**
+ * Option, shared by the refactoring commands, to write the statistics for a run to a file as JSON.
+ */
+class StatisticsOutput {
+
+  private static final Logger log = LoggerFactory.getLogger(StatisticsOutput.class);
+
+  @CommandLine.Option(
+    names = "--statistics",
+    paramLabel = "<file>",
+    description = "Write timings and file counts for the run to this file, as JSON.")
+  File statisticsFile;
+
+
+  void write(RunStatistics statistics) {
+    if (statisticsFile == null) {
+      return;
+    }
+    try {
+      Files.writeString(statisticsFile.toPath(), statistics.toJson());
+      log.info("Run statistics written to [" + statisticsFile.getAbsolutePath() + "]");
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write run statistics to [" + statisticsFile + "]: " + e.getMessage(), e);
+    }
+  }
+}
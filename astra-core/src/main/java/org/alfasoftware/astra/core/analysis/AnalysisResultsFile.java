@@ -0,0 +1,169 @@
+package org.alfasoftware.astra.core.analysis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.analysis.operations.AnalysisOperation;
+import org.alfasoftware.astra.core.analysis.operations.AnalysisResult;
+import org.alfasoftware.astra.core.analysis.operations.MergeableAnalysisOperation;
+
+/**
+ * Writes the results of the operations of an {@link AnalysisUseCase} to a file, and merges the files written by
+ * several runs back into the operations of a use case.
+ *
+ * This is used to split an analysis between several runs over different shards of a codebase
+ * (see {@link org.alfasoftware.astra.core.utils.Shard}). Each run writes its results, see
+ * {@link AnalysisUseCase#getResultsFile()}, and the results files of all the runs are then merged with
+ * {@link #merge(AnalysisUseCase, Collection)} into a new instance of the use case, whose operations then hold the
+ * results of the whole codebase.
+ *
+ * Every operation of the use case must be a {@link MergeableAnalysisOperation}.
+ */
+public final class AnalysisResultsFile {
+
+  private static final String HEADER = "# Astra analysis results";
+  private static final String OPERATION = "operation";
+  private static final String RESULT = "result";
+
+
+  private AnalysisResultsFile() {
+  }
+
+
+  /**
+   * Writes the results of every operation of the use case to {@code file}, replacing it.
+   *
+   * @param useCase the use case, after it has been run
+   * @param file the results file
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(AnalysisUseCase useCase, Path file) throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add(HEADER);
+    for (MergeableAnalysisOperation<?> operation : mergeableOperations(useCase)) {
+      lines.add(joinFields(List.of(OPERATION, operation.getClass().getName(), operation.getResultsIdentity())));
+      for (List<String> result : operation.writeResults()) {
+        List<String> fields = new ArrayList<>();
+        fields.add(RESULT);
+        fields.addAll(result);
+        lines.add(joinFields(fields));
+      }
+    }
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.write(file, lines, StandardCharsets.UTF_8);
+  }
+
+
+  /**
+   * Reads the results in each of {@code files} into the operations of the use case, so that they hold the results
+   * of every run, in addition to any results they held already.
+   *
+   * @param useCase a use case constructed in the same way as those of the runs which wrote the files
+   * @param files the results files of the runs
+   * @throws IOException if a file cannot be read
+   * @throws IllegalArgumentException if a file was not written by {@link #write(AnalysisUseCase, Path)}, or holds
+   *           results of an operation which the use case does not have
+   */
+  public static void merge(AnalysisUseCase useCase, Collection<Path> files) throws IOException {
+    Map<String, List<MergeableAnalysisOperation<?>>> operationsByKey = new HashMap<>();
+    for (MergeableAnalysisOperation<?> operation : mergeableOperations(useCase)) {
+      operationsByKey.computeIfAbsent(key(operation.getClass().getName(), operation.getResultsIdentity()), k -> new ArrayList<>())
+          .add(operation);
+    }
+
+    for (Path file : files) {
+      List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+      if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+        throw new IllegalArgumentException("Not an analysis results file [" + file + "]");
+      }
+      // Operations of the same class and identity are matched up in the order they were written
+      Map<String, Integer> sectionsByKey = new HashMap<>();
+      Map<MergeableAnalysisOperation<?>, List<List<String>>> resultsByOperation = new LinkedHashMap<>();
+      List<List<String>> currentResults = null;
+      for (String line : lines.subList(1, lines.size())) {
+        List<String> fields = splitFields(line);
+        if (fields.size() == 3 && fields.get(0).equals(OPERATION)) {
+          String key = key(fields.get(1), fields.get(2));
+          int section = sectionsByKey.merge(key, 1, Integer::sum) - 1;
+          List<MergeableAnalysisOperation<?>> operations = operationsByKey.getOrDefault(key, new ArrayList<>());
+          if (section >= operations.size()) {
+            throw new IllegalArgumentException("Results file [" + file + "] holds results of operation [" + fields.get(1)
+                + "] with identity [" + fields.get(2) + "], which the use case does not have");
+          }
+          currentResults = resultsByOperation.computeIfAbsent(operations.get(section), o -> new ArrayList<>());
+        } else if (!fields.isEmpty() && fields.get(0).equals(RESULT) && currentResults != null) {
+          currentResults.add(fields.subList(1, fields.size()));
+        } else if (!line.isEmpty()) {
+          throw new IllegalArgumentException("Unexpected line in analysis results file [" + file + "]: [" + line + "]");
+        }
+      }
+      resultsByOperation.forEach(MergeableAnalysisOperation::readResults);
+    }
+  }
+
+
+  private static List<MergeableAnalysisOperation<?>> mergeableOperations(AnalysisUseCase useCase) {
+    List<MergeableAnalysisOperation<?>> operations = new ArrayList<>();
+    for (AnalysisOperation<? extends AnalysisResult> operation : useCase.getOperations()) {
+      if (!(operation instanceof MergeableAnalysisOperation)) {
+        throw new IllegalArgumentException("Operation [" + operation.getClass().getName() + "] cannot write or merge its results");
+      }
+      operations.add((MergeableAnalysisOperation<?>) operation);
+    }
+    // Operations are held in a set, so are written in a stable order
+    operations.sort(Comparator.comparing((MergeableAnalysisOperation<?> operation) -> operation.getClass().getName())
+        .thenComparing(MergeableAnalysisOperation::getResultsIdentity));
+    return operations;
+  }
+
+
+  private static String key(String operationClassName, String identity) {
+    return operationClassName + "|" + identity;
+  }
+
+
+  /**
+   * Joins fields into one line, separated by tabs, escaping any tabs, line breaks and backslashes within them.
+   */
+  static String joinFields(List<String> fields) {
+    return fields.stream()
+        .map(field -> field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r"))
+        .collect(Collectors.joining("\t"));
+  }
+
+
+  /**
+   * Splits a line joined by {@link #joinFields(List)} back into its fields.
+   */
+  static List<String> splitFields(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '\t') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\\' && i + 1 < line.length()) {
+        char escaped = line.charAt(++i);
+        field.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+}
@@ -1,5 +1,7 @@
 package org.alfasoftware.astra.core.analysis;
 
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.Set;
 
 import org.alfasoftware.astra.core.analysis.operations.AnalysisOperation;
@@ -13,5 +15,17 @@ public interface AnalysisUseCase extends UseCase {
 
   @Override
   Set<? extends AnalysisOperation<? extends AnalysisResult>> getOperations();
+
+  /**
+   * A file to write the results of every operation to, once the use case has been run.
+   * This is used to split an analysis between runs over several shards (see {@link #getShard()}),
+   * whose results files are then merged with {@link AnalysisResultsFile#merge(AnalysisUseCase, java.util.Collection)}.
+   * Every operation must then be a {@link org.alfasoftware.astra.core.analysis.operations.MergeableAnalysisOperation}.
+   *
+   * @return the results file, or empty, the default, to keep the results only in the operations
+   */
+  default Optional<Path> getResultsFile() {
+    return Optional.empty();
+  }
 }
 
@@ -0,0 +1,33 @@
+package org.alfasoftware.astra.core.analysis.operations;
+
+import java.util.List;
+
+/**
+ * An analysis operation whose results can be written out, and read back into another instance of the operation.
+ *
+ * This allows an analysis to be split between several runs, for example over different shards of a codebase
+ * (see {@link org.alfasoftware.astra.core.utils.Shard}), with the results of every run merged afterwards
+ * (see {@link org.alfasoftware.astra.core.analysis.AnalysisResultsFile}).
+ */
+public interface MergeableAnalysisOperation<T extends AnalysisResult> extends AnalysisOperation<T> {
+
+  /**
+   * Returns an identity for the configuration of this operation, which is the same in every process that
+   * constructs the operation in the same way. Results are only read into an operation of the same class and identity.
+   * @return the identity
+   */
+  String getResultsIdentity();
+
+  /**
+   * Returns every result captured so far, each as a list of fields which {@link #readResults(List)} can read back.
+   * @return the fields of each result
+   */
+  List<List<String>> writeResults();
+
+  /**
+   * Adds results written by {@link #writeResults()} of an operation of the same class and identity,
+   * as if they had been captured by this operation.
+   * @param results the fields of each result
+   */
+  void readResults(List<List<String>> results);
+}
@@ -20,6 +20,14 @@ public class AssignmentAnalysisResult extends AnalysisResult {
     this.assignedValue = assignedValue;
   }
 
+  public String getVariableName() {
+    return variableName;
+  }
+
+  public String getAssignedValue() {
+    return assignedValue;
+  }
+
   public void setVariableName(final String variableName) {
     this.variableName = variableName;
   }
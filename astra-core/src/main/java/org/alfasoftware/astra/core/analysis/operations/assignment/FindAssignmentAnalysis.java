@@ -2,9 +2,12 @@ package org.alfasoftware.astra.core.analysis.operations.assignment;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import org.alfasoftware.astra.core.analysis.operations.AnalysisOperation;
+import org.alfasoftware.astra.core.analysis.operations.MergeableAnalysisOperation;
 import org.alfasoftware.astra.core.utils.AstraUtils;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Assignment;
@@ -20,15 +23,21 @@ import org.eclipse.text.edits.MalformedTreeException;
 /**
  * Finds assignments to variables of a specified fully qualified type.
  */
-public class FindAssignmentAnalysis implements AnalysisOperation<AssignmentAnalysisResult> {
+public class FindAssignmentAnalysis implements MergeableAnalysisOperation<AssignmentAnalysisResult> {
 
   private final String fullyQualifiedTypeName;
-  private final List<AssignmentAnalysisResult> foundAssignments = new ArrayList<>();
+  private final List<AssignmentAnalysisResult> foundAssignments = Collections.synchronizedList(new ArrayList<>());
 
   public FindAssignmentAnalysis(String fullyQualifiedTypeName) {
     this.fullyQualifiedTypeName = fullyQualifiedTypeName;
   }
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(VariableDeclarationStatement.class, FieldDeclaration.class, Assignment.class);
+  }
+
+
   @SuppressWarnings("unchecked")
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
@@ -68,5 +77,24 @@ public class FindAssignmentAnalysis implements AnalysisOperation<AssignmentAnaly
   public Collection<AssignmentAnalysisResult> getResults() {
     return foundAssignments;
   }
+
+  @Override
+  public String getResultsIdentity() {
+    return fullyQualifiedTypeName;
+  }
+
+  @Override
+  public List<List<String>> writeResults() {
+    return new ArrayList<>(foundAssignments).stream()
+        .map(result -> List.of(result.getVariableName(), result.getAssignedValue()))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public void readResults(List<List<String>> results) {
+    for (List<String> result : results) {
+      foundAssignments.add(new AssignmentAnalysisResult(result.get(0), result.get(1)));
+    }
+  }
 }
 
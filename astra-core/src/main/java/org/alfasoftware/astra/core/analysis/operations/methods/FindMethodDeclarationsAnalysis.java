@@ -3,15 +3,17 @@ package org.alfasoftware.astra.core.analysis.operations.methods;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
-import org.alfasoftware.astra.core.analysis.operations.AnalysisOperation;
+import org.alfasoftware.astra.core.analysis.operations.MergeableAnalysisOperation;
 import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.matchers.MethodMatcherSet;
 import org.alfasoftware.astra.core.utils.AstraUtils;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
@@ -23,23 +25,29 @@ import org.eclipse.text.edits.MalformedTreeException;
 /**
  * Analysis operation to find method declarations matching set criteria.
  */
-public class FindMethodDeclarationsAnalysis implements AnalysisOperation<MethodAnalysisResult> {
+public class FindMethodDeclarationsAnalysis implements MergeableAnalysisOperation<MethodAnalysisResult> {
 
   private final Set<MethodMatcher> matchers;
-  private final Map<MethodMatcher, List<MatchedMethodResult>> matchedNodes = new HashMap<>();
+  private final MethodMatcherSet matcherSet;
+  private final Map<MethodMatcher, List<MatchedMethodResult>> matchedNodes = new ConcurrentHashMap<>();
 
   public FindMethodDeclarationsAnalysis(Set<MethodMatcher> matchers) {
     this.matchers = matchers;
+    this.matcherSet = MethodMatcherSet.of(matchers);
   }
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodDeclaration.class);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter) throws IOException, MalformedTreeException, BadLocationException {
     if (node instanceof MethodDeclaration) {
-      matchers.stream()
-        .filter(m -> m.matches((MethodDeclaration) node))
-        .findAny()
+      matcherSet.findMatch((MethodDeclaration) node)
         .ifPresent(method -> 
-          matchedNodes.computeIfAbsent(method, m -> new ArrayList<>()).add(
+          matchedNodes.computeIfAbsent(method, m -> Collections.synchronizedList(new ArrayList<>())).add(
             new MatchedMethodResult(node, AstraUtils.getNameForCompilationUnit(compilationUnit),
               compilationUnit.getLineNumber(compilationUnit.getExtendedStartPosition(node)))
           )
@@ -68,4 +76,23 @@ public class FindMethodDeclarationsAnalysis implements AnalysisOperation<MethodA
   public Collection<MethodAnalysisResult> getResults() {
     return matchedNodes.entrySet().stream().map(m -> new MethodAnalysisResult(m.getKey(), m.getValue())).collect(Collectors.toSet());
   }
+
+
+  @Override
+  public String getResultsIdentity() {
+    return MatchedMethodResults.identity(matchers);
+  }
+
+
+  @Override
+  public List<List<String>> writeResults() {
+    return MatchedMethodResults.write(matchedNodes);
+  }
+
+
+  @Override
+  public void readResults(List<List<String>> results) {
+    MatchedMethodResults.read(results, matchers,
+      (matcher, result) -> matchedNodes.computeIfAbsent(matcher, m -> Collections.synchronizedList(new ArrayList<>())).add(result));
+  }
 }
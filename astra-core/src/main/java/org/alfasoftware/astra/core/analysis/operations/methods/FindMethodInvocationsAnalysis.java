@@ -9,12 +9,14 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.alfasoftware.astra.core.analysis.operations.AnalysisOperation;
+import org.alfasoftware.astra.core.analysis.operations.MergeableAnalysisOperation;
 import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.matchers.MethodMatcherSet;
 import org.alfasoftware.astra.core.utils.AstraUtils;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ClassInstanceCreation;
@@ -27,29 +29,44 @@ import org.eclipse.text.edits.MalformedTreeException;
 /**
  * Analysis operation to find method invocations matching set criteria.
  */
-public class FindMethodInvocationsAnalysis implements AnalysisOperation<MethodAnalysisResult> {
+public class FindMethodInvocationsAnalysis implements MergeableAnalysisOperation<MethodAnalysisResult> {
 
   private final Set<MethodMatcher> matchers;
+  private final MethodMatcherSet matcherSet;
   private final Map<MethodMatcher, List<MatchedMethodResult>> matchedNodes;
 
   public FindMethodInvocationsAnalysis(Set<MethodMatcher> matchers) {
     this.matchers = matchers;
+    this.matcherSet = MethodMatcherSet.of(matchers);
     this.matchedNodes = matchers.stream()
-         .collect(Collectors.toMap(Function.identity(), i -> new ArrayList<>()));
+         .collect(Collectors.toMap(Function.identity(), i -> Collections.synchronizedList(new ArrayList<>())));
   }
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodInvocation.class, ClassInstanceCreation.class);
+  }
+
+
+  /**
+   * Every matcher must match on an exact method name (or, for constructors, type name) for there to be
+   * any required tokens.
+   */
+  @Override
+  public Optional<Set<String>> getRequiredContentTokens() {
+    return matcherSet.getRequiredContentTokens();
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
     if (node instanceof MethodInvocation || node instanceof ClassInstanceCreation) {
-      matchers.stream()
-        .filter(m -> 
-             node instanceof MethodInvocation && m.matches((MethodInvocation) node, compilationUnit)
-          || node instanceof ClassInstanceCreation && m.matches((ClassInstanceCreation) node)
-        )
-        .findAny()
+      (node instanceof MethodInvocation
+          ? matcherSet.findMatch((MethodInvocation) node, compilationUnit)
+          : matcherSet.findMatch((ClassInstanceCreation) node))
         .ifPresent(method -> 
-          matchedNodes.computeIfAbsent(method, m -> new ArrayList<>()).add(
+          matchedNodes.get(method).add(
             new MatchedMethodResult(node, AstraUtils.getNameForCompilationUnit(compilationUnit),
               compilationUnit.getLineNumber(compilationUnit.getExtendedStartPosition(node)))
           )
@@ -82,4 +99,19 @@ public class FindMethodInvocationsAnalysis implements AnalysisOperation<MethodAn
   public Collection<MethodAnalysisResult> getResults() {
     return matchedNodes.entrySet().stream().map(m -> new MethodAnalysisResult(m.getKey(), m.getValue())).collect(Collectors.toSet());
   }
+
+  @Override
+  public String getResultsIdentity() {
+    return MatchedMethodResults.identity(matchers);
+  }
+
+  @Override
+  public List<List<String>> writeResults() {
+    return MatchedMethodResults.write(matchedNodes);
+  }
+
+  @Override
+  public void readResults(List<List<String>> results) {
+    MatchedMethodResults.read(results, matchers, (matcher, result) -> matchedNodes.get(matcher).add(result));
+  }
 }
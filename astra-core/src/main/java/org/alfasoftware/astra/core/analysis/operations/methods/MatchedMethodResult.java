@@ -26,6 +26,27 @@ public class MatchedMethodResult {
     this.lineNumber = lineNumber;
   }
 
+  /**
+   * @return the source of the matched node
+   */
+  public String getMatchedNode() {
+    return matchedNode;
+  }
+
+  /**
+   * @return the fully qualified name of the type the match was found in
+   */
+  public String getFoundInFullyQualifiedType() {
+    return foundInFullyQualifiedType;
+  }
+
+  /**
+   * @return the line number at which the match starts in the source file
+   */
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -0,0 +1,57 @@
+package org.alfasoftware.astra.core.analysis.operations.methods;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.matchers.MethodMatcher;
+
+/**
+ * Writes and reads the results of the method analyses, see
+ * {@link org.alfasoftware.astra.core.analysis.operations.MergeableAnalysisOperation}.
+ *
+ * Each result is written with the description of the matcher it was matched by, which is the same in every process
+ * that builds the matcher in the same way, so that it can be read back into the equivalent matcher.
+ */
+final class MatchedMethodResults {
+
+  private MatchedMethodResults() {
+  }
+
+
+  static String identity(Set<MethodMatcher> matchers) {
+    return matchers.stream()
+        .map(MethodMatcher::toString)
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+
+  static List<List<String>> write(Map<MethodMatcher, List<MatchedMethodResult>> matchedNodes) {
+    List<List<String>> results = new ArrayList<>();
+    for (Map.Entry<MethodMatcher, List<MatchedMethodResult>> entry : matchedNodes.entrySet()) {
+      for (MatchedMethodResult result : new ArrayList<>(entry.getValue())) {
+        results.add(List.of(entry.getKey().toString(), result.getMatchedNode(), result.getFoundInFullyQualifiedType(),
+          Integer.toString(result.getLineNumber())));
+      }
+    }
+    return results;
+  }
+
+
+  static void read(List<List<String>> results, Set<MethodMatcher> matchers, BiConsumer<MethodMatcher, MatchedMethodResult> add) {
+    Map<String, MethodMatcher> matchersByDescription = matchers.stream()
+        .collect(Collectors.toMap(MethodMatcher::toString, Function.identity(), (first, second) -> first));
+    for (List<String> result : results) {
+      MethodMatcher matcher = matchersByDescription.get(result.get(0));
+      if (matcher == null) {
+        throw new IllegalArgumentException("No matcher [" + result.get(0) + "] to read results into");
+      }
+      add.accept(matcher, new MatchedMethodResult(result.get(1), result.get(2), Integer.parseInt(result.get(3))));
+    }
+  }
+}
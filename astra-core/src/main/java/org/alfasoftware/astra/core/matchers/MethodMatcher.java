@@ -107,6 +107,7 @@ public class MethodMatcher {
       return this;
     }
     public Builder withFullyQualifiedDeclaringType(DescribedPredicate<String> fullyQualifiedDeclaringTypePredicate) {
+      this.fullyQualifiedDeclaringTypeExactMatch = Optional.empty();
       this.fullyQualifiedDeclaringTypePredicate = Optional.of(fullyQualifiedDeclaringTypePredicate);
       return this;
     }
@@ -116,6 +117,7 @@ public class MethodMatcher {
       return this;
     }
     public Builder withMethodName(DescribedPredicate<String> methodNamePredicate) {
+      this.methodNameExactMatch = Optional.empty();
       this.methodNamePredicate = Optional.of(methodNamePredicate);
       return this;
     }
@@ -264,16 +266,17 @@ public class MethodMatcher {
   }
 
 
-  private boolean isMethodNameMatch(MethodInvocation mi) {
-    return ! methodNamePredicate.isPresent() || methodNamePredicate.get().test(mi.getName().toString());
+  private boolean isMethodNameMatch(ResolvedInvocation invocation) {
+    return ! methodNamePredicate.isPresent() || methodNamePredicate.get().test(invocation.getMethodName());
   }
 
 
-  private boolean isFQInvocationTypeNameMatch(MethodInvocation mi, CompilationUnit cu) {
+  private boolean isFQInvocationTypeNameMatch(ResolvedInvocation invocation) {
     return ! fullyQualifiedDeclaringTypePredicate.isPresent() ||
-            fullyQualifiedDeclaringTypePredicate.get().test(AstraUtils.getFullyQualifiedName(mi, cu)) ||
-            (mi.getExpression() != null &&  mi.getExpression().resolveTypeBinding() != null &&
-              isSuperTypeOrInterfaceMatch(mi.getExpression().resolveTypeBinding(), fullyQualifiedDeclaringTypePredicate.get()));
+            fullyQualifiedDeclaringTypePredicate.get().test(invocation.getFullyQualifiedName()) ||
+            invocation.getExpressionTypeBinding()
+              .filter(typeBinding -> isSuperTypeOrInterfaceMatch(typeBinding, fullyQualifiedDeclaringTypePredicate.get()))
+              .isPresent();
   }
 
   
@@ -290,15 +293,7 @@ public class MethodMatcher {
       return true;
     }
     
-    final ITypeBinding superclass = resolveTypeBinding.getSuperclass();
-    if (superclass != null) {
-       if (test.test(getName(superclass))) {
-         return true;
-       } else if (superclass.getSuperclass() != null) {
-         return isSuperTypeMatch(superclass, test);
-       }
-    }
-    return false;
+    return TypeHierarchyCache.shared().get(resolveTypeBinding).getSuperclasses().getNames().stream().anyMatch(test);
   }
   
   
@@ -306,7 +301,7 @@ public class MethodMatcher {
     if (test.test(getName(typeBinding))) {
       return true;
     }
-    return Arrays.stream(typeBinding.getInterfaces()).anyMatch(i -> isInterfaceMatch(i, test));
+    return TypeHierarchyCache.shared().get(typeBinding).getInterfaces().getNames().stream().anyMatch(test);
   }
 
 
@@ -452,22 +447,30 @@ public class MethodMatcher {
 
 
   public boolean matches(MethodInvocation methodInvocation, CompilationUnit compilationUnit) {
+    return matches(new ResolvedInvocation(methodInvocation, compilationUnit));
+  }
+
+
+  /**
+   * Matches an invocation whose bindings may already have been resolved for another matcher, see {@link MethodMatcherSet}.
+   */
+  boolean matches(ResolvedInvocation invocation) {
+    final MethodInvocation methodInvocation = invocation.getMethodInvocation();
 
-    if (! isMethodNameMatch(methodInvocation)) {
+    if (! isMethodNameMatch(invocation)) {
       return false;
     }
 
-    if (! isFQInvocationTypeNameMatch(methodInvocation, compilationUnit)) {
+    if (! isFQInvocationTypeNameMatch(invocation)) {
       return false;
     }
 
-    if (! parentInvocationMatches(methodInvocation, compilationUnit)) {
+    if (! parentInvocationMatches(methodInvocation, invocation.getCompilationUnit())) {
       return false;
     }
 
     if (fullyQualifiedParameterNames.isPresent() || isVarargs.isPresent() || ! requiredAnnotations.isEmpty() || returnTypePredicate.isPresent()) {
-      final Optional<IMethodBinding> binding = Optional.of(methodInvocation)
-          .map(MethodInvocation::resolveMethodBinding);
+      final Optional<IMethodBinding> binding = invocation.getMethodBinding();
 
       if (! binding.isPresent()) {
         log.debug("Binding not found for method invocation. "
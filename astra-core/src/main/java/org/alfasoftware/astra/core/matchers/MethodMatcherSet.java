@@ -0,0 +1,198 @@
+package org.alfasoftware.astra.core.matchers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+
+/**
+ * A set of {@link MethodMatcher}s compiled for matching a node against all of them at once, for when there are many
+ * of them - for example, thousands of deprecated method signatures.
+ *
+ * <p>Matchers with an exact method name (see {@link MethodMatcher.Builder#withMethodName(String)}) are indexed by it,
+ * and those which also have an exact declaring type are indexed by that too, so a node is only checked against the
+ * matchers which could match its name and type. Matchers using predicates for their method name are checked against
+ * every node, as a fallback. For a method invocation, the bindings and fully qualified name are resolved once, and
+ * shared by every matcher it is checked against.</p>
+ *
+ * <p>Matches are the same as checking each matcher in turn. Where more than one matcher matches a node, the first of
+ * them, in the order given, is reported. A set is immutable, and safe to use from several threads.</p>
+ */
+public final class MethodMatcherSet {
+
+  private final List<MethodMatcher> matchers;
+  private final Map<String, Map<String, List<Indexed>>> byMethodNameAndDeclaringType = new HashMap<>();
+  private final Map<String, List<Indexed>> byMethodName = new HashMap<>();
+  private final List<Indexed> fallback = new ArrayList<>();
+
+
+  private MethodMatcherSet(Collection<MethodMatcher> matchers) {
+    this.matchers = List.copyOf(matchers);
+    for (int i = 0; i < this.matchers.size(); i++) {
+      MethodMatcher matcher = this.matchers.get(i);
+      Indexed indexed = new Indexed(i, matcher);
+      if (matcher.getMethodNameExactName().isEmpty()) {
+        fallback.add(indexed);
+      } else if (matcher.getFullyQualifiedDeclaringTypeExactName().isEmpty()) {
+        byMethodName.computeIfAbsent(matcher.getMethodNameExactName().get(), k -> new ArrayList<>()).add(indexed);
+      } else {
+        byMethodNameAndDeclaringType
+          .computeIfAbsent(matcher.getMethodNameExactName().get(), k -> new HashMap<>())
+          .computeIfAbsent(matcher.getFullyQualifiedDeclaringTypeExactName().get(), k -> new ArrayList<>())
+          .add(indexed);
+      }
+    }
+  }
+
+
+  /**
+   * @param matchers the matchers, in the order in which they are preferred where more than one of them matches a node
+   * @return the matchers, compiled for matching
+   */
+  public static MethodMatcherSet of(Collection<MethodMatcher> matchers) {
+    return new MethodMatcherSet(matchers);
+  }
+
+
+  /**
+   * @return the matchers of this set, in the order given
+   */
+  public List<MethodMatcher> getMatchers() {
+    return matchers;
+  }
+
+
+  /**
+   * Every matcher must match on an exact method name (or, for constructors, type name) for there to be
+   * any required tokens, see {@link org.alfasoftware.astra.core.utils.ASTOperation#getRequiredContentTokens()}.
+   */
+  public Optional<Set<String>> getRequiredContentTokens() {
+    Set<String> tokens = new HashSet<>();
+    for (MethodMatcher matcher : matchers) {
+      Optional<String> token = matcher.getMethodNameExactName().flatMap(AstraUtils::getSimpleNameToken);
+      if (token.isEmpty()) {
+        return Optional.empty();
+      }
+      tokens.add(token.get());
+    }
+    return Optional.of(tokens);
+  }
+
+
+  /**
+   * @return the first matcher which matches the method invocation, if any
+   */
+  public Optional<MethodMatcher> findMatch(MethodInvocation methodInvocation, CompilationUnit compilationUnit) {
+    ResolvedInvocation invocation = new ResolvedInvocation(methodInvocation, compilationUnit);
+    return candidates(invocation.getMethodName(), invocation::getDeclaringTypeNames).stream()
+        .filter(matcher -> matcher.matches(invocation))
+        .findFirst();
+  }
+
+
+  /**
+   * @return every matcher which matches the method invocation, in the order given
+   */
+  public List<MethodMatcher> findAllMatches(MethodInvocation methodInvocation, CompilationUnit compilationUnit) {
+    ResolvedInvocation invocation = new ResolvedInvocation(methodInvocation, compilationUnit);
+    List<MethodMatcher> matches = new ArrayList<>();
+    for (MethodMatcher matcher : candidates(invocation.getMethodName(), invocation::getDeclaringTypeNames)) {
+      if (matcher.matches(invocation)) {
+        matches.add(matcher);
+      }
+    }
+    return matches;
+  }
+
+
+  /**
+   * @return the first matcher which matches the class instance creation, if any
+   */
+  public Optional<MethodMatcher> findMatch(ClassInstanceCreation classInstanceCreation) {
+    String simpleName = AstraUtils.getSimpleName(classInstanceCreation.getType().toString());
+    return candidates(simpleName, () -> declaringTypeName(classInstanceCreation.resolveConstructorBinding())).stream()
+        .filter(matcher -> matcher.matches(classInstanceCreation))
+        .findFirst();
+  }
+
+
+  /**
+   * @return the first matcher which matches the method declaration, if any
+   */
+  public Optional<MethodMatcher> findMatch(MethodDeclaration methodDeclaration) {
+    String methodName = methodDeclaration.getName().toString();
+    return candidates(methodName, () -> declaringTypeName(methodDeclaration.resolveBinding())).stream()
+        .filter(matcher -> matcher.matches(methodDeclaration))
+        .findFirst();
+  }
+
+
+  /**
+   * Matching a constructor or declaration compares the exact declaring type with that of its binding, see
+   * {@link MethodMatcher#matches(ClassInstanceCreation)}; without a binding, no matcher can match it.
+   */
+  private static Set<String> declaringTypeName(IMethodBinding methodBinding) {
+    return Optional.ofNullable(methodBinding)
+      .map(IMethodBinding::getDeclaringClass)
+      .map(typeBinding -> typeBinding.isAnonymous() ? typeBinding.getSuperclass() : typeBinding)
+      .map(ITypeBinding::getQualifiedName)
+      .map(Set::of)
+      .orElse(Set.of());
+  }
+
+
+  /**
+   * @param declaringTypeNames the exact declaring types the node could match, only worked out if a matcher for its name has one
+   * @return the matchers which could match a node with the given name and declaring types, in the order given
+   */
+  private List<MethodMatcher> candidates(String methodName, Supplier<Set<String>> declaringTypeNames) {
+    List<Indexed> candidates = new ArrayList<>(fallback);
+    candidates.addAll(byMethodName.getOrDefault(methodName, Collections.emptyList()));
+    Map<String, List<Indexed>> byDeclaringType = byMethodNameAndDeclaringType.getOrDefault(methodName, Collections.emptyMap());
+    if (! byDeclaringType.isEmpty()) {
+      for (String declaringTypeName : declaringTypeNames.get()) {
+        candidates.addAll(byDeclaringType.getOrDefault(declaringTypeName, Collections.emptyList()));
+      }
+    }
+    if (candidates.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<MethodMatcher> ordered = new ArrayList<>(candidates.size());
+    candidates.stream()
+      .sorted(Comparator.comparingInt(Indexed::position))
+      .forEach(indexed -> ordered.add(indexed.matcher()));
+    return ordered;
+  }
+
+
+  @Override
+  public String toString() {
+    return "MethodMatcherSet [matchers=" + matchers.size() +
+        ", indexedByMethodNameAndDeclaringType=" + byMethodNameAndDeclaringType.values().stream().flatMap(m -> m.values().stream()).mapToInt(List::size).sum() +
+        ", indexedByMethodName=" + byMethodName.values().stream().mapToInt(List::size).sum() +
+        ", fallback=" + fallback.size() +
+        "]";
+  }
+
+
+  /**
+   * A matcher, with its position in the order given.
+   */
+  private record Indexed(int position, MethodMatcher matcher) {
+  }
+}
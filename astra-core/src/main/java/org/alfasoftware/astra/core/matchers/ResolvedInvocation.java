@@ -0,0 +1,107 @@
+package org.alfasoftware.astra.core.matchers;
+
+import static org.alfasoftware.astra.core.utils.AstraUtils.getName;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+
+/**
+ * A method invocation with the properties a {@link MethodMatcher} matches on, each worked out at most once.
+ * This lets a {@link MethodMatcherSet} check an invocation against many matchers without resolving its bindings,
+ * or its fully qualified name, for each of them.
+ *
+ * <p>Not thread-safe; it is only meant to be used for a single node, on the thread visiting it.</p>
+ */
+final class ResolvedInvocation {
+
+  private final MethodInvocation methodInvocation;
+  private final CompilationUnit compilationUnit;
+
+  private String fullyQualifiedName;
+  private Optional<ITypeBinding> expressionTypeBinding;
+  private Optional<IMethodBinding> methodBinding;
+  private Set<String> declaringTypeNames;
+
+
+  ResolvedInvocation(MethodInvocation methodInvocation, CompilationUnit compilationUnit) {
+    this.methodInvocation = methodInvocation;
+    this.compilationUnit = compilationUnit;
+  }
+
+
+  MethodInvocation getMethodInvocation() {
+    return methodInvocation;
+  }
+
+
+  CompilationUnit getCompilationUnit() {
+    return compilationUnit;
+  }
+
+
+  String getMethodName() {
+    return methodInvocation.getName().toString();
+  }
+
+
+  /**
+   * @return the fully qualified name of the type the method is invoked on, see {@link AstraUtils#getFullyQualifiedName(MethodInvocation, CompilationUnit)}
+   */
+  String getFullyQualifiedName() {
+    if (fullyQualifiedName == null) {
+      fullyQualifiedName = AstraUtils.getFullyQualifiedName(methodInvocation, compilationUnit);
+    }
+    return fullyQualifiedName;
+  }
+
+
+  /**
+   * @return the type binding of the expression the method is invoked on, if it has one
+   */
+  Optional<ITypeBinding> getExpressionTypeBinding() {
+    if (expressionTypeBinding == null) {
+      expressionTypeBinding = Optional.ofNullable(methodInvocation.getExpression()).map(Expression::resolveTypeBinding);
+    }
+    return expressionTypeBinding;
+  }
+
+
+  Optional<IMethodBinding> getMethodBinding() {
+    if (methodBinding == null) {
+      methodBinding = Optional.ofNullable(methodInvocation.resolveMethodBinding());
+    }
+    return methodBinding;
+  }
+
+
+  /**
+   * The names which an exact declaring type of a {@link MethodMatcher} is compared with: the fully qualified name of
+   * the invocation, and, where the expression it is invoked on has a type binding, {@link Object}, that type's
+   * superclasses, and the interfaces it implements.
+   *
+   * @return every declaring type name this invocation could match exactly
+   */
+  Set<String> getDeclaringTypeNames() {
+    if (declaringTypeNames == null) {
+      declaringTypeNames = new HashSet<>();
+      declaringTypeNames.add(getFullyQualifiedName());
+      if (getExpressionTypeBinding().isPresent()) {
+        ITypeBinding typeBinding = getExpressionTypeBinding().get();
+        TypeHierarchyCache.TypeHierarchy hierarchy = TypeHierarchyCache.shared().get(typeBinding);
+        declaringTypeNames.add(Object.class.getName());
+        declaringTypeNames.add(getName(typeBinding));
+        declaringTypeNames.addAll(hierarchy.getSuperclasses().getNames());
+        declaringTypeNames.addAll(hierarchy.getInterfaces().getNames());
+      }
+    }
+    return declaringTypeNames;
+  }
+}
@@ -0,0 +1,223 @@
+package org.alfasoftware.astra.core.matchers;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of the supertypes and interfaces of each type, shared by the matchers, so that the same hierarchy does not
+ * have to be walked, and named, each time a matcher checks a supertype or interface.
+ *
+ * <p>Hierarchies are keyed by {@link ITypeBinding#getKey()}, which is the same for a type in every compilation unit
+ * of a run, and are only held as names, so no binding, or the AST it belongs to, is kept. The cache is safe to use
+ * from several threads.</p>
+ *
+ * <p>Hierarchies are only cached while a run is in progress (see {@link #startRun()}), as the same key may name a
+ * different type in another run, and are forgotten before each further round of a run, as the files changed by a
+ * round may change the hierarchies of the types they declare. Outside of a run, or for a recovered binding, the
+ * hierarchy is walked each time.</p>
+ */
+public final class TypeHierarchyCache {
+
+  private static final Logger log = LoggerFactory.getLogger(TypeHierarchyCache.class);
+
+  private static final TypeHierarchyCache SHARED = new TypeHierarchyCache();
+
+  private final Map<String, TypeHierarchy> hierarchies = new ConcurrentHashMap<>();
+  private final AtomicInteger runsInProgress = new AtomicInteger();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+
+  private TypeHierarchyCache() {
+  }
+
+
+  /**
+   * @return the cache shared by every matcher.
+   */
+  public static TypeHierarchyCache shared() {
+    return SHARED;
+  }
+
+
+  /**
+   * @return the hierarchy of the type, from the cache where it has already been walked
+   */
+  TypeHierarchy get(ITypeBinding typeBinding) {
+    String key = runsInProgress.get() == 0 || typeBinding.isRecovered() ? null : typeBinding.getKey();
+    if (key != null) {
+      TypeHierarchy hierarchy = hierarchies.get(key);
+      if (hierarchy != null) {
+        hits.increment();
+        return hierarchy;
+      }
+    }
+    misses.increment();
+    // Not computeIfAbsent, as the hierarchies of the supertypes are looked up, and added, while walking this one.
+    // Two threads may walk the same type at once, but they find the same hierarchy.
+    TypeHierarchy hierarchy = walk(typeBinding);
+    if (key != null) {
+      hierarchies.putIfAbsent(key, hierarchy);
+    }
+    return hierarchy;
+  }
+
+
+  /**
+   * Starts caching hierarchies, for a run, until the run ends; see {@link #endRun()}.
+   */
+  public void startRun() {
+    if (runsInProgress.getAndIncrement() == 0) {
+      hierarchies.clear();
+      hits.reset();
+      misses.reset();
+    }
+  }
+
+
+  /**
+   * Forgets every hierarchy, before a further round of a run.
+   */
+  public void clearHierarchies() {
+    hierarchies.clear();
+  }
+
+
+  /**
+   * Ends a run started by {@link #startRun()}. Once no run is in progress, the hit rate of the cache is logged, at debug
+   * level, and every hierarchy is forgotten.
+   */
+  public void endRun() {
+    if (runsInProgress.decrementAndGet() == 0) {
+      logHitRate();
+      hierarchies.clear();
+    }
+  }
+
+
+  /**
+   * @return the number of hierarchies found in the cache since the first run in progress started
+   */
+  long getHits() {
+    return hits.sum();
+  }
+
+
+  private void logHitRate() {
+    if (log.isDebugEnabled()) {
+      long hitCount = hits.sum();
+      long lookups = hitCount + misses.sum();
+      log.debug("Type hierarchy cache: [" + hitCount + "] hit(s) in [" + lookups + "] lookup(s)"
+          + (lookups == 0 ? "" : ", a hit rate of [" + (hitCount * 100 / lookups) + "%]")
+          + ", holding [" + hierarchies.size() + "] type(s)");
+    }
+  }
+
+
+  private TypeHierarchy walk(ITypeBinding typeBinding) {
+    Names superclasses = new Names();
+    Names interfaces = new Names();
+    Names allInterfaces = new Names();
+
+    ITypeBinding superclass = typeBinding.getSuperclass();
+    if (superclass != null) {
+      TypeHierarchy superclassHierarchy = get(superclass);
+      superclasses.add(superclass);
+      superclasses.addAll(superclassHierarchy.getSuperclasses());
+      allInterfaces.addAll(superclassHierarchy.getAllInterfaces());
+    }
+    for (ITypeBinding superInterface : typeBinding.getInterfaces()) {
+      interfaces.add(superInterface);
+      interfaces.addAll(get(superInterface).getInterfaces());
+    }
+    allInterfaces.addAll(interfaces);
+    return new TypeHierarchy(superclasses, interfaces, allInterfaces);
+  }
+
+
+  /**
+   * The supertypes of a type, by name.
+   */
+  static final class TypeHierarchy {
+    private final Names superclasses;
+    private final Names interfaces;
+    private final Names allInterfaces;
+
+    private TypeHierarchy(Names superclasses, Names interfaces, Names allInterfaces) {
+      this.superclasses = superclasses;
+      this.interfaces = interfaces;
+      this.allInterfaces = allInterfaces;
+    }
+
+    /**
+     * @return the superclass of the type, its superclass, and so on
+     */
+    Names getSuperclasses() {
+      return superclasses;
+    }
+
+    /**
+     * @return the interfaces the type implements or extends itself, and the interfaces they extend, and so on
+     */
+    Names getInterfaces() {
+      return interfaces;
+    }
+
+    /**
+     * @return the {@link #getInterfaces() interfaces} of the type, and those of each of its superclasses
+     */
+    Names getAllInterfaces() {
+      return allInterfaces;
+    }
+  }
+
+
+  /**
+   * The names of a set of types: by {@link AstraUtils#getName(ITypeBinding)}, binary name and qualified name. A
+   * type without a name of a kind, such as a local class without a binary name, is left out of that kind.
+   */
+  static final class Names {
+    private final Set<String> names = new HashSet<>();
+    private final Set<String> binaryNames = new HashSet<>();
+    private final Set<String> qualifiedNames = new HashSet<>();
+
+    private void add(ITypeBinding typeBinding) {
+      addIfNamed(names, AstraUtils.getName(typeBinding));
+      addIfNamed(binaryNames, typeBinding.getBinaryName());
+      addIfNamed(qualifiedNames, typeBinding.getQualifiedName());
+    }
+
+    private void addAll(Names other) {
+      names.addAll(other.names);
+      binaryNames.addAll(other.binaryNames);
+      qualifiedNames.addAll(other.qualifiedNames);
+    }
+
+    private static void addIfNamed(Set<String> set, String name) {
+      if (name != null) {
+        set.add(name);
+      }
+    }
+
+    Set<String> getNames() {
+      return names;
+    }
+
+    Set<String> getBinaryNames() {
+      return binaryNames;
+    }
+
+    Set<String> getQualifiedNames() {
+      return qualifiedNames;
+    }
+  }
+}
@@ -10,7 +10,6 @@ import org.alfasoftware.astra.core.utils.AstraUtils;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.Annotation;
-import org.eclipse.jdt.core.dom.EnumDeclaration;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.RecordDeclaration;
@@ -412,15 +411,17 @@ public class TypeMatcher implements Matcher {
       if (superclassBinding == null) {
         return false;
       }
-      Set<ITypeBinding> superClasses = getAllSuperClasses(superclassBinding, new HashSet<>());
+      TypeHierarchyCache.Names superClasses = TypeHierarchyCache.shared().get(superclassBinding).getSuperclasses();
 
       // If we have specified a parameterized supertype, match on the qualified name
       if (typeBuilder.superClass.contains("<")) {
-        if (superClasses.stream().noneMatch(c -> typeBuilder.superClass.equals(c.getQualifiedName()))) {
+        if (! typeBuilder.superClass.equals(superclassBinding.getQualifiedName())
+            && ! superClasses.getQualifiedNames().contains(typeBuilder.superClass)) {
           return false;
         }
       // If we have not specified a parameterized supertype, then only match on binary type name
-      } else if (superClasses.stream().noneMatch(c -> typeBuilder.superClass.equals(c.getBinaryName()))) {
+      } else if (! typeBuilder.superClass.equals(superclassBinding.getBinaryName())
+          && ! superClasses.getBinaryNames().contains(typeBuilder.superClass)) {
         return false;
       }
     }
@@ -428,15 +429,6 @@ public class TypeMatcher implements Matcher {
   }
 
 
-  private Set<ITypeBinding> getAllSuperClasses(ITypeBinding typeBinding, Set<ITypeBinding> superClasses) {
-    if (typeBinding != null) {
-      superClasses.add(typeBinding);
-      getAllSuperClasses(typeBinding.getSuperclass(), superClasses);
-    }
-    return superClasses;
-  }
-
-
   private boolean checkIsClass(TypeDeclaration typeDeclaration) {
     return typeBuilder.isClass == null || typeBuilder.isClass != typeDeclaration.isInterface();
   }
@@ -489,16 +481,20 @@ public class TypeMatcher implements Matcher {
       return true;
     }
 
-    final Set<ITypeBinding> allInterfaces = getAllInterfaces(typeDeclaration);
+    final ITypeBinding typeBinding = typeDeclaration.resolveBinding();
+    if (typeBinding == null) {
+      return false;
+    }
+    final TypeHierarchyCache.Names allInterfaces = TypeHierarchyCache.shared().get(typeBinding).getAllInterfaces();
 
     for (String interfaceToFind : typeBuilder.interfaces) {
       // If we have specified a parameterized supertype, match on the qualified name
       if (interfaceToFind.contains("<")) {
-        if (allInterfaces.stream().noneMatch(c -> interfaceToFind.equals(c.getQualifiedName()))) {
+        if (! allInterfaces.getQualifiedNames().contains(interfaceToFind)) {
           return false;
         }
         // If we have not specified a parameterized supertype, then only match on binary type name
-      } else if (allInterfaces.stream().noneMatch(c -> interfaceToFind.equals(c.getBinaryName()))) {
+      } else if (! allInterfaces.getBinaryNames().contains(interfaceToFind)) {
         return false;
       }
     }
@@ -507,58 +503,6 @@ public class TypeMatcher implements Matcher {
   }
 
 
-  private Set<ITypeBinding> getAllInterfaces(AbstractTypeDeclaration typeDeclaration) {
-    List<Type> superInterfaceTypes = getSuperInterfaceTypes(typeDeclaration);
-    Set<ITypeBinding> interfaces = new HashSet<>();
-    for (Type interfaceName : superInterfaceTypes) {
-      interfaces.add(interfaceName.resolveBinding());
-      getSuperInterfaces(interfaceName.resolveBinding(), interfaces);
-    }
-    getSuperClassInterfaces(typeDeclaration.resolveBinding(), interfaces);
-    return interfaces;
-  }
-
-
-  /**
-   * Returns the declared super-interface types for a type. Records, enums and ordinary types each
-   * expose these separately, so they are unified here.
-   */
-  @SuppressWarnings("unchecked")
-  private List<Type> getSuperInterfaceTypes(AbstractTypeDeclaration typeDeclaration) {
-    if (typeDeclaration instanceof TypeDeclaration) {
-      return ((TypeDeclaration) typeDeclaration).superInterfaceTypes();
-    }
-    if (typeDeclaration instanceof RecordDeclaration) {
-      return ((RecordDeclaration) typeDeclaration).superInterfaceTypes();
-    }
-    if (typeDeclaration instanceof EnumDeclaration) {
-      return ((EnumDeclaration) typeDeclaration).superInterfaceTypes();
-    }
-    return new ArrayList<>();
-  }
-
-
-  private void getSuperClassInterfaces(ITypeBinding child, Set<ITypeBinding> interfaces) {
-    if (child != null && child.getSuperclass() != null) {
-      for (ITypeBinding superClassInterface : child.getSuperclass().getInterfaces()) {
-        interfaces.add(superClassInterface);
-        getSuperInterfaces(superClassInterface, interfaces);
-      }
-      getSuperClassInterfaces(child.getSuperclass(), interfaces);
-    }
-  }
-
-
-  private void getSuperInterfaces(ITypeBinding child, Set<ITypeBinding> interfaces) {
-    if (child != null && child.getInterfaces() != null) {
-      for (ITypeBinding superClassInterface : child.getInterfaces()) {
-        interfaces.add(superClassInterface);
-        getSuperInterfaces(superClassInterface, interfaces);
-      }
-    }
-  }
-
-
   /**
    * Checks the each supplied annotation matcher against the annotations on the type.
    *
@@ -1,10 +1,14 @@
 package org.alfasoftware.astra.core.refactoring;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 
 import org.alfasoftware.astra.core.utils.ASTOperation;
+import org.alfasoftware.astra.core.utils.Shard;
 
 /**
  * A use case is a collection of operations to be applied at the same time.
@@ -27,6 +31,32 @@ public interface UseCase {
     return s -> true; // i.e. no filter by default
   }
 
+  /**
+   * This can be used to skip whole directories under the directory that the UseCase runs over,
+   * based on the absolute path of each directory.
+   *
+   * <p>A directory for which this returns {@code false} is not walked at all, so none of the files
+   * beneath it are considered. This is much cheaper than rejecting each of those files with
+   * {@link #getPrefilteringPredicate()}, for directories such as build output which hold many files.
+   * It is not applied to the directory that the UseCase runs over.
+   */
+  default Predicate<String> getDirectoryPrefilteringPredicate() {
+    return s -> true; // i.e. no filter by default
+  }
+
+  /**
+   * Glob patterns, in the syntax of {@link java.nio.file.FileSystem#getPathMatcher(String)}, for
+   * directories under the directory that the UseCase runs over which should not be walked at all,
+   * in the same way as {@link #getDirectoryPrefilteringPredicate()}.
+   *
+   * <p>Each pattern is matched against both the name of a directory and its path relative to the
+   * directory that the UseCase runs over. For example, {@code ".git"} or {@code "{target,node_modules}"}
+   * skip those directories wherever they are, while {@code "legacy/generated"} only skips that one.
+   */
+  default Set<String> getExcludedDirectoryGlobs() {
+    return new HashSet<>();
+  }
+
   /**
    * Returns a predicate applied to the raw file content (as a String) before
    * the file is parsed into an AST. Files for which this predicate returns
@@ -93,11 +123,173 @@ public interface UseCase {
    *         compilation environment. A larger batch size amortises the cost of classpath
    *         initialisation over more files but increases the peak heap required during the
    *         parse phase; a smaller value reduces peak heap at the cost of more initialisations.
+   *         Parsing of the next chunk overlaps with applying operations to the current one, so
+   *         up to two chunks may be resident at once.
    *         The default of {@code 500} suits a 512 MB heap and typical-sized Java source
    *         files. Reduce this value if you encounter {@link OutOfMemoryError} on a large
-   *         codebase, or increase it if you have a generous heap budget.
+   *         codebase, or increase it if you have a generous heap budget, or see
+   *         {@link #isBatchSizeAdaptive()}. Not used for chunks sized adaptively.
    */
   default int getBatchSize() {
     return 500;
   }
+
+
+  /**
+   * @return Whether to size each chunk from the heap which is free when the chunk is read, and the size on disk
+   *         of the files waiting to be processed, rather than using {@link #getBatchSize()} for every chunk.
+   *         Chunks of small files are then larger, and chunks of large files smaller, than the fixed batch size.
+   *         Whether or not this is enabled, a chunk which runs out of memory is retried with half as many files,
+   *         and a file which runs out of memory while the operations are applied is retried on its own.
+   *         Defaults to {@code false}.
+   */
+  default boolean isBatchSizeAdaptive() {
+    return false;
+  }
+
+
+  /**
+   * @return The number of batch parsers to run concurrently when parsing each chunk of
+   *         {@link #getBatchSize()} files. Each chunk is split into this many contiguous shards,
+   *         and each shard is parsed by its own, independently configured parser on its own thread.
+   *         The parsers share the JARs on the classpath, but each builds its own compiler environment,
+   *         so this trades extra initialisation work and heap for wall-clock time on machines with many cores.
+   *         Defaults to {@code 1}, i.e. each chunk is parsed by a single parser.
+   */
+  default int getParseParallelism() {
+    return 1;
+  }
+
+
+  /**
+   * @return Whether files need to be parsed with bindings resolved for the operations of this use case.
+   *         When {@code false}, files are parsed syntactically only, without setting up the classpath or
+   *         sources, which is much faster. Removal of imports made unused by a change still resolves
+   *         bindings, for the changed files only.
+   *         Defaults to {@code true} if any operation requires bindings, see {@link ASTOperation#requiresBindings()}.
+   */
+  default boolean requiresBindings() {
+    return getOperations().stream().anyMatch(ASTOperation::requiresBindings);
+  }
+
+
+  /**
+   * @return The most rounds of operations to apply. After the first round, which processes every file, each
+   *         further round processes only the files changed by the round before it, so that operations can act
+   *         on code produced by other operations, such as simplifying the invocations written by another refactor.
+   *         The run stops early once a round changes no files. The classpath is shared by every round.
+   *         Defaults to {@code 1}, i.e. each file is processed once.
+   */
+  default int getMaximumRounds() {
+    return 1;
+  }
+
+
+  /**
+   * @return The shard of the files to run over, when the files are shared between several independent runs of
+   *         this use case, for example on different machines. Each run is given the same shard count and its own
+   *         shard index, and together they process every file once. See {@link Shard}.
+   *         Defaults to empty, i.e. every file is processed.
+   */
+  default Optional<Shard> getShard() {
+    return Optional.empty();
+  }
+
+
+  /**
+   * @return The longest time to spend processing any one file, from when a thread starts on it. A file which takes
+   *         longer, for example because an operation or the rewrite of the file spins on pathological input, is
+   *         cancelled and skipped, left as it was, so that it does not hold up the rest of the run. Skipped files are
+   *         counted in the run statistics and listed at the end of the run, and are not recorded in the run cache.
+   *         Defaults to empty, i.e. no limit.
+   */
+  default Optional<Duration> getFileTimeout() {
+    return Optional.empty();
+  }
+
+
+  /**
+   * @return A file in which to journal the files completed by a run of this use case, so that a run which is
+   *         interrupted, or stopped by {@link #getTimeBudget()}, can be resumed by running it again. Each file is
+   *         journaled with the hash of its content before and after it was processed, once the chunk it is in has
+   *         been written, and a resumed run skips every file still left as the journal records. Files which failed
+   *         or ran out of time are not journaled, so are processed again. The journal is started again if
+   *         {@link #getRunCacheIdentity()}, the classes of the operations, the sources or the classpath change, and is
+   *         only used when the use case gives an identity. It is deleted once a run completes without leaving any file
+   *         to be processed again. With several rounds (see {@link #getMaximumRounds()}), a file which
+   *         an earlier run completed and changed is still processed again in the next round of the resumed run.
+   *         Defaults to empty, i.e. every run starts from scratch.
+   */
+  default Optional<Path> getJournalFile() {
+    return Optional.empty();
+  }
+
+
+  /**
+   * @return The longest a run should take. Once it has been spent, the run stops cleanly at the end of the chunk
+   *         being processed, leaving the rest of the files as they are, and
+   *         {@link org.alfasoftware.astra.core.utils.RunStatistics#isStoppedByTimeBudget()} is set. With a
+   *         {@link #getJournalFile() journal}, running the use case again carries on where the run stopped.
+   *         Defaults to empty, i.e. no limit.
+   */
+  default Optional<Duration> getTimeBudget() {
+    return Optional.empty();
+  }
+
+
+  /**
+   * @return The number of child JVMs to process files in. When greater than {@code 0}, the directory is walked in
+   *         the calling JVM, and the files are sent in chunks of {@link #getBatchSize()} to a pool of this many
+   *         worker JVMs, each with its own heap (see {@link #getWorkerMaxHeap()}), so that a file which exhausts the
+   *         heap of a worker fails only the chunk it is in. The files of such a chunk which the worker had not yet
+   *         written are retried in two halves, on a fresh worker, until the file which fails it is retried, and
+   *         reported as failed, on its own. Each worker creates this
+   *         use case again, so it must be a public class with a public no-argument constructor, and processes its
+   *         chunk with {@link #getParallelism()} threads. The run cache (see {@link #getRunCacheFile()}), run journal
+   *         (see {@link #getJournalFile()}) and time budget (see {@link #getTimeBudget()}) are not used.
+   *         A use case with worker processes can only be run on its own, not together with other use cases.
+   *         Defaults to {@code 0}, i.e. files are processed in the calling JVM.
+   */
+  default int getWorkerProcesses() {
+    return 0;
+  }
+
+
+  /**
+   * @return The maximum heap of each worker JVM (see {@link #getWorkerProcesses()}), in the form of the
+   *         {@code -Xmx} option, such as {@code 2g}.
+   *         Defaults to empty, i.e. the default maximum heap of the JVM.
+   */
+  default Optional<String> getWorkerMaxHeap() {
+    return Optional.empty();
+  }
+
+
+  /**
+   * @return A file in which to keep a manifest of the files a run of this use case processed without
+   *         making any edits, keyed by a hash of their content. When present, a later run skips any file
+   *         whose content still matches its entry, without prefiltering, parsing or visiting it.
+   *         The manifest is invalidated as a whole if {@link #getRunCacheIdentity()}, the classes of the
+   *         operations, the sources or the classpath change, and is only used when the use case gives an identity.
+   *         Source directories, and directories on the classpath, are identified by their path only: a change to
+   *         another file, such as a supertype edited in a source directory, does not invalidate the entries of the
+   *         files which depend on it, so it must change the identity, or the manifest must be deleted.
+   *         Defaults to empty, i.e. every run processes every file.
+   */
+  default Optional<Path> getRunCacheFile() {
+    return Optional.empty();
+  }
+
+
+  /**
+   * @return An identity for the configuration of this use case and its operations, used to invalidate the run cache
+   *         (see {@link #getRunCacheFile()}) and the run journal (see {@link #getJournalFile()}). It must change whenever anything which changes the behaviour of the
+   *         operations changes, such as the types or methods they match, so that every file is processed again; for
+   *         example, a version of the use case, or a hash of the mapping file it reads. The run cache and journal
+   *         cannot tell such a change from the operations, so they are not used unless an identity is given.
+   *         Defaults to empty, i.e. neither the run cache nor the journal is used.
+   */
+  default Optional<String> getRunCacheIdentity() {
+    return Optional.empty();
+  }
 }
@@ -171,6 +171,18 @@ public class AnnotationChangeRefactor implements ASTOperation {
   }
 
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(Annotation.class);
+  }
+
+
+  @Override
+  public Optional<Set<String>> getRequiredContentTokens() {
+    return AstraUtils.getSimpleNameToken(fromType.getFullyQualifiedName()).map(Set::of);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
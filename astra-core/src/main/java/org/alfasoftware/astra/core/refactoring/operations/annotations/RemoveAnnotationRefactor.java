@@ -1,6 +1,7 @@
 package org.alfasoftware.astra.core.refactoring.operations.annotations;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.matchers.AnnotationMatcher;
 import org.alfasoftware.astra.core.utils.ASTOperation;
@@ -27,6 +28,12 @@ public class RemoveAnnotationRefactor implements ASTOperation {
     this.annotationToRemove = annotationToRemove;
   }
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(Annotation.class);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
@@ -55,6 +55,12 @@ public class UnusedImportRefactor implements ASTOperation {
   private static final String ORG = "org.";
 
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(AbstractTypeDeclaration.class);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
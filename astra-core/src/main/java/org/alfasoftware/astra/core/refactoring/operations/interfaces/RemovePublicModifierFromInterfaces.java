@@ -2,11 +2,13 @@ package org.alfasoftware.astra.core.refactoring.operations.interfaces;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.matchers.TypeMatcher;
 import org.alfasoftware.astra.core.utils.ASTOperation;
 import org.alfasoftware.astra.core.utils.ClassVisitor;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.IExtendedModifier;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
@@ -20,6 +22,18 @@ import org.eclipse.text.edits.MalformedTreeException;
  */
 public class RemovePublicModifierFromInterfaces implements ASTOperation {
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(AbstractTypeDeclaration.class);
+  }
+
+
+  @Override
+  public boolean requiresBindings() {
+    return false;
+  }
+
+
   @Override
   public void run(final CompilationUnit compilationUnit, final ASTNode node, final ASTRewrite rewriter) throws IOException, MalformedTreeException, BadLocationException {
     // If the node is an interface
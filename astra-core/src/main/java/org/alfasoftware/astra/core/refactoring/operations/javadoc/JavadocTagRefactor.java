@@ -2,6 +2,7 @@ package org.alfasoftware.astra.core.refactoring.operations.javadoc;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.utils.ASTOperation;
 import org.alfasoftware.astra.core.utils.AstraUtils;
@@ -46,6 +47,18 @@ public class JavadocTagRefactor implements ASTOperation {
   }
 
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(TagElement.class);
+  }
+
+
+  @Override
+  public boolean requiresBindings() {
+    return false;
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
@@ -0,0 +1,171 @@
+package org.alfasoftware.astra.core.refactoring.operations.methods;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.matchers.MethodMatcherSet;
+import org.alfasoftware.astra.core.refactoring.operations.methods.MethodInvocationRefactor.Changes;
+import org.alfasoftware.astra.core.utils.ASTOperation;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.text.edits.MalformedTreeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies many {@link MethodInvocationRefactor}s as a single operation - for example, the hundreds of methods renamed
+ * or moved by a library upgrade.
+ *
+ * <p>The matchers of the refactors are held in a {@link MethodMatcherSet}, indexed by method name and declaring type,
+ * so each method invocation is only checked against the matchers it could match, and is changed by the first refactor
+ * which matches it, in the order given, in the same visit.</p>
+ *
+ * <p>The refactors can be read from a mapping file, one per line, of a method signature in the format read by
+ * {@link MethodMatcher#buildMethodMatcherForFQSignature(String)}, and the new type and method name:</p>
+ *
+ * <pre>
+ * # Moved to B, and renamed
+ * com.foo.A.doFoo(int, com.foo.Bar) -&gt; com.foo.B.doBar
+ * # Renamed, on the same type
+ * com.foo.A.doBaz() -&gt; doQux
+ * </pre>
+ *
+ * <p>Blank lines, and lines starting with {@code #}, are skipped.</p>
+ */
+public class BulkMethodInvocationRefactor implements ASTOperation {
+
+  private static final Logger log = LoggerFactory.getLogger(BulkMethodInvocationRefactor.class);
+
+  private static final String MAPPING_SEPARATOR = "->";
+
+  private final List<MethodInvocationRefactor> refactors;
+  private final MethodMatcherSet matcherSet;
+  private final Map<MethodMatcher, MethodInvocationRefactor> refactorsByMatcher = new IdentityHashMap<>();
+
+
+  private BulkMethodInvocationRefactor(Collection<MethodInvocationRefactor> refactors) {
+    this.refactors = List.copyOf(refactors);
+    for (MethodInvocationRefactor refactor : this.refactors) {
+      // Where refactors share a matcher, the first one given is applied
+      refactorsByMatcher.putIfAbsent(refactor.getBeforeMatcher(), refactor);
+    }
+    this.matcherSet = MethodMatcherSet.of(this.refactors.stream()
+        .map(MethodInvocationRefactor::getBeforeMatcher)
+        .collect(Collectors.toList()));
+  }
+
+
+  /**
+   * @param refactors the refactors to apply, in order of precedence where more than one matches an invocation
+   * @return a refactor applying each of them
+   */
+  public static BulkMethodInvocationRefactor of(Collection<MethodInvocationRefactor> refactors) {
+    return new BulkMethodInvocationRefactor(refactors);
+  }
+
+
+  /**
+   * @param mapping method signatures, mapped to the new fully qualified type and method name, or just the new method
+   *          name where the type is unchanged
+   * @return a refactor changing each method invocation to its new type and name
+   */
+  public static BulkMethodInvocationRefactor forMapping(Map<String, String> mapping) {
+    List<MethodInvocationRefactor> refactors = new ArrayList<>();
+    for (Map.Entry<String, String> entry : mapping.entrySet()) {
+      refactors.add(refactorFor(entry.getKey(), entry.getValue()));
+    }
+    return new BulkMethodInvocationRefactor(refactors);
+  }
+
+
+  /**
+   * Reads the mapping from a file, see {@link BulkMethodInvocationRefactor}.
+   *
+   * @param mappingFile the file holding a method signature and its new type and method name on each line
+   * @return a refactor changing each method invocation to its new type and name
+   * @throws IOException if the file cannot be read
+   */
+  public static BulkMethodInvocationRefactor forMappingFile(Path mappingFile) throws IOException {
+    Map<String, String> mapping = new LinkedHashMap<>();
+    List<String> lines = Files.readAllLines(mappingFile, StandardCharsets.UTF_8);
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i).trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      int separator = line.indexOf(MAPPING_SEPARATOR);
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected [signature " + MAPPING_SEPARATOR + " new method] at line [" + (i + 1) + "] of [" + mappingFile + "]: " + line);
+      }
+      String signature = line.substring(0, separator).trim();
+      if (mapping.put(signature, line.substring(separator + MAPPING_SEPARATOR.length()).trim()) != null) {
+        throw new IllegalArgumentException("Method signature [" + signature + "] is mapped more than once, at line [" + (i + 1) + "] of [" + mappingFile + "]");
+      }
+    }
+    log.info("Read [" + mapping.size() + "] method mapping(s) from [" + mappingFile + "]");
+    return forMapping(mapping);
+  }
+
+
+  private static MethodInvocationRefactor refactorFor(String signature, String after) {
+    if (signature == null || ! signature.contains("(") || ! signature.trim().endsWith(")") || after == null || after.isBlank()) {
+      throw new IllegalArgumentException("Method mapping must have a method signature and a new method: [" + signature + " " + MAPPING_SEPARATOR + " " + after + "]");
+    }
+    String trimmed = after.trim();
+    int lastDot = trimmed.lastIndexOf('.');
+    Changes changes = new Changes().toNewMethodName(trimmed.substring(lastDot + 1));
+    if (lastDot > 0) {
+      changes.toNewType(trimmed.substring(0, lastDot));
+    }
+    return MethodInvocationRefactor
+        .from(MethodMatcher.buildMethodMatcherForFQSignature(signature))
+        .to(changes);
+  }
+
+
+  /**
+   * @return the refactors applied, in order of precedence
+   */
+  public List<MethodInvocationRefactor> getRefactors() {
+    return refactors;
+  }
+
+
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodInvocation.class);
+  }
+
+
+  @Override
+  public Optional<Set<String>> getRequiredContentTokens() {
+    return matcherSet.getRequiredContentTokens();
+  }
+
+
+  @Override
+  public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter) throws IOException, MalformedTreeException, BadLocationException {
+    if (node instanceof MethodInvocation) {
+      MethodInvocation methodInvocation = (MethodInvocation) node;
+      Optional<MethodMatcher> match = matcherSet.findMatch(methodInvocation, compilationUnit);
+      if (match.isPresent()) {
+        refactorsByMatcher.get(match.get()).refactor(compilationUnit, methodInvocation, rewriter);
+      }
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.alfasoftware.astra.core.refactoring.operations.methods;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.matchers.MethodMatcher;
 import org.alfasoftware.astra.core.utils.ASTOperation;
@@ -53,6 +54,12 @@ public class ChainedMethodInvocationRefactor implements ASTOperation {
   }
 
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodInvocation.class);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
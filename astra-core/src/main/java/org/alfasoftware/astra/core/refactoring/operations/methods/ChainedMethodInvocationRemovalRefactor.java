@@ -1,6 +1,7 @@
 package org.alfasoftware.astra.core.refactoring.operations.methods;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.matchers.MethodMatcher;
 import org.alfasoftware.astra.core.utils.ASTOperation;
@@ -32,6 +33,12 @@ public class ChainedMethodInvocationRemovalRefactor implements ASTOperation {
   }
 
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodInvocation.class);
+  }
+
+
   /**
    * Remove a method call from a chain of method calls.
    * <p>
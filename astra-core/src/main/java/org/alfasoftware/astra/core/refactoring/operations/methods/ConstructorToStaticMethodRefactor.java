@@ -2,6 +2,7 @@ package org.alfasoftware.astra.core.refactoring.operations.methods;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.matchers.MethodMatcher;
 import org.alfasoftware.astra.core.utils.ASTOperation;
@@ -45,6 +46,12 @@ public class ConstructorToStaticMethodRefactor implements ASTOperation {
     this.toFunction = toStaticFunctionName;
   }
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(ClassInstanceCreation.class);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
@@ -5,6 +5,7 @@ import static org.alfasoftware.astra.core.utils.AstraUtils.addStaticImport;
 
 import java.io.IOException;
 import java.util.Optional;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.matchers.MethodMatcher;
 import org.alfasoftware.astra.core.utils.ASTOperation;
@@ -134,6 +135,20 @@ public class MethodInvocationRefactor implements ASTOperation {
   }
 
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodInvocation.class);
+  }
+
+
+  @Override
+  public Optional<Set<String>> getRequiredContentTokens() {
+    return beforeMatcher.getMethodNameExactName()
+        .flatMap(AstraUtils::getSimpleNameToken)
+        .map(Set::of);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter) throws IOException, MalformedTreeException, BadLocationException {
 
@@ -141,18 +156,26 @@ public class MethodInvocationRefactor implements ASTOperation {
       MethodInvocation methodInvocation = (MethodInvocation) node;
 
       if (beforeMatcher.matches(methodInvocation, compilationUnit)) {
-        log.info("Refactoring method invocation [" +
-            AstraUtils.getFullyQualifiedName(methodInvocation, compilationUnit) + " " + methodInvocation.getName().toString() + "] "
-            + "to [" + afterType.orElse(AstraUtils.getFullyQualifiedName(methodInvocation, compilationUnit)) + " " +
-            afterMethodName.orElse(methodInvocation.getName().toString()) + "] "
-            + "in [" + AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
-
-        switchToAfter(compilationUnit, rewriter, methodInvocation);
+        refactor(compilationUnit, methodInvocation, rewriter);
       }
     }
   }
 
 
+  /**
+   * Applies the changes to a method invocation already found to match, see {@link BulkMethodInvocationRefactor}.
+   */
+  void refactor(CompilationUnit compilationUnit, MethodInvocation methodInvocation, ASTRewrite rewriter) {
+    log.info("Refactoring method invocation [" +
+        AstraUtils.getFullyQualifiedName(methodInvocation, compilationUnit) + " " + methodInvocation.getName().toString() + "] "
+        + "to [" + afterType.orElse(AstraUtils.getFullyQualifiedName(methodInvocation, compilationUnit)) + " " +
+        afterMethodName.orElse(methodInvocation.getName().toString()) + "] "
+        + "in [" + AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
+
+    switchToAfter(compilationUnit, rewriter, methodInvocation);
+  }
+
+
   private void switchToAfter(CompilationUnit compilationUnit, ASTRewrite rewriter, MethodInvocation methodInvocation) {
 
     String afterTypeFQ = afterType.orElse(AstraUtils.getFullyQualifiedName(methodInvocation, compilationUnit));
@@ -3,6 +3,7 @@ package org.alfasoftware.astra.core.refactoring.operations.methods;
 import static org.alfasoftware.astra.core.utils.AstraUtils.removeImport;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.matchers.MethodMatcher;
 import org.alfasoftware.astra.core.utils.ASTOperation;
@@ -37,6 +38,12 @@ public class MethodWithSingleArgumentToSupplier implements ASTOperation {
     this.before = before;
   }
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodInvocation.class);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter) throws IOException, MalformedTreeException, BadLocationException {
 
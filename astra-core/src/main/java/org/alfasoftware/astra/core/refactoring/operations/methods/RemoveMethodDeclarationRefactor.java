@@ -1,6 +1,7 @@
 package org.alfasoftware.astra.core.refactoring.operations.methods;
 
 import java.io.IOException;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.alfasoftware.astra.core.matchers.MethodMatcher;
@@ -58,6 +59,12 @@ public class RemoveMethodDeclarationRefactor implements ASTOperation {
     this.matcher = matcher;
   }
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodDeclaration.class);
+  }
+
+
   @SuppressWarnings("unchecked")
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
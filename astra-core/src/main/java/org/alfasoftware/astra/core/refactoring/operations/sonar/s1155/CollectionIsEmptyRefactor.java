@@ -1,6 +1,7 @@
 package org.alfasoftware.astra.core.refactoring.operations.sonar.s1155;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.utils.ASTOperation;
 import org.eclipse.jdt.core.dom.AST;
@@ -40,6 +41,12 @@ public class CollectionIsEmptyRefactor implements ASTOperation {
 
   private static final String COLLECTION_FQN = "java.util.Collection";
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(InfixExpression.class);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
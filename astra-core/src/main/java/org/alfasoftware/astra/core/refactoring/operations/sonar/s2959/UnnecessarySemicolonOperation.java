@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.utils.ASTOperation;
 import org.alfasoftware.astra.core.utils.CompilationUnitProperty;
@@ -70,6 +71,18 @@ public class UnnecessarySemicolonOperation implements ASTOperation {
   private static final String EXTENDED_RANGES_KEY =
       UnnecessarySemicolonOperation.class.getName() + ".extendedRanges";
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(AbstractTypeDeclaration.class);
+  }
+
+
+  @Override
+  public boolean requiresBindings() {
+    return false;
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
@@ -1,6 +1,7 @@
 package org.alfasoftware.astra.core.refactoring.operations.sonar.s4201;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.utils.ASTOperation;
 import org.alfasoftware.astra.core.utils.AstraUtils;
@@ -46,6 +47,18 @@ public class NullCheckInstanceofOperation implements ASTOperation {
 
   private static final Logger log = LoggerFactory.getLogger(NullCheckInstanceofOperation.class);
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(InfixExpression.class);
+  }
+
+
+  @Override
+  public boolean requiresBindings() {
+    return false;
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
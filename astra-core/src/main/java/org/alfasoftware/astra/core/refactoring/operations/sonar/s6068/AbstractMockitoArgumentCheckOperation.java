@@ -2,6 +2,7 @@ package org.alfasoftware.astra.core.refactoring.operations.sonar.s6068;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 import org.alfasoftware.astra.core.utils.ASTOperation;
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -43,6 +44,12 @@ public abstract class AbstractMockitoArgumentCheckOperation implements ASTOperat
   private static final String INORDER = "org.mockito.InOrder";
   private static final String STUBBER = "org.mockito.stubbing.Stubber";
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(MethodInvocation.class);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
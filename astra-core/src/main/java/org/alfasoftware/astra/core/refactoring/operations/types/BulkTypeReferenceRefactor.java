@@ -0,0 +1,305 @@
+package org.alfasoftware.astra.core.refactoring.operations.types;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.alfasoftware.astra.core.utils.ASTOperation;
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NameQualifiedType;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.QualifiedType;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.text.edits.MalformedTreeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Changes all references to many types at once, from a mapping of old to new fully qualified type names - for
+ * example, when moving a library to a new package layout.
+ *
+ * <p>This makes the same changes as a {@link TypeReferenceRefactor} for each mapping, but as a single operation:
+ * each name is resolved once, and looked up in the mapping, rather than being compared with each type in turn.</p>
+ *
+ * <p>Imports are handled per compilation unit. An import of an old type is changed to import the new type. Where an
+ * old type is referred to by its simple name without being imported - because it is in the same package, or is
+ * imported on demand - the new type is imported once, if it is in another package.</p>
+ *
+ * <p>The mapping can be read from a properties file ({@code old.Type=new.Type}), or from a CSV file
+ * ({@code old.Type,new.Type}), one mapping per line. Blank lines, and lines starting with {@code #}, are skipped.</p>
+ */
+public class BulkTypeReferenceRefactor implements ASTOperation {
+
+  private static final Logger log = LoggerFactory.getLogger(BulkTypeReferenceRefactor.class);
+
+  private final Map<String, String> toTypes;
+  private final Map<String, String> toTypesBySimpleName;
+  private final Map<CompilationUnit, CompilationUnitImports> imports = Collections.synchronizedMap(new WeakHashMap<>());
+
+
+  private BulkTypeReferenceRefactor(Map<String, String> mapping) {
+    this.toTypes = new HashMap<>();
+    for (Map.Entry<String, String> entry : mapping.entrySet()) {
+      if (entry.getKey() == null || entry.getKey().isBlank() || entry.getValue() == null || entry.getValue().isBlank()) {
+        throw new IllegalArgumentException("Type mapping must have both an old and a new type: [" + entry + "]");
+      }
+      // Removing $ from inner class names as this won't match with resolved type binding names
+      String fromType = entry.getKey().trim().replaceAll("\\$", ".");
+      String toType = entry.getValue().trim().replaceAll("\\$", ".");
+      if (! fromType.equals(toType)) {
+        toTypes.put(fromType, toType);
+      }
+    }
+
+    // Javadoc method references are matched on their simple name where they can't be resolved, as long as only one
+    // old type has that simple name
+    Map<String, String> bySimpleName = new HashMap<>();
+    Set<String> ambiguous = new HashSet<>();
+    for (String fromType : toTypes.keySet()) {
+      if (bySimpleName.putIfAbsent(AstraUtils.getSimpleName(fromType), fromType) != null) {
+        ambiguous.add(AstraUtils.getSimpleName(fromType));
+      }
+    }
+    ambiguous.forEach(bySimpleName::remove);
+    this.toTypesBySimpleName = bySimpleName;
+  }
+
+
+  /**
+   * @param mapping old fully qualified type names to new ones
+   * @return a refactor changing each old type to its new type
+   */
+  public static BulkTypeReferenceRefactor forMapping(Map<String, String> mapping) {
+    return new BulkTypeReferenceRefactor(mapping);
+  }
+
+
+  /**
+   * Reads the mapping from a CSV file, if its name ends with {@code .csv}, or from a properties file otherwise.
+   *
+   * @param mappingFile the file holding the old fully qualified type names and the new ones
+   * @return a refactor changing each old type to its new type
+   * @throws IOException if the file cannot be read
+   */
+  public static BulkTypeReferenceRefactor forMappingFile(Path mappingFile) throws IOException {
+    Map<String, String> mapping = new LinkedHashMap<>();
+    if (mappingFile.getFileName().toString().toLowerCase().endsWith(".csv")) {
+      List<String> lines = Files.readAllLines(mappingFile, StandardCharsets.UTF_8);
+      for (int i = 0; i < lines.size(); i++) {
+        String line = lines.get(i).trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] columns = line.split(",");
+        if (columns.length != 2) {
+          throw new IllegalArgumentException("Expected [old type,new type] at line [" + (i + 1) + "] of [" + mappingFile + "]: " + line);
+        }
+        mapping.put(columns[0].trim(), columns[1].trim());
+      }
+    } else {
+      Properties properties = new Properties();
+      try (Reader reader = Files.newBufferedReader(mappingFile, StandardCharsets.UTF_8)) {
+        properties.load(reader);
+      }
+      properties.stringPropertyNames().forEach(fromType -> mapping.put(fromType, properties.getProperty(fromType)));
+    }
+    log.info("Read [" + mapping.size() + "] type mapping(s) from [" + mappingFile + "]");
+    return new BulkTypeReferenceRefactor(mapping);
+  }
+
+
+  /**
+   * @return the old fully qualified type names, mapped to the new ones
+   */
+  public Map<String, String> getMapping() {
+    return Collections.unmodifiableMap(toTypes);
+  }
+
+
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(SimpleName.class, QualifiedName.class, AbstractTypeDeclaration.class);
+  }
+
+
+  /**
+   * Every old type must have a simple name which is a plain Java identifier for there to be any required tokens.
+   */
+  @Override
+  public Optional<Set<String>> getRequiredContentTokens() {
+    Set<String> tokens = new HashSet<>();
+    for (String fromType : toTypes.keySet()) {
+      Optional<String> token = AstraUtils.getSimpleNameToken(fromType);
+      if (token.isEmpty()) {
+        return Optional.empty();
+      }
+      tokens.add(token.get());
+    }
+    return Optional.of(tokens);
+  }
+
+
+  @Override
+  public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
+      throws IOException, MalformedTreeException, BadLocationException {
+
+    if (node instanceof SimpleName) {
+      updateSimpleName(compilationUnit, (SimpleName) node, rewriter);
+      updateConstructorName(compilationUnit, (SimpleName) node, rewriter);
+    }
+
+    if (node instanceof QualifiedName) {
+      updateQualifiedName(compilationUnit, (QualifiedName) node, rewriter);
+    }
+
+    if (node instanceof AbstractTypeDeclaration) {
+      updateJavadocTypes(compilationUnit, (AbstractTypeDeclaration) node, rewriter);
+    }
+  }
+
+
+  private void updateSimpleName(CompilationUnit compilationUnit, SimpleName name, ASTRewrite rewriter) {
+    IBinding binding = name.resolveBinding();
+    if (! (binding instanceof ITypeBinding)) {
+      return;
+    }
+    ITypeBinding typeBinding = (ITypeBinding) binding;
+    String fromType = typeBinding.getQualifiedName();
+    String toType = toTypes.get(fromType);
+    if (toType != null) {
+      log.info("Refactoring simple type [" + name.toString() + "] to [" + AstraUtils.getSimpleName(toType) + "] in [" +
+          AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
+      rewriter.set(name, SimpleName.IDENTIFIER_PROPERTY, AstraUtils.getSimpleName(toType), null);
+      if (! typeBinding.isNested() && isUnqualifiedReference(name)) {
+        importsOf(compilationUnit).importIfNeeded(fromType, toType, rewriter);
+      }
+    }
+  }
+
+
+  /**
+   * @return whether the name refers to a type by its simple name alone, rather than being the last part of a
+   *         qualified name, or the name of a type declaration
+   */
+  private static boolean isUnqualifiedReference(SimpleName name) {
+    return name.getLocationInParent() != QualifiedName.NAME_PROPERTY
+        && name.getLocationInParent() != QualifiedType.NAME_PROPERTY
+        && name.getLocationInParent() != NameQualifiedType.NAME_PROPERTY
+        && ! (name.getParent() instanceof AbstractTypeDeclaration && ((AbstractTypeDeclaration) name.getParent()).getName() == name);
+  }
+
+
+  /**
+   * Renames the name of a constructor declaration where the declaring type is being renamed, see
+   * {@link TypeReferenceRefactor}.
+   */
+  private void updateConstructorName(CompilationUnit compilationUnit, SimpleName name, ASTRewrite rewriter) {
+    if (! (name.getParent() instanceof MethodDeclaration)) {
+      return;
+    }
+    MethodDeclaration methodDeclaration = (MethodDeclaration) name.getParent();
+    if (methodDeclaration.getName() != name ||
+        ! (methodDeclaration.isConstructor() || methodDeclaration.isCompactConstructor())) {
+      return;
+    }
+
+    IMethodBinding methodBinding = methodDeclaration.resolveBinding();
+    String toType = methodBinding == null || methodBinding.getDeclaringClass() == null
+        ? null
+        : toTypes.get(methodBinding.getDeclaringClass().getQualifiedName());
+    if (toType != null) {
+      log.info("Refactoring constructor name [" + name.toString() + "] to [" + AstraUtils.getSimpleName(toType) + "] in [" +
+          AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
+      rewriter.set(name, SimpleName.IDENTIFIER_PROPERTY, AstraUtils.getSimpleName(toType), null);
+    }
+  }
+
+
+  private void updateQualifiedName(CompilationUnit compilationUnit, QualifiedName name, ASTRewrite rewriter) {
+    String toType = toTypes.get(name.getFullyQualifiedName());
+    if (toType != null) {
+      log.info("Refactoring qualified type [" + name.getFullyQualifiedName() + "] "
+          + "to [" + toType + "] "
+          + "in [" + AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
+      rewriter.set(name, QualifiedName.QUALIFIER_PROPERTY, name.getAST().newName(AstraUtils.getQualifier(toType)), null);
+      rewriter.set(name, QualifiedName.NAME_PROPERTY, name.getAST().newName(AstraUtils.getSimpleName(toType)), null);
+    }
+  }
+
+
+  private void updateJavadocTypes(CompilationUnit compilationUnit, AbstractTypeDeclaration typeDeclaration, ASTRewrite rewriter) {
+    JavadocTypeReferences.update(compilationUnit, typeDeclaration, toTypes::get, toTypesBySimpleName::get, rewriter);
+  }
+
+
+  private CompilationUnitImports importsOf(CompilationUnit compilationUnit) {
+    return imports.computeIfAbsent(compilationUnit, CompilationUnitImports::new);
+  }
+
+
+  /**
+   * The imports of a compilation unit, worked out once for all of the mappings.
+   */
+  private static final class CompilationUnitImports {
+    private final CompilationUnit compilationUnit;
+    private final String packageName;
+    private final Set<String> singleTypeImports = new HashSet<>();
+    private final Set<String> declaredTypes = new HashSet<>();
+    // Guarded by this
+    private final Set<String> added = new HashSet<>();
+
+    private CompilationUnitImports(CompilationUnit compilationUnit) {
+      this.compilationUnit = compilationUnit;
+      this.packageName = compilationUnit.getPackage() == null ? "" : compilationUnit.getPackage().getName().getFullyQualifiedName();
+      for (Object importDeclaration : compilationUnit.imports()) {
+        ImportDeclaration declaration = (ImportDeclaration) importDeclaration;
+        if (! declaration.isStatic() && ! declaration.isOnDemand()) {
+          singleTypeImports.add(declaration.getName().getFullyQualifiedName());
+        }
+      }
+      for (Object type : compilationUnit.types()) {
+        String simpleName = ((AbstractTypeDeclaration) type).getName().getIdentifier();
+        declaredTypes.add(packageName.isEmpty() ? simpleName : packageName + "." + simpleName);
+      }
+    }
+
+    /**
+     * Imports the new type once, where the old type was referred to by its simple name without an import of its own,
+     * which is changed along with the other qualified names.
+     */
+    private synchronized void importIfNeeded(String fromType, String toType, ASTRewrite rewriter) {
+      if (singleTypeImports.contains(fromType) || declaredTypes.contains(fromType) || ! toType.contains(".")) {
+        return;
+      }
+      String toPackage = AstraUtils.getQualifier(toType);
+      if (toPackage.equals(packageName) || toPackage.equals("java.lang")) {
+        return;
+      }
+      if (added.add(toType)) {
+        AstraUtils.addImport(compilationUnit, toType, rewriter);
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package org.alfasoftware.astra.core.refactoring.operations.types;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IDocElement;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.Javadoc;
+import org.eclipse.jdt.core.dom.MethodRef;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TagElement;
+import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds, and changes, the references to types in the Javadoc of a top level type and its members, for the type
+ * reference refactors.
+ *
+ * <p>A simple or qualified name in a tag is matched on the type it resolves to, or its fully qualified name. The
+ * qualifier of a method reference may not resolve, so where it is a simple name without a binding it is matched
+ * on that simple name.</p>
+ */
+final class JavadocTypeReferences extends ASTVisitor {
+
+  private static final Logger log = LoggerFactory.getLogger(JavadocTypeReferences.class);
+
+  private final Function<String, String> targetForType;
+  private final Function<String, String> typeForSimpleName;
+  private final Map<Name, String> targets = new LinkedHashMap<>();
+
+
+  private JavadocTypeReferences(Function<String, String> targetForType, Function<String, String> typeForSimpleName) {
+    this.targetForType = targetForType;
+    this.typeForSimpleName = typeForSimpleName;
+  }
+
+
+  /**
+   * @param typeDeclaration the type declaration whose Javadoc, and that of its members, is searched
+   * @param targetForType gives the new fully qualified name for a type to be changed, by its fully qualified name,
+   *          or null if it is not to be changed
+   * @param typeForSimpleName gives the fully qualified name of the type to be changed with a simple name, or null
+   * @return the names to change, with the new fully qualified name of each
+   */
+  static Map<Name, String> find(AbstractTypeDeclaration typeDeclaration, Function<String, String> targetForType,
+      Function<String, String> typeForSimpleName) {
+    JavadocTypeReferences visitor = new JavadocTypeReferences(targetForType, typeForSimpleName);
+    typeDeclaration.accept(visitor);
+    return visitor.targets;
+  }
+
+
+  /**
+   * Changes the references found by {@link #find}, in the Javadoc of a top level type.
+   */
+  static void update(CompilationUnit compilationUnit, AbstractTypeDeclaration typeDeclaration, Function<String, String> targetForType,
+      Function<String, String> typeForSimpleName, ASTRewrite rewriter) {
+    if (typeDeclaration.resolveBinding() == null || typeDeclaration.resolveBinding().isNested()) {
+      return;
+    }
+    for (Map.Entry<Name, String> reference : find(typeDeclaration, targetForType, typeForSimpleName).entrySet()) {
+      Name name = reference.getKey();
+      String toType = reference.getValue();
+      if (name instanceof SimpleName) {
+        log.info("Refactoring simple type in Javadoc [" + name.toString() + "] "
+            + "to [" + AstraUtils.getSimpleName(toType) + "] "
+            + "in [" + AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
+        rewriter.set(name, SimpleName.IDENTIFIER_PROPERTY, AstraUtils.getSimpleName(toType), null);
+      } else {
+        log.info("Refactoring qualified type in Javadoc [" + name.toString() + "] "
+            + "to [" + toType + "] "
+            + "in [" + AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
+        QualifiedName newQualifiedName = compilationUnit.getAST().newQualifiedName(
+          compilationUnit.getAST().newName(AstraUtils.getQualifier(toType)),
+          compilationUnit.getAST().newSimpleName(AstraUtils.getSimpleName(toType)));
+        rewriter.replace(name, newQualifiedName, null);
+      }
+    }
+  }
+
+
+  @Override
+  public boolean visit(Javadoc node) {
+    for (TagElement te : getAllTagElementsFromJavadoc(node)) {
+      for (Object f : te.fragments()) {
+        if (f instanceof SimpleName) {
+          Optional.of(f)
+            .map(SimpleName.class::cast)
+            .map(SimpleName::resolveTypeBinding)
+            .map(ITypeBinding::getQualifiedName)
+            .ifPresent(t -> addIfChanged((SimpleName) f, t));
+
+        } else if (f instanceof QualifiedName) {
+          addIfChanged((QualifiedName) f, ((QualifiedName) f).getFullyQualifiedName());
+
+        } else if (f instanceof MethodRef && ((MethodRef) f).getQualifier() != null) {
+          Name qualifier = ((MethodRef) f).getQualifier();
+          Optional.ofNullable(qualifier.resolveTypeBinding())
+            .map(ITypeBinding::getQualifiedName)
+            .or(() -> qualifier instanceof SimpleName
+                ? Optional.ofNullable(typeForSimpleName.apply(qualifier.getFullyQualifiedName()))
+                : Optional.of(qualifier.getFullyQualifiedName()))
+            .ifPresent(t -> addIfChanged(qualifier, t));
+        }
+      }
+    }
+    return super.visit(node);
+  }
+
+
+  private void addIfChanged(Name name, String type) {
+    String target = targetForType.apply(type);
+    if (target != null) {
+      targets.put(name, target);
+    }
+  }
+
+
+  @SuppressWarnings("unchecked")
+  private Set<TagElement> getAllTagElementsFromJavadoc(Javadoc node) {
+    Set<TagElement> allTags = new HashSet<>();
+    List<TagElement> tags = node.tags();
+    for (TagElement tag : tags) {
+      getAllTagElementsFromTagElement(allTags, tag);
+    }
+    return allTags;
+  }
+
+
+  @SuppressWarnings("unchecked")
+  private Set<TagElement> getAllTagElementsFromTagElement(Set<TagElement> tagElements, TagElement tagElement) {
+    tagElements.add(tagElement);
+    List<IDocElement> fragments = tagElement.fragments();
+    for (IDocElement fragment : fragments) {
+      if (fragment instanceof TagElement) {
+        getAllTagElementsFromTagElement(tagElements, (TagElement) fragment);
+      }
+    }
+    return tagElements;
+  }
+}
@@ -1,8 +1,6 @@
 package org.alfasoftware.astra.core.refactoring.operations.types;
 
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -11,20 +9,14 @@ import org.alfasoftware.astra.core.utils.AstraUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.IBinding;
-import org.eclipse.jdt.core.dom.IDocElement;
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
-import org.eclipse.jdt.core.dom.Javadoc;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
-import org.eclipse.jdt.core.dom.MethodRef;
-import org.eclipse.jdt.core.dom.Name;
 import org.eclipse.jdt.core.dom.QualifiedName;
 import org.eclipse.jdt.core.dom.SimpleName;
-import org.eclipse.jdt.core.dom.TagElement;
 import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.text.edits.MalformedTreeException;
@@ -112,6 +104,18 @@ public class TypeReferenceRefactor implements ASTOperation {
   }
 
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    return Set.of(SimpleName.class, QualifiedName.class, AbstractTypeDeclaration.class);
+  }
+
+
+  @Override
+  public Optional<Set<String>> getRequiredContentTokens() {
+    return AstraUtils.getSimpleNameToken(fromType).map(Set::of);
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
@@ -183,85 +187,11 @@ public class TypeReferenceRefactor implements ASTOperation {
 
 
   private void updateJavadocTypes(CompilationUnit compilationUnit, AbstractTypeDeclaration typeDeclaration, ASTRewrite rewriter) {
-    if (typeDeclaration.resolveBinding() != null && ! typeDeclaration.resolveBinding().isNested()) {
-      // Special handling for Javadoc references to types
-      JavadocVisitor visitor = new JavadocVisitor();
-      typeDeclaration.accept(visitor);
-      for (Name name : visitor.types) {
-        if (name instanceof SimpleName) {
-          if (name.toString().equals(AstraUtils.getSimpleName(getFromType()))) {
-            log.info("Refactoring simple type in Javadoc [" + name.toString() + "] "
-                + "to [" + AstraUtils.getSimpleName(toType) + "] "
-                + "in [" + AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
-            rewriter.set(name, SimpleName.IDENTIFIER_PROPERTY, AstraUtils.getSimpleName(toType), null);
-          }
-        } else if (name instanceof QualifiedName && name.toString().equals(getFromType())) {
-          log.info("Refactoring qualified type in Javadoc [" + name.toString() + "] "
-              + "to [" + toType + "] "
-              + "in [" + AstraUtils.getNameForCompilationUnit(compilationUnit) + "]");
-
-          QualifiedName newQualifiedName = compilationUnit.getAST().newQualifiedName(
-            compilationUnit.getAST().newName(toType.replace("." + AstraUtils.getSimpleName(toType), "")),
-            compilationUnit.getAST().newSimpleName(AstraUtils.getSimpleName(toType)));
-          rewriter.replace(name, newQualifiedName, null);
-        }
-      }
-    }
-  }
-
-  private class JavadocVisitor extends ASTVisitor {
-    private final Set<Name> types = new HashSet<>();
-    @Override
-    public boolean visit(Javadoc node) {
-      for (TagElement te : getAllTagElementsFromJavadoc(node)) {
-        for (Object f : te.fragments()) {
-          if (f instanceof SimpleName) {
-            Optional.of(f)
-              .map(SimpleName.class::cast)
-              .map(SimpleName::resolveTypeBinding)
-              .map(ITypeBinding::getQualifiedName)
-              .filter(n -> n.equals(getFromType()))
-              .ifPresent(t -> types.add((SimpleName) f));
-
-          } else if (f instanceof QualifiedName) {
-            Optional.of(f)
-              .map(QualifiedName.class::cast)
-              .map(QualifiedName::getFullyQualifiedName)
-              .filter(n -> n.equals(getFromType()))
-              .ifPresent(t -> types.add((QualifiedName) f));
-
-          } else if (f instanceof MethodRef) {
-            Optional.of(f)
-              .map(MethodRef.class::cast)
-              .map(MethodRef::getQualifier)
-              .ifPresent(types::add);
-          }
-        }
-      }
-      return super.visit(node);
-    }
-
-    @SuppressWarnings("unchecked")
-    private Set<TagElement> getAllTagElementsFromJavadoc(Javadoc node) {
-      Set<TagElement> allTags = new HashSet<>();
-      List<TagElement> tags = node.tags();
-      for (TagElement tag : tags) {
-        getAllTagElementsFromTagElement(allTags, tag);
-      }
-      return allTags;
-    }
-
-    @SuppressWarnings("unchecked")
-    private Set<TagElement> getAllTagElementsFromTagElement(Set<TagElement> tagElements, TagElement tagElement) {
-      tagElements.add(tagElement);
-      List<IDocElement> fragments = tagElement.fragments();
-      for (IDocElement fragment : fragments) {
-        if (fragment instanceof TagElement) {
-          getAllTagElementsFromTagElement(tagElements, (TagElement) fragment);
-        }
-      }
-      return tagElements;
-    }
+    String fromTypeSimpleName = AstraUtils.getSimpleName(getFromType());
+    JavadocTypeReferences.update(compilationUnit, typeDeclaration,
+        type -> type.equals(getFromType()) ? toType : null,
+        simpleName -> simpleName.equals(fromTypeSimpleName) ? getFromType() : null,
+        rewriter);
   }
 }
 
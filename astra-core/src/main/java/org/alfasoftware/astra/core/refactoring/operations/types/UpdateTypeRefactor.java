@@ -2,10 +2,13 @@ package org.alfasoftware.astra.core.refactoring.operations.types;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.alfasoftware.astra.core.utils.ASTOperation;
@@ -94,6 +97,14 @@ public class UpdateTypeRefactor implements ASTOperation {
 
 
 
+  @Override
+  public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+    Set<Class<? extends ASTNode>> handledNodeTypes = new HashSet<>(typeReferenceRefactor.getHandledNodeTypes());
+    handledNodeTypes.add(TypeDeclaration.class);
+    return handledNodeTypes;
+  }
+
+
   @Override
   public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter)
       throws IOException, MalformedTreeException, BadLocationException {
@@ -151,8 +162,8 @@ public class UpdateTypeRefactor implements ASTOperation {
 
       // Create the new Java file
       updateInternalTypeReferences(compilationUnit, rewriter);
-      String content = AstraUtils.makeChangesFromAST(new String(Files.readAllBytes(fileAbsolutePath)), rewriter);
-      Files.write(fileNewPath, content.getBytes(), StandardOpenOption.CREATE);
+      String content = AstraUtils.makeChangesFromAST(new String(Files.readAllBytes(fileAbsolutePath), StandardCharsets.UTF_8), rewriter);
+      Files.write(fileNewPath, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
 
       // Delete old file
       Files.delete(fileAbsolutePath);
@@ -1,6 +1,8 @@
 package org.alfasoftware.astra.core.utils;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
 
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
@@ -15,4 +17,46 @@ import org.eclipse.text.edits.MalformedTreeException;
 public interface ASTOperation {
 
 	void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter) throws IOException, MalformedTreeException, BadLocationException;
+
+
+	/**
+	 * The types of ASTNode this operation acts on. Only visited nodes which are instances of one of these types
+	 * (including subtypes) will be passed to {@link #run(CompilationUnit, ASTNode, ASTRewrite)}.
+	 *
+	 * Operations which immediately discard nodes of other types should override this, so that the
+	 * engine does not need to hand them every node in the compilation unit.
+	 *
+	 * @return the handled node types. Defaults to {@link ASTNode}, i.e. every visited node.
+	 */
+	default Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+		return Set.of(ASTNode.class);
+	}
+
+
+	/**
+	 * Whether this operation needs type, method or variable bindings to be resolved on the nodes it is given.
+	 *
+	 * Operations which only inspect the syntax of the source should override this to return false.
+	 * If no operation in a {@link org.alfasoftware.astra.core.refactoring.UseCase} requires bindings,
+	 * files are parsed without bindings or any classpath set up, which is much faster.
+	 *
+	 * @return true if bindings are required. Defaults to true.
+	 */
+	default boolean requiresBindings() {
+		return true;
+	}
+
+
+	/**
+	 * Identifier tokens, at least one of which must appear in the source of any file this operation could change or match.
+	 * For example, an operation which only acts on invocations of methods named {@code foo} can return {@code foo}.
+	 *
+	 * If every operation in a {@link org.alfasoftware.astra.core.refactoring.UseCase} returns tokens, files which contain
+	 * none of them are skipped before being parsed.
+	 *
+	 * @return the tokens, or empty if this operation cannot narrow down the files it applies to. Defaults to empty.
+	 */
+	default Optional<Set<String>> getRequiredContentTokens() {
+		return Optional.empty();
+	}
 }
@@ -4,34 +4,58 @@ import static org.alfasoftware.astra.core.utils.AstraUtils.makeChangesFromAST;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.alfasoftware.astra.core.analysis.AnalysisResultsFile;
+import org.alfasoftware.astra.core.analysis.AnalysisUseCase;
+import org.alfasoftware.astra.core.matchers.TypeHierarchyCache;
 import org.alfasoftware.astra.core.refactoring.UseCase;
 import org.alfasoftware.astra.core.refactoring.operations.imports.UnusedImportRefactor;
+import org.alfasoftware.astra.core.utils.RunStatistics.Phase;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.QualifiedName;
 import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.text.edits.MalformedTreeException;
@@ -52,6 +76,22 @@ public class AstraCore {
 
   protected static final Logger log = LoggerFactory.getLogger(AstraCore.class);
 
+  private final Consumer<Path> onFileWritten;
+
+
+  public AstraCore() {
+    this(path -> {});
+  }
+
+
+  /**
+   * @param onFileWritten told of each file as soon as it has been written, for example so that a worker process can
+   *          report the files it has written before it exits, see {@link ForkedWorker}
+   */
+  AstraCore(Consumer<Path> onFileWritten) {
+    this.onFileWritten = onFileWritten;
+  }
+
 
   /**
    * Applies a {@link UseCase} to a specified directory.
@@ -59,21 +99,74 @@ public class AstraCore {
    *
    * @param targetDirectoryPath The absolute path to the directory that the {@link UseCase} should be applied to
    * @param useCase The {@link UseCase} describing the Astra refactor to perform
+   * @return statistics describing where the time of the run was spent, and what happened to the files
    */
-  public static void run(String targetDirectoryPath, UseCase useCase) {
+  public static RunStatistics run(String targetDirectoryPath, UseCase useCase) {
     String[] sources = useCase.getSources();
     String[] classPath = useCase.getClassPath();
     validateSourceAndClasspath(sources, classPath);
     try {
       AstraCore main = new AstraCore();
-      main.runOperations(targetDirectoryPath, useCase, sources, AstraUtils.filterClassPath(classPath));
+      RunStatistics statistics = useCase.getWorkerProcesses() > 0
+          ? new ForkedWorkerPool(Paths.get(targetDirectoryPath), useCase).run()
+          : main.runOperations(targetDirectoryPath, useCase, sources, AstraUtils.filterClassPath(classPath));
+      writeAnalysisResults(useCase);
+      return statistics;
+    } catch (IOException e) {
+      throw new RuntimeException("Astra run failed for directory [" + targetDirectoryPath + "]: " + e.getMessage(), e);
+    }
+  }
+
+
+  /**
+   * Applies several {@link UseCase}s to a specified directory, walking, reading and parsing it once for all of them.
+   * This is the entry point to be used when calling the tool from outside this class.
+   *
+   * <p>Each file is read and parsed if any of the use cases would process it, using the sources and classpaths of
+   * all of them. The operations of each use case are then applied in turn, in the order given, to the files which
+   * pass that use case's own prefilters. A use case sees the content as changed by the use cases before it: the
+   * same compilation unit is used while a file is unchanged, and it is parsed again once it has been changed.
+   *
+   * @param targetDirectoryPath The absolute path to the directory that the {@link UseCase}s should be applied to
+   * @param useCases The {@link UseCase}s describing the Astra refactors to perform, in the order to apply them
+   * @return statistics describing where the time of the run was spent, and what happened to the files
+   * @throws IllegalArgumentException if a use case asks for worker JVMs, see {@link UseCase#getWorkerProcesses()}
+   */
+  public static RunStatistics run(String targetDirectoryPath, List<? extends UseCase> useCases) {
+    CombinedUseCase combinedUseCase = new CombinedUseCase(Paths.get(targetDirectoryPath), useCases);
+    for (UseCase useCase : useCases) {
+      validateSourceAndClasspath(useCase.getSources(), useCase.getClassPath());
+    }
+    try {
+      AstraCore main = new AstraCore();
+      RunStatistics statistics = main.runOperations(targetDirectoryPath, combinedUseCase, combinedUseCase.getSources(),
+          AstraUtils.filterClassPath(combinedUseCase.getClassPath()));
+      for (UseCase useCase : useCases) {
+        writeAnalysisResults(useCase);
+      }
+      return statistics;
     } catch (IOException e) {
       throw new RuntimeException("Astra run failed for directory [" + targetDirectoryPath + "]: " + e.getMessage(), e);
     }
   }
 
 
-  protected void runOperations(String directoryPath, UseCase useCase, String[] sources, String[] classPath) throws IOException {
+  /**
+   * Writes the results of an {@link AnalysisUseCase} to its results file, if it has one, so that the results of
+   * runs over several shards can be merged.
+   */
+  private static void writeAnalysisResults(UseCase useCase) throws IOException {
+    if (useCase instanceof AnalysisUseCase) {
+      Optional<Path> resultsFile = ((AnalysisUseCase) useCase).getResultsFile();
+      if (resultsFile.isPresent()) {
+        AnalysisResultsFile.write((AnalysisUseCase) useCase, resultsFile.get());
+        log.info("Wrote analysis results to [" + resultsFile.get() + "]");
+      }
+    }
+  }
+
+
+  protected RunStatistics runOperations(String directoryPath, UseCase useCase, String[] sources, String[] classPath) throws IOException {
     log.info(System.lineSeparator() +
       "================================================" + System.lineSeparator() +
       "     ____     ____________________     ____" + System.lineSeparator() +
@@ -84,146 +177,223 @@ public class AstraCore {
       "================================================");
 
     log.info("Starting Astra run for directory: " + directoryPath);
+    RunStatistics statistics = new RunStatistics();
+
+    // Walk the directory on a background thread, skipping excluded directories, so that the first
+    // chunks are read and parsed as soon as enough files have been found rather than once the whole
+    // directory has been walked. Only Path objects are materialised by the scan — file contents are
+    // read lazily, one chunk at a time.
+    FileScanner scanner = FileScanner.start(Paths.get(directoryPath), useCase, statistics);
+    return runOperations(scanner, useCase, sources, classPath, statistics, false);
+  }
+
+
+  /**
+   * Applies the use case to the files of {@code scanner}, recording into {@code statistics}.
+   * A worker process (see {@link ForkedWorker}) runs this over each chunk it is sent, as a {@code workerChunk},
+   * without the run cache, run journal or time budget, which belong to the run as a whole.
+   */
+  RunStatistics runOperations(FileScanner scanner, UseCase useCase, String[] sources, String[] classPath, RunStatistics statistics,
+      boolean workerChunk) throws IOException {
     AtomicLong currentFileIndex = new AtomicLong();
     AtomicLong currentPercentage = new AtomicLong();
     Instant startTime = Instant.now();
-
-    // Build the single file-selection filter used for path scanning, progress tracking, and
-    // chunk partitioning. Using one shared Predicate instance ensures the progress denominator
-    // can never drift from the set of files actually processed.
-    Path sourcePath = Paths.get(directoryPath);
-    Predicate<Path> fileFilter = buildFileFilter(useCase);
-
-    // Single walk: collect all matching paths so we can (a) derive the progress denominator
-    // without a second walk and (b) partition the list into fixed-size chunks for
-    // bounded-memory batch parsing. Only Path objects are materialised here — file contents
-    // are read lazily, one chunk at a time.
-    log.info("Scanning for files (this may take a few seconds)");
-    List<Path> allPaths = new ArrayList<>();
-    try (Stream<Path> walk = Files.walk(sourcePath)) {
-      walk.filter(fileFilter).forEach(allPaths::add);
-    }
-    long totalFiles = allPaths.size();
-    log.info(totalFiles + " files to process after path based prefiltering");
-
-    if (totalFiles == 0) {
-      log.info(getPrintableDuration(Duration.between(startTime, Instant.now())));
-      return;
+    ChunkSizer chunkSizer = ChunkSizer.forUseCase(useCase);
+    if (scanner.awaitFiles(0, chunkSizer.getLookahead()).isEmpty()) {
+      scanner.close();
+      statistics.recordRunDuration(Duration.between(startTime, Instant.now()));
+      log.info(getPrintableDuration(statistics.getRunDuration()));
+      return statistics;
     }
 
     Set<? extends ASTOperation> operations = useCase.getOperations();
+    List<OperationPass> passes = OperationPass.forUseCase(useCase);
     int parallelism = useCase.getParallelism();
     int batchSize = useCase.getBatchSize();
-    Predicate<String> contentPrefilteringPredicate = useCase.getContentPrefilteringPredicate();
-    log.info("Processing [" + totalFiles + "] files with [" + parallelism + "] thread(s), batch size [" + batchSize + "]");
+    int parseParallelism = Math.max(1, useCase.getParseParallelism());
+    boolean resolveBindings = useCase.requiresBindings();
+    int maximumRounds = Math.max(1, useCase.getMaximumRounds());
+    log.info("Processing files with [" + parallelism + "] thread(s), "
+        + (chunkSizer.isAdaptive() ? "batch size adapted to free heap" : "batch size [" + batchSize + "]"));
+    RunJournal journal = workerChunk ? RunJournal.disabled() : RunJournal.forUseCase(useCase, sources, classPath);
+    Optional<Duration> timeBudget = workerChunk ? Optional.empty() : useCase.getTimeBudget();
+    if (timeBudget.isPresent()) {
+      log.info("Stopping at the first chunk boundary after a time budget of [" + timeBudget.get() + "]");
+    }
 
-    // Process files in fixed-size chunks to keep peak heap bounded. For each chunk we read
+    // Process files in chunks (see ChunkSizer) to keep peak heap bounded. For each chunk we read
     // content, apply the content-prefiltering predicate, and batch-parse only the files that
-    // pass. The per-chunk Maps and CompilationUnit objects are eligible for GC as soon as the
-    // chunk's futures have been waited on, so peak heap scales with batchSize — not totalFiles.
+    // pass. The chunks are pipelined: while the worker threads apply operations to (and write)
+    // chunk N, the calling thread reads and parses chunk N+1. At most two chunks are resident at
+    // once, so peak heap still scales with batchSize — not the number of files. A chunk which runs out of
+    // memory is retried with half as many files, and a file which runs out of memory while the operations are
+    // applied is retried on its own.
     List<Throwable> fileErrors = new ArrayList<>();
-    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
-    int numberOfChunks = (int) Math.ceil((double) allPaths.size() / batchSize);
-    if (numberOfChunks > 1) {
-      log.info("Processing in [" + numberOfChunks + "] chunk(s) of up to [" + batchSize + "] file(s) each");
+    FileDeadline fileDeadline = FileDeadline.forUseCase(useCase);
+    List<Path> timedOutFiles = new ArrayList<>();
+    ExecutorService executor = fileDeadline.getTimeout().isPresent()
+        ? Executors.newFixedThreadPool(parallelism, FileDeadline.daemonThreads("astra-worker"))
+        : Executors.newFixedThreadPool(parallelism);
+    ExecutorService parseExecutor = parseParallelism > 1 ? Executors.newFixedThreadPool(parseParallelism) : null;
+    // The classpath is opened once, and shared by every chunk parsed with bindings
+    SharedCompilationEnvironment compilationEnvironment = new SharedCompilationEnvironment(sources, classPath);
+    ChunkParser chunkParser = new ChunkParser(sources, classPath, compilationEnvironment, resolveBindings, parseParallelism, parseExecutor,
+        statistics, Phase.PARSE);
+    // Import cleanup always needs bindings, to tell which imports are still referenced
+    ChunkParser importCleanupParser = new ChunkParser(sources, classPath, compilationEnvironment, true, parseParallelism, parseExecutor,
+        statistics, Phase.IMPORT_CLEANUP);
+    if (!chunkSizer.isAdaptive()) {
+      log.info("Processing in chunks of up to [" + batchSize + "] file(s) each");
     }
-
+    if (parseParallelism > 1) {
+      log.info("Parsing each chunk with up to [" + parseParallelism + "] concurrent batch parser(s)");
+    }
+    if (!resolveBindings) {
+      log.info("No operation requires bindings; parsing without bindings or classpath");
+    }
+    if (maximumRounds > 1) {
+      log.info("Processing in up to [" + maximumRounds + "] rounds, each processing the files changed by the last");
+    }
+    if (passes.size() > 1) {
+      log.info("Applying [" + passes.size() + "] use cases in turn to each parsed file");
+    }
+    if (fileDeadline.getTimeout().isPresent()) {
+      log.info("Skipping any file which takes longer than [" + fileDeadline.getTimeout().get() + "] to process");
+    }
+    RunCache runCache = workerChunk ? RunCache.disabled() : RunCache.forUseCase(useCase, sources, classPath);
+    Optional<ContentTokenMatcher> tokenMatcher = ContentTokenMatcher.forOperations(operations);
+    if (tokenMatcher.isPresent()) {
+      log.info("Prefiltering file content on [" + tokenMatcher.get().getNumberOfTokens() + "] token(s) required by the operations");
+    }
+    ChunkReader chunkReader = new ChunkReader(useCase.getContentPrefilteringPredicate(), tokenMatcher, runCache, journal, statistics);
+
+    // Progress is only reported for the first round, which processes every file. Until the scan
+    // is complete, it is measured against the files found so far.
+    Runnable onFileCompleted = () -> {
+      long idx = currentFileIndex.incrementAndGet();
+      long filesFound = scanner.getFilesFound();
+      long newPct = idx * 100 / filesFound;
+      if (currentPercentage.getAndSet(newPct) != newPct) {
+        logProgress(idx, newPct, startTime, filesFound);
+      }
+    };
+    Set<String> changedFiles = new HashSet<>();
+    boolean stoppedByTimeBudget = false;
+    TypeHierarchyCache.shared().startRun();
     try {
-      for (int chunkIndex = 0; chunkIndex < numberOfChunks; chunkIndex++) {
-        int chunkStart = chunkIndex * batchSize;
-        int chunkEnd = Math.min(chunkStart + batchSize, allPaths.size());
-        List<Path> chunk = allPaths.subList(chunkStart, chunkEnd);
-
-        // Read and content-prefilter only this chunk's files. Limiting content reads to one
-        // chunk at a time keeps peak heap proportional to batchSize rather than totalFiles.
-        List<Path> chunkToParse = new ArrayList<>();
-        Map<String, String> chunkContent = new LinkedHashMap<>();
-        List<Path> chunkContentFiltered = new ArrayList<>();
-        Map<Path, RuntimeException> chunkReadFailures = new LinkedHashMap<>();
-
-        for (Path path : chunk) {
-          try {
-            String content = new String(Files.readAllBytes(path.toAbsolutePath()));
-            if (contentPrefilteringPredicate.test(content)) {
-              chunkToParse.add(path);
-              chunkContent.put(path.toAbsolutePath().normalize().toString(), content);
-            } else {
-              log.debug("Skipping [{}] — excluded by content pre-filtering predicate", path);
-              chunkContentFiltered.add(path);
+      FileScanner roundFiles = scanner;
+      for (int round = 1; ; round++) {
+        if (round > 1) {
+          // The files changed by the last round may have changed the hierarchies of the types they declare
+          TypeHierarchyCache.shared().clearHierarchies();
+        }
+        List<Path> changedInRound = new ArrayList<>();
+        // Files which an earlier run, see the run journal, changed in this round, to be processed in the next round
+        List<Path> changedEarlierInRound = new ArrayList<>();
+        Runnable onRoundFileCompleted = round == 1 ? onFileCompleted : () -> {};
+        chunkReader.startRound(round);
+        ParsedChunk parsedChunk = readAndParseChunk(roundFiles, 0, 0, chunkSizer, chunkReader, chunkParser);
+
+        while (parsedChunk != null) {
+          List<Future<?>> chunkFutures = submitChunk(parsedChunk, executor, fileDeadline, passes.get(0), sources, classPath, statistics);
+
+          // Parse the next chunk while this chunk's operations are applied on the worker threads.
+          ParsedChunk nextParsedChunk = readAndParseChunk(roundFiles, parsedChunk.chunkIndex + 1, parsedChunk.end, chunkSizer,
+              chunkReader, chunkParser);
+
+          // Wait for all futures in this chunk before submitting the next one. This ensures that
+          // the CompilationUnit objects captured by the submitted tasks can be garbage-collected
+          // before a further chunk is loaded, keeping peak heap proportional to batchSize.
+          awaitAll(chunkFutures, fileErrors, onRoundFileCompleted);
+          retryOutOfMemory(parsedChunk, executor, fileDeadline, chunkSizer, fileErrors);
+
+          // Apply each further use case to the content left by those before it, but not to a file which ran out of time.
+          recordTimedOut(parsedChunk, fileDeadline, timedOutFiles);
+          for (OperationPass pass : passes.subList(1, passes.size())) {
+            awaitAll(submitPass(parsedChunk, executor, fileDeadline, pass, chunkParser), fileErrors, () -> {});
+            retryOutOfMemory(parsedChunk, executor, fileDeadline, chunkSizer, fileErrors);
+            recordTimedOut(parsedChunk, fileDeadline, timedOutFiles);
+          }
+          recordUnchanged(parsedChunk, runCache);
+          for (Path path : parsedChunk.toParse) {
+            if (parsedChunk.changedContent.containsKey(path.toAbsolutePath().normalize().toString())) {
+              changedInRound.add(path);
             }
-          } catch (IOException e) {
-            chunkReadFailures.put(path, new RuntimeException(
-                "Failed to read file [" + path + "]: " + e.getMessage(), e));
           }
-        }
-
-        if (numberOfChunks > 1) {
-          log.info("Batch parsing chunk [" + (chunkIndex + 1) + "/" + numberOfChunks + "] — " + chunkToParse.size() + " file(s)");
-        } else {
-          log.info("Batch parsing [" + chunkToParse.size() + "] file(s) with shared compilation environment");
-        }
-
-        Map<String, CompilationUnit> parsedUnits = batchParseFiles(chunkToParse, sources, classPath);
-
-        List<Future<?>> chunkFutures = new ArrayList<>();
-
-        // Submit work futures for files that were batch-parsed.
-        for (Path path : chunkToParse) {
-          String key = path.toAbsolutePath().normalize().toString();
-          CompilationUnit cu = parsedUnits.get(key);
-          String content = chunkContent.get(key);
-          if (cu != null && content != null) {
-            chunkFutures.add(executor.submit(() ->
-                applyOperationsAndSaveWithPreParsedCompilationUnit(path, content, cu, operations, sources, classPath)));
-          } else {
-            // Defensive fallback: batch parse did not return a CU (should not happen with JDT).
-            log.warn("Batch parse produced no CompilationUnit for [{}]; falling back to per-file parse", path);
-            chunkFutures.add(executor.submit(() ->
-                applyOperationsAndSave(path, operations, sources, classPath, s -> true)));
+          changedEarlierInRound.addAll(parsedChunk.changedEarlier);
+
+          // Remove unused imports from every file the operations changed, re-parsing them together.
+          awaitAll(submitImportCleanup(parsedChunk, executor, fileDeadline, importCleanupParser), fileErrors, () -> {});
+          recordTimedOut(parsedChunk, fileDeadline, timedOutFiles);
+          recordCompleted(parsedChunk, journal);
+          parsedChunk = nextParsedChunk;
+
+          // Stop cleanly at the chunk boundary, leaving the chunk read ahead for the next run
+          if (parsedChunk != null && isTimeBudgetSpent(startTime, timeBudget)) {
+            stoppedByTimeBudget = true;
+            break;
           }
         }
 
-        // Submit failure futures for files that could not be read (surfaces them via future.get()).
-        for (Map.Entry<Path, RuntimeException> entry : chunkReadFailures.entrySet()) {
-          RuntimeException ex = entry.getValue();
-          chunkFutures.add(executor.submit((Runnable) () -> { throw ex; }));
+        changedInRound.forEach(path -> changedFiles.add(path.toAbsolutePath().normalize().toString()));
+        List<Path> nextRoundFiles = new ArrayList<>(changedInRound);
+        nextRoundFiles.addAll(changedEarlierInRound);
+        if (!stoppedByTimeBudget && !nextRoundFiles.isEmpty() && round < maximumRounds && isTimeBudgetSpent(startTime, timeBudget)) {
+          stoppedByTimeBudget = true;
         }
-
-        // Submit no-op futures for content-filtered files so that they count toward the progress
-        // denominator, preserving the same progress behaviour as the previous per-file code path.
-        for (int i = 0; i < chunkContentFiltered.size(); i++) {
-          chunkFutures.add(executor.submit(() -> {}));
+        if (stoppedByTimeBudget) {
+          log.warn("Stopped in round [" + round + "] at a chunk boundary, as the time budget of [" + timeBudget.get() + "] was spent"
+              + (journal.isEnabled() ? "; run again to resume from the run journal" : ""));
+          break;
         }
-
-        // Wait for all futures in this chunk before parsing the next chunk. This ensures that
-        // the CompilationUnit objects captured by the submitted tasks can be garbage-collected
-        // before the next chunk is loaded, keeping peak heap proportional to batchSize.
-        for (Future<?> future : chunkFutures) {
-          try {
-            future.get();
-          } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            log.error("Failed to process file: " + cause.getMessage(), cause);
-            fileErrors.add(cause);
-          } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException("File processing was interrupted", e);
-          }
-          long idx = currentFileIndex.incrementAndGet();
-          long newPct = idx * 100 / totalFiles;
-          if (currentPercentage.getAndSet(newPct) != newPct) {
-            logProgress(idx, newPct, startTime, totalFiles);
+        if (nextRoundFiles.isEmpty() || round >= maximumRounds) {
+          if (maximumRounds > 1) {
+            log.info("Stopped after round [" + round + "] of up to [" + maximumRounds + "]"
+                + (nextRoundFiles.isEmpty() ? ", as it changed no files" : ", with [" + nextRoundFiles.size() + "] file(s) changed by the last round"));
           }
+          break;
         }
+        // Only the files changed by this round, or by this round of an earlier run, can be changed by the next one.
+        log.info("Round [" + round + "] changed [" + nextRoundFiles.size() + "] file(s); processing them again in round [" + (round + 1) + "]");
+        roundFiles = FileScanner.of(nextRoundFiles);
       }
+      statistics.addFilesChanged(changedFiles.size());
     } finally {
+      scanner.close();
+      if (parseExecutor != null) {
+        parseExecutor.shutdownNow();
+      }
       List<Runnable> notStarted = executor.shutdownNow();
       if (!notStarted.isEmpty()) {
         log.warn(notStarted.size() + " file(s) were not processed due to early termination");
       }
+      compilationEnvironment.close();
+      fileDeadline.close();
+      TypeHierarchyCache.shared().endRun();
     }
 
-    log.info(getPrintableDuration(Duration.between(startTime, Instant.now())));
+    if (runCache.isEnabled()) {
+      try {
+        runCache.save();
+      } catch (IOException e) {
+        log.warn("Failed to save run cache: " + e.getMessage(), e);
+      }
+      log.info("Run cache: [" + runCache.getHits() + "] hit(s), [" + runCache.getMisses() + "] miss(es)");
+    }
+    if (stoppedByTimeBudget) {
+      statistics.recordStoppedByTimeBudget();
+    } else if (fileErrors.isEmpty() && timedOutFiles.isEmpty()) {
+      journal.delete();
+    }
+    statistics.addFilesFailed(fileErrors.size());
+    statistics.addFilesTimedOut(timedOutFiles.size());
+    if (!timedOutFiles.isEmpty()) {
+      log.warn("[" + timedOutFiles.size() + "] file(s) took longer than [" + fileDeadline.getTimeout().get()
+          + "] to process, and were skipped: " + timedOutFiles);
+    }
+    statistics.recordRunDuration(Duration.between(startTime, Instant.now()));
+    log.info(statistics.toString());
+    log.info(getPrintableDuration(statistics.getRunDuration()));
 
     if (!fileErrors.isEmpty()) {
       IOException summary = new IOException(
@@ -231,16 +401,642 @@ public class AstraCore {
       fileErrors.forEach(summary::addSuppressed);
       throw summary;
     }
+    return statistics;
+  }
+
+
+  /**
+   * Waits for every future, collecting the cause of any failure into {@code fileErrors} and
+   * calling {@code onCompletion} as each future completes.
+   */
+  private static void awaitAll(List<Future<?>> futures, List<Throwable> fileErrors, Runnable onCompletion) throws IOException {
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (CancellationException e) {
+        // The file ran out of time, and is reported once the chunk is complete
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        log.error("Failed to process file: " + cause.getMessage(), cause);
+        fileErrors.add(cause);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("File processing was interrupted", e);
+      }
+      onCompletion.run();
+    }
+  }
+
+
+  /**
+   * Applies the operations again to each file of the chunk which ran out of memory while they were applied, one file
+   * at a time, once the rest of the chunk is done, so that it has the heap to itself. Later chunks are made smaller.
+   * A file which runs out of memory on its own is reported as a failure of that file.
+   */
+  private static void retryOutOfMemory(ParsedChunk chunk, ExecutorService executor, FileDeadline fileDeadline,
+      ChunkSizer chunkSizer, List<Throwable> fileErrors) throws IOException {
+    if (chunk.outOfMemory.isEmpty()) {
+      return;
+    }
+    Map<Path, Runnable> retries = new LinkedHashMap<>(chunk.outOfMemory);
+    chunk.outOfMemory.clear();
+    log.warn("Ran out of memory applying operations to [" + retries.size() + "] file(s) of chunk [" + (chunk.chunkIndex + 1)
+        + "]; retrying each on its own, and later chunks will be smaller");
+    chunkSizer.outOfMemory(chunk.end - chunk.start);
+    for (Map.Entry<Path, Runnable> retry : retries.entrySet()) {
+      awaitAll(List.of(fileDeadline.submit(executor, retry.getKey(), retry.getValue())), fileErrors, () -> {});
+    }
+  }
+
+
+  /**
+   * Reads, content-prefilters and batch-parses the files of one chunk, starting at {@code chunkStart},
+   * with as many files as the {@link ChunkSizer} decides, once the scanner has found them.
+   *
+   * <p>If the chunk runs out of memory, it is discarded, and read and parsed again with half as
+   * many files; the files left out are left for the next chunk. A single file which runs out of
+   * memory is reported as a failure of that file.
+   *
+   * @return the chunk, or {@code null} if the scan is complete and every file found has been read.
+   */
+  private static ParsedChunk readAndParseChunk(FileScanner scanner, int chunkIndex, int chunkStart, ChunkSizer chunkSizer,
+      ChunkReader chunkReader, ChunkParser chunkParser) throws IOException {
+    List<Path> candidates = scanner.awaitFiles(chunkStart, chunkSizer.getLookahead());
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    int chunkSize = chunkSizer.nextChunkSize(candidates, 0);
+    while (true) {
+      int chunkEnd = chunkStart + chunkSize;
+      // The total is only known once the scan is complete
+      boolean scanComplete = scanner.isComplete();
+      int filesFound = scanner.getFilesFound();
+      String chunkName = chunkSizer.isAdaptive()
+          ? (chunkIndex + 1) + "], files [" + (chunkStart + 1) + "-" + chunkEnd + (scanComplete ? "/" + filesFound : "")
+          : (chunkIndex + 1) + (scanComplete ? "/" + (chunkIndex + (filesFound - chunkStart + chunkSize - 1) / chunkSize) : "");
+      boolean onlyChunk = chunkStart == 0 && scanComplete && chunkEnd == filesFound;
+      try {
+        return readAndParseChunk(candidates.subList(0, chunkSize), chunkIndex, chunkStart, onlyChunk, chunkName, chunkReader,
+            chunkParser);
+      } catch (OutOfMemoryError e) {
+        int retrySize = chunkSizer.outOfMemory(chunkSize);
+        if (retrySize == 0) {
+          Path path = candidates.get(0);
+          log.error("Ran out of memory reading and parsing [" + path + "]");
+          ParsedChunk chunk = new ParsedChunk(chunkIndex, chunkStart, chunkStart + 1);
+          chunk.readFailures.put(path, new RuntimeException("Ran out of memory reading and parsing file [" + path + "]", e));
+          return chunk;
+        }
+        log.warn("Ran out of memory reading and parsing [" + chunkSize + "] file(s); retrying with [" + retrySize + "] file(s)");
+        chunkSize = retrySize;
+      }
+    }
+  }
+
+
+  /**
+   * Reads, content-prefilters and batch-parses the files of one chunk.
+   *
+   * <p>Limiting content reads to one chunk at a time keeps peak heap proportional to the batch
+   * size rather than the total number of files.
+   *
+   * <p>Files whose content is unchanged since a previous run which made no edits to them are
+   * skipped before prefiltering or parsing (see {@link UseCase#getRunCacheFile()}).
+   */
+  private static ParsedChunk readAndParseChunk(List<Path> chunkPaths, int chunkIndex, int chunkStart, boolean onlyChunk,
+      String chunkName, ChunkReader chunkReader, ChunkParser chunkParser) {
+    ParsedChunk chunk = new ParsedChunk(chunkIndex, chunkStart, chunkStart + chunkPaths.size());
+
+    try (RunStatistics.PhaseTiming timing = chunkReader.statistics.time(Phase.READ)) {
+      for (Path path : chunkPaths) {
+        try {
+          chunkReader.read(path, chunk);
+        } catch (IOException e) {
+          chunk.readFailures.put(path, new RuntimeException(
+              "Failed to read file [" + path + "]: " + e.getMessage(), e));
+        }
+      }
+    }
+    if (!onlyChunk) {
+      log.info("Batch parsing chunk [" + chunkName + "] — " + chunk.toParse.size() + " file(s)");
+    } else {
+      log.info("Batch parsing [" + chunk.toParse.size() + "] file(s) with shared compilation environment");
+    }
+
+    chunk.parsedUnits = chunkParser.parse(chunk.toParse);
+    // Only counted once the chunk has been parsed, as it is read again if it runs out of memory
+    chunkReader.statistics.addFilesSkippedUnchanged(chunk.cacheHits.size());
+    chunkReader.statistics.addFilesSkippedCompleted(chunk.completedEarlier.size());
+    chunkReader.statistics.addFilesPrefiltered(chunk.contentFiltered.size());
+    chunkReader.statistics.addFilesParsed(chunk.parsedUnits.size());
+    return chunk;
+  }
+
+
+  /**
+   * Submits the work for every file in a parsed chunk to the executor, returning one future per file.
+   */
+  private List<Future<?>> submitChunk(ParsedChunk chunk, ExecutorService executor, FileDeadline fileDeadline, OperationPass pass,
+      String[] sources, String[] classPath, RunStatistics statistics) {
+    List<Future<?>> chunkFutures = new ArrayList<>();
+
+    // Submit work futures for files that were batch-parsed, largest first, so that the chunk does not
+    // end with every other thread idle, waiting on one large file which happened to be submitted last.
+    for (Path path : largestFirst(chunk.toParse, path -> chunk.content.get(path.toAbsolutePath().normalize().toString()))) {
+      String key = path.toAbsolutePath().normalize().toString();
+      CompilationUnit cu = chunk.parsedUnits.get(key);
+      String content = chunk.content.get(key);
+      if (cu != null && content != null) {
+        chunkFutures.add(fileDeadline.submit(executor, path, () -> applyPass(chunk, path, key, content, cu, pass, statistics, false)));
+      } else {
+        // Defensive fallback: batch parse did not return a CU (should not happen with JDT).
+        log.warn("Batch parse produced no CompilationUnit for [{}]; falling back to per-file parse", path);
+        chunk.notCacheable.add(key);
+        chunkFutures.add(fileDeadline.submit(executor, path, () ->
+            applyOperationsAndSave(path, pass.operations, sources, classPath, s -> true)));
+      }
+    }
+
+    // Submit failure futures for files that could not be read (surfaces them via future.get()).
+    for (Map.Entry<Path, RuntimeException> entry : chunk.readFailures.entrySet()) {
+      RuntimeException ex = entry.getValue();
+      chunkFutures.add(executor.submit((Runnable) () -> { throw ex; }));
+    }
+
+    // Submit no-op futures for content-filtered files, run cache hits and files completed by an earlier run so that
+    // they count toward the progress denominator, preserving the same progress behaviour as the previous per-file code path.
+    for (int i = 0; i < chunk.contentFiltered.size() + chunk.cacheHits.size() + chunk.completedEarlier.size(); i++) {
+      chunkFutures.add(executor.submit(() -> {}));
+    }
+    return chunkFutures;
+  }
+
+
+  /**
+   * Applies the operations of a further use case to the files of a chunk which pass its prefilters, and submits
+   * them to the executor.
+   *
+   * <p>Files changed by an earlier use case are re-parsed first, all together in one shared batch, so that the
+   * operations see the changed content. Other files keep the compilation unit they were parsed into.
+   */
+  private List<Future<?>> submitPass(ParsedChunk chunk, ExecutorService executor, FileDeadline fileDeadline, OperationPass pass,
+      ChunkParser chunkParser) {
+    Map<Path, String> toApply = new LinkedHashMap<>();
+    List<Path> toReparse = new ArrayList<>();
+    for (Path path : chunk.toParse) {
+      String key = path.toAbsolutePath().normalize().toString();
+      String changedContent = chunk.changedContent.get(key);
+      String content = changedContent != null ? changedContent : chunk.content.get(key);
+      if (chunk.notCacheable.contains(key) || content == null || !pass.appliesTo(path, content)) {
+        continue;
+      }
+      toApply.put(path, content);
+      if (changedContent != null) {
+        toReparse.add(path);
+      }
+    }
+    if (!toReparse.isEmpty()) {
+      log.debug("Batch parsing [{}] changed file(s) for the next use case", toReparse.size());
+      chunk.parsedUnits.putAll(chunkParser.parse(toReparse));
+    }
+
+    List<Future<?>> passFutures = new ArrayList<>();
+    RunStatistics statistics = chunkParser.statistics;
+    for (Path path : largestFirst(toApply.keySet(), toApply::get)) {
+      String key = path.toAbsolutePath().normalize().toString();
+      CompilationUnit cu = chunk.parsedUnits.get(key);
+      if (cu != null) {
+        passFutures.add(fileDeadline.submit(executor, path, () -> applyPass(chunk, path, key, toApply.get(path), cu, pass, statistics, false)));
+      }
+    }
+    return passFutures;
+  }
+
+
+  /**
+   * Applies the operations of one use case to a parsed file of a chunk, if it passes that use case's prefilters,
+   * recording any change to its content.
+   *
+   * @param onItsOwn whether the file is being retried on its own, having run out of memory with the rest of its
+   *          chunk, see {@link #retryOutOfMemory}
+   */
+  private void applyPass(ParsedChunk chunk, Path path, String key, String content, CompilationUnit cu, OperationPass pass,
+      RunStatistics statistics, boolean onItsOwn) {
+    if (!pass.appliesTo(path, content)) {
+      return;
+    }
+    try {
+      applyOperationsAndSaveWithPreParsedCompilationUnit(path, content, cu, pass.operations, statistics)
+          .ifPresent(changedContent -> chunk.changedContent.put(key, changedContent));
+    } catch (RuntimeException e) {
+      chunk.notCacheable.add(key);
+      throw e;
+    } catch (OutOfMemoryError e) {
+      if (!onItsOwn) {
+        chunk.outOfMemory.put(path, () -> applyPass(chunk, path, key, content, cu, pass, statistics, true));
+        return;
+      }
+      chunk.notCacheable.add(key);
+      throw new RuntimeException("Ran out of memory applying operations to file [" + path + "]", e);
+    }
+  }
+
+
+  private static boolean isTimeBudgetSpent(Instant startTime, Optional<Duration> timeBudget) {
+    return timeBudget.isPresent() && Duration.between(startTime, Instant.now()).compareTo(timeBudget.get()) >= 0;
+  }
+
+
+  /**
+   * Appends the files of the chunk which were processed to the run journal, once every file of the chunk has been
+   * written, so that a later run can resume after the chunk.
+   */
+  private static void recordCompleted(ParsedChunk chunk, RunJournal journal) throws IOException {
+    if (!journal.isEnabled()) {
+      return;
+    }
+    Map<String, String> completed = new LinkedHashMap<>();
+    chunk.contentHashes.forEach((key, contentHash) -> {
+      if (!chunk.notCacheable.contains(key)) {
+        completed.put(key, contentHash);
+      }
+    });
+    journal.recordCompleted(completed, chunk.changedContent.keySet());
+  }
+
+
+  /**
+   * Collects the files of the chunk which ran out of time, so that they are reported at the end of the run, and are
+   * not recorded in the run cache.
+   */
+  private static void recordTimedOut(ParsedChunk chunk, FileDeadline fileDeadline, List<Path> timedOutFiles) {
+    for (Path path : fileDeadline.takeTimedOut()) {
+      chunk.notCacheable.add(path.toAbsolutePath().normalize().toString());
+      timedOutFiles.add(path);
+    }
   }
 
 
   /**
-   * Batch-parses one chunk of source files using a single shared JDT compilation environment.
-   * Called once per chunk during a run; the number of paths is bounded by
-   * {@link UseCase#getBatchSize()}.
+   * Records each file of the chunk which every use case has been applied to without changing it in the run cache,
+   * so that the next run can skip it while its content is unchanged.
+   */
+  private static void recordUnchanged(ParsedChunk chunk, RunCache runCache) {
+    for (Map.Entry<String, String> entry : chunk.contentHashes.entrySet()) {
+      String key = entry.getKey();
+      if (!chunk.changedContent.containsKey(key) && !chunk.notCacheable.contains(key)) {
+        runCache.recordUnchanged(key, entry.getValue());
+      }
+    }
+  }
+
+
+  /**
+   * Re-parses every file of the chunk that was changed by the operations in one shared batch,
+   * and submits the removal of unused imports from each of them to the executor.
+   *
+   * <p>Import cleanup needs bindings for the rewritten source. Re-parsing all of a chunk's
+   * changed files together amortises the classpath environment initialisation over the chunk,
+   * rather than re-initialising it for every changed file with a per-file parse.
+   */
+  private List<Future<?>> submitImportCleanup(ParsedChunk chunk, ExecutorService executor, FileDeadline fileDeadline,
+      ChunkParser chunkParser) {
+    if (chunk.changedContent.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<Path> changedFiles = chunk.changedContent.keySet().stream()
+        .map(Paths::get)
+        .collect(Collectors.toList());
+    log.debug("Batch parsing [{}] changed file(s) for import cleanup", changedFiles.size());
+    Map<String, CompilationUnit> reparsedUnits = chunkParser.parse(changedFiles);
+    RunStatistics statistics = chunkParser.statistics;
+
+    List<Future<?>> cleanupFutures = new ArrayList<>();
+    for (Path path : largestFirst(changedFiles, path -> chunk.changedContent.get(path.toString()))) {
+      CompilationUnit cu = reparsedUnits.get(path.toString());
+      String content = chunk.changedContent.get(path.toString());
+      cleanupFutures.add(fileDeadline.submit(executor, path, () -> {
+        try (RunStatistics.PhaseTiming timing = statistics.time(Phase.IMPORT_CLEANUP)) {
+          removeUnusedImportsAndSave(path, content, cu, chunkParser.sources, chunkParser.classPath);
+        } catch (RuntimeException e) {
+          chunk.notCacheable.add(path.toString());
+          throw e;
+        }
+      }));
+    }
+    return cleanupFutures;
+  }
+
+
+  /**
+   * Orders files by the length of their content, largest first, as an estimate of how long the operations take on
+   * each. Submitting the longest tasks first to the shared queue of the executor keeps every thread busy until
+   * close to the end of a chunk, so that less time is spent waiting for the last file of each chunk.
+   */
+  static List<Path> largestFirst(Collection<Path> paths, Function<Path, String> contentOf) {
+    Map<Path, Integer> lengths = new HashMap<>(paths.size() * 2);
+    for (Path path : paths) {
+      String content = contentOf.apply(path);
+      lengths.put(path, content == null ? 0 : content.length());
+    }
+    List<Path> ordered = new ArrayList<>(paths);
+    // A stable sort, so files of the same length keep the order in which they were found
+    ordered.sort(Comparator.comparing(lengths::get, Comparator.reverseOrder()));
+    return ordered;
+  }
+
+
+  /**
+   * Splits the files into contiguous shards holding a similar number of bytes, rather than a similar number of
+   * files, so that a shard of large files does not finish long after the others.
+   */
+  static List<List<Path>> contiguousShardsBySize(List<Path> paths, int numberOfShards) {
+    long[] costs = new long[paths.size()];
+    long totalCost = 0;
+    for (int i = 0; i < paths.size(); i++) {
+      // One more than the size, so that empty or unreadable files still count for something
+      costs[i] = 1 + paths.get(i).toFile().length();
+      totalCost += costs[i];
+    }
+
+    List<List<Path>> shards = new ArrayList<>();
+    int shardStart = 0;
+    long cost = 0;
+    for (int i = 0; i < paths.size() && shards.size() < numberOfShards - 1; i++) {
+      cost += costs[i];
+      int filesAfter = paths.size() - i - 1;
+      int shardsAfter = numberOfShards - shards.size() - 1;
+      // Close the shard once the shards so far hold their share of the bytes, or each later shard would otherwise
+      // be left without a file
+      if (cost * numberOfShards >= totalCost * (shards.size() + 1) || filesAfter == shardsAfter) {
+        shards.add(paths.subList(shardStart, i + 1));
+        shardStart = i + 1;
+      }
+    }
+    shards.add(paths.subList(shardStart, paths.size()));
+    return shards;
+  }
+
+
+  /**
+   * The files of one chunk after reading, content prefiltering and batch parsing.
+   */
+  private static final class ParsedChunk {
+    private final int chunkIndex;
+    private final int start;
+    private final int end;
+    private final List<Path> toParse = new ArrayList<>();
+    private final Map<String, String> content = new LinkedHashMap<>();
+    private final List<Path> contentFiltered = new ArrayList<>();
+    private final List<Path> cacheHits = new ArrayList<>();
+    private final List<Path> completedEarlier = new ArrayList<>();
+    // Files completed by an earlier run, which it changed, so are processed again in the next round
+    private final List<Path> changedEarlier = new ArrayList<>();
+    private final Map<String, String> contentHashes = new LinkedHashMap<>();
+    private final Map<Path, RuntimeException> readFailures = new LinkedHashMap<>();
+    private final Map<String, String> changedContent = new ConcurrentHashMap<>();
+    // Files which failed, or were processed without the batch parse, which must not be recorded in the run cache
+    private final Set<String> notCacheable = ConcurrentHashMap.newKeySet();
+    // The operations to apply again, on its own, to each file which ran out of memory while they were applied
+    private final Map<Path, Runnable> outOfMemory = new ConcurrentHashMap<>();
+    private Map<String, CompilationUnit> parsedUnits;
+
+    private ParsedChunk(int chunkIndex, int start, int end) {
+      this.chunkIndex = chunkIndex;
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+
+  /**
+   * The operations of one use case, applied to the parsed files which pass its own prefilters.
    *
-   * <p>A single {@link ASTParser} is configured with the supplied classpath and source paths,
-   * and {@link ASTParser#createASTs} is called with the chunk's file paths in one shot.  JDT
+   * <p>A run of a single use case has one pass, which applies to every parsed file, as the files
+   * have already been prefiltered for that use case. A run of several use cases together (see
+   * {@link CombinedUseCase}) has a pass for each of them, in order.
+   */
+  private static final class OperationPass {
+    private final Set<? extends ASTOperation> operations;
+    private final Optional<Predicate<Path>> fileFilter;
+    private final Predicate<String> contentPrefilteringPredicate;
+    private final Optional<ContentTokenMatcher> tokenMatcher;
+
+    private OperationPass(Set<? extends ASTOperation> operations, Optional<Predicate<Path>> fileFilter,
+        Predicate<String> contentPrefilteringPredicate, Optional<ContentTokenMatcher> tokenMatcher) {
+      this.operations = operations;
+      this.fileFilter = fileFilter;
+      this.contentPrefilteringPredicate = contentPrefilteringPredicate;
+      this.tokenMatcher = tokenMatcher;
+    }
+
+    private static List<OperationPass> forUseCase(UseCase useCase) {
+      if (!(useCase instanceof CombinedUseCase)) {
+        return List.of(new OperationPass(useCase.getOperations(), Optional.empty(), content -> true, Optional.empty()));
+      }
+      CombinedUseCase combinedUseCase = (CombinedUseCase) useCase;
+      return combinedUseCase.getUseCases().stream()
+          .map(each -> new OperationPass(each.getOperations(),
+              Optional.of(FileScanner.includedFiles(combinedUseCase.getRoot(), each)),
+              each.getContentPrefilteringPredicate(),
+              ContentTokenMatcher.forOperations(each.getOperations())))
+          .collect(Collectors.toList());
+    }
+
+    private boolean appliesTo(Path path, String content) {
+      if (fileFilter.isEmpty()) {
+        return true;
+      }
+      return fileFilter.get().test(path)
+          && (tokenMatcher.isEmpty() || tokenMatcher.get().containsAny(content))
+          && contentPrefilteringPredicate.test(content);
+    }
+  }
+
+
+  /**
+   * Reads the files of each chunk, and decides which of them need to be parsed.
+   *
+   * <p>Each file is read into one pooled direct buffer, reused for every file of the run, so that
+   * rejecting a file allocates nothing. The run cache and the tokens required by the operations (see
+   * {@link ASTOperation#getRequiredContentTokens()}) are checked against the raw bytes. Only files
+   * which pass are decoded, as UTF-8 to match the encoding given to the batch parser, and then
+   * checked against the use case's content prefiltering predicate.
+   *
+   * <p>Not thread safe, as the buffer is shared between reads. Chunks are only read on the calling thread.
+   */
+  private static final class ChunkReader {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Predicate<String> contentPrefilteringPredicate;
+    private final Optional<ContentTokenMatcher> tokenMatcher;
+    private final RunCache runCache;
+    private final RunJournal journal;
+    private final RunStatistics statistics;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+    private boolean firstRound = true;
+
+    private ChunkReader(Predicate<String> contentPrefilteringPredicate, Optional<ContentTokenMatcher> tokenMatcher,
+        RunCache runCache, RunJournal journal, RunStatistics statistics) {
+      this.contentPrefilteringPredicate = contentPrefilteringPredicate;
+      this.tokenMatcher = tokenMatcher;
+      this.runCache = runCache;
+      this.journal = journal;
+      this.statistics = statistics;
+    }
+
+    /**
+     * In the first round, a file completed by an earlier run is skipped, and if that run changed it, it is processed
+     * in the next round. In later rounds, only a file which the earlier run processed there without changing it is
+     * skipped, as a file it changed still needs the round after.
+     */
+    private void startRound(int round) {
+      firstRound = round == 1;
+    }
+
+    private void read(Path path, ParsedChunk chunk) throws IOException {
+      String key = path.toAbsolutePath().normalize().toString();
+      ByteBuffer bytes = readFully(path.toAbsolutePath());
+      String contentHash = runCache.isEnabled() || journal.isEnabled() ? RunCache.hash(bytes) : null;
+      if (contentHash != null && runCache.isUnchanged(key, contentHash)) {
+        log.debug("Skipping [{}] — unchanged since the last run", path);
+        chunk.cacheHits.add(path);
+        return;
+      }
+      if (contentHash != null && journal.isCompleted(key, contentHash) && (firstRound || !journal.isChanged(key))) {
+        log.debug("Skipping [{}] — completed by an earlier run, see the run journal", path);
+        chunk.completedEarlier.add(path);
+        if (journal.isChanged(key)) {
+          chunk.changedEarlier.add(path);
+        }
+        return;
+      }
+      if (tokenMatcher.isPresent() && !tokenMatcher.get().containsAny(bytes)) {
+        log.debug("Skipping [{}] — contains none of the tokens required by the operations", path);
+        contentFiltered(path, key, contentHash, chunk);
+        return;
+      }
+      String content = StandardCharsets.UTF_8.decode(bytes).toString();
+      if (contentPrefilteringPredicate.test(content)) {
+        chunk.toParse.add(path);
+        chunk.content.put(key, content);
+        if (contentHash != null) {
+          chunk.contentHashes.put(key, contentHash);
+        }
+      } else {
+        log.debug("Skipping [{}] — excluded by content pre-filtering predicate", path);
+        contentFiltered(path, key, contentHash, chunk);
+      }
+    }
+
+    private void contentFiltered(Path path, String key, String contentHash, ParsedChunk chunk) {
+      chunk.contentFiltered.add(path);
+      if (contentHash != null) {
+        runCache.recordUnchanged(key, contentHash);
+      }
+    }
+
+    /**
+     * @return the buffer, holding the whole content of the file between its position and limit.
+     *         Only valid until the next read.
+     */
+    private ByteBuffer readFully(Path path) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        long size = channel.size();
+        if (size > buffer.capacity()) {
+          buffer = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE - 8, Math.max(size, 2L * buffer.capacity())));
+        }
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+          if (!buffer.hasRemaining()) {
+            // The file has grown since its size was read
+            ByteBuffer larger = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE - 8, 2L * buffer.capacity()));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+          }
+        }
+        buffer.flip();
+        return buffer;
+      }
+    }
+  }
+
+
+  /**
+   * Batch-parses the files of a chunk, either with a single parser on the calling thread, or
+   * split into contiguous shards which are parsed concurrently by independently configured
+   * parsers (see {@link UseCase#getParseParallelism()}). Shard results are merged back into one
+   * path-keyed map, exactly as returned by {@link #batchParseFiles}. All the parsers of a run
+   * share the classpath of one {@link SharedCompilationEnvironment}.
+   */
+  private static final class ChunkParser {
+    private final String[] sources;
+    private final String[] classPath;
+    private final SharedCompilationEnvironment compilationEnvironment;
+    private final boolean resolveBindings;
+    private final int parseParallelism;
+    private final ExecutorService parseExecutor;
+    private final RunStatistics statistics;
+    private final Phase phase;
+
+    private ChunkParser(String[] sources, String[] classPath, SharedCompilationEnvironment compilationEnvironment,
+        boolean resolveBindings, int parseParallelism, ExecutorService parseExecutor, RunStatistics statistics, Phase phase) {
+      this.sources = sources;
+      this.classPath = classPath;
+      this.compilationEnvironment = compilationEnvironment;
+      this.resolveBindings = resolveBindings;
+      this.statistics = statistics;
+      this.phase = phase;
+      this.parseParallelism = parseParallelism;
+      this.parseExecutor = parseExecutor;
+    }
+
+    private Map<String, CompilationUnit> parse(List<Path> paths) {
+      int numberOfShards = Math.min(parseParallelism, paths.size());
+      if (numberOfShards <= 1 || parseExecutor == null) {
+        return timedBatchParseFiles(paths);
+      }
+
+      // Contiguous shards keep files from the same directory (and so usually the same package) together
+      List<Future<Map<String, CompilationUnit>>> shardFutures = new ArrayList<>();
+      for (List<Path> shard : contiguousShardsBySize(paths, numberOfShards)) {
+        shardFutures.add(parseExecutor.submit(() -> timedBatchParseFiles(shard)));
+      }
+
+      Map<String, CompilationUnit> result = new HashMap<>(paths.size() * 2);
+      for (Future<Map<String, CompilationUnit>> shardFuture : shardFutures) {
+        try {
+          result.putAll(shardFuture.get());
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof OutOfMemoryError) {
+            // Lets the chunk be retried with fewer files
+            throw (OutOfMemoryError) e.getCause();
+          }
+          throw new RuntimeException("Batch parsing failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Batch parsing was interrupted", e);
+        }
+      }
+      return result;
+    }
+
+    private Map<String, CompilationUnit> timedBatchParseFiles(List<Path> paths) {
+      try (RunStatistics.PhaseTiming timing = statistics.time(phase)) {
+        return batchParseFiles(paths, compilationEnvironment, resolveBindings);
+      }
+    }
+  }
+
+
+  /**
+   * Batch-parses one chunk (or one shard of a chunk) of source files using a single shared JDT
+   * compilation environment. Called once per chunk or shard during a run; the number of paths is
+   * bounded by {@link UseCase#getBatchSize()}.
+   *
+   * <p>The chunk's file paths are parsed together in one shot, as by {@link ASTParser#createASTs}.  JDT
    * initialises its internal {@code LookupEnvironment} — which involves scanning every JAR
    * and source root on the classpath — exactly once for the chunk rather than once per
    * file, which is the primary cost saving over the per-file {@code createAST()} API.
@@ -254,12 +1050,21 @@ public class AstraCore {
    * {@code LookupEnvironment}.  In practice, all Astra operations only <em>read</em>
    * already-resolved bindings, so concurrent operation application is safe.
    *
+   * <p>When {@code resolveBindings} is {@code false} no environment is set up at all, and the
+   * files are only parsed syntactically (see {@link UseCase#requiresBindings()}). Otherwise the
+   * files are parsed by {@code compilationEnvironment}, which opens the JARs on the classpath,
+   * and reads the classes needed from them, once for the whole run rather than once per call.
+   *
+   * <p>Each call creates its own {@code LookupEnvironment}, so parsing one chunk while the worker
+   * threads are still applying operations to the previous chunk's units, or parsing several
+   * shards of a chunk concurrently, does not share any compiler state beyond the classpath.
+   *
    * @return a map from normalised absolute path string to {@link CompilationUnit}; the path
    *         strings are exactly those returned by
    *         {@link Path#toAbsolutePath()}{@code .normalize().toString()} for each input path.
    */
   private static Map<String, CompilationUnit> batchParseFiles(
-      List<Path> paths, String[] sources, String[] classPath) {
+      List<Path> paths, SharedCompilationEnvironment compilationEnvironment, boolean resolveBindings) {
 
     Map<String, CompilationUnit> result = new HashMap<>(paths.size() * 2);
 
@@ -267,33 +1072,65 @@ public class AstraCore {
       return result;
     }
 
-    ASTParser parser = AstraUtils.createBatchParser(sources, classPath);
-
     String[] absolutePaths = paths.stream()
         .map(p -> p.toAbsolutePath().normalize().toString())
         .toArray(String[]::new);
-    String[] fileEncodings = new String[absolutePaths.length];
-    Arrays.fill(fileEncodings, "UTF-8");
-
-    parser.createASTs(absolutePaths, fileEncodings, new String[0],
-        new FileASTRequestor() {
-          @Override
-          public void acceptAST(String sourceFilePath, CompilationUnit ast) {
-            // sourceFilePath is exactly what we passed in (absolute + normalised).
-            ast.setProperty(CompilationUnitProperty.ABSOLUTE_PATH,
-                Paths.get(sourceFilePath).toAbsolutePath());
-            ast.recordModifications();
-            result.put(sourceFilePath, ast);
-          }
-        }, null);
+
+    FileASTRequestor requestor = new FileASTRequestor() {
+      @Override
+      public void acceptAST(String sourceFilePath, CompilationUnit ast) {
+        // sourceFilePath is exactly what we passed in (absolute + normalised).
+        ast.setProperty(CompilationUnitProperty.ABSOLUTE_PATH,
+            Paths.get(sourceFilePath).toAbsolutePath());
+        if (resolveBindings) {
+          resolveStaticImportBindings(ast);
+        }
+        ast.recordModifications();
+        result.put(sourceFilePath, ast);
+      }
+    };
+
+    if (resolveBindings) {
+      compilationEnvironment.createASTs(absolutePaths, requestor);
+    } else {
+      String[] fileEncodings = new String[absolutePaths.length];
+      Arrays.fill(fileEncodings, "UTF-8");
+      AstraUtils.createBatchParser(new String[0], new String[0], false)
+          .createASTs(absolutePaths, fileEncodings, new String[0], requestor, null);
+    }
 
     return result;
   }
 
 
+  /**
+   * Completes the methods of every statically imported type, while the compiler environment of the batch parse is
+   * still available.
+   *
+   * <p>Once {@code createASTs} has finished with a file, resolving the name of a static import looks the member up
+   * again, which needs the methods of the imported type to be resolved. For a type declared in a source file that
+   * needs the type's scope, which has been cleaned up by then, so the lookup fails with a
+   * {@link NullPointerException}. Asking for the declared methods here resolves them all while the scope is available.
+   */
+  private static void resolveStaticImportBindings(CompilationUnit compilationUnit) {
+    for (ImportDeclaration importDeclaration : AstraUtils.getImportDeclarations(compilationUnit)) {
+      if (!importDeclaration.isStatic()) {
+        continue;
+      }
+      Name name = importDeclaration.getName();
+      Name typeName = importDeclaration.isOnDemand() || !name.isQualifiedName() ? name : ((QualifiedName) name).getQualifier();
+      IBinding binding = typeName.resolveBinding();
+      if (binding instanceof ITypeBinding) {
+        ((ITypeBinding) binding).getDeclaredMethods();
+      }
+    }
+  }
+
+
   /**
    * Applies {@code operations} to a file whose {@link CompilationUnit} was already produced by
-   * the batch parse, then runs import cleanup and writes the file back if content changed.
+   * the batch parse, and writes the file back if content changed. Import cleanup is not run
+   * here; it is run for all of a chunk's changed files together, see {@link #submitImportCleanup}.
    *
    * <p>This mirrors the logic in {@link #applyOperationsAndSave} but skips the per-file
    * {@link ASTParser} / {@link AstraUtils#readAsCompilationUnit} call that would otherwise
@@ -302,35 +1139,39 @@ public class AstraCore {
    * <p>This method is designed to be called from multiple worker threads in parallel; each
    * invocation operates exclusively on its own {@link CompilationUnit} and {@link ASTRewrite},
    * so there is no shared mutable state between threads.
+   *
+   * @return the changed file content, or empty if the operations did not change the file
    */
-  private void applyOperationsAndSaveWithPreParsedCompilationUnit(
+  private Optional<String> applyOperationsAndSaveWithPreParsedCompilationUnit(
       Path javaFile,
       String fileContentBefore,
       CompilationUnit preParseUnit,
       Set<? extends ASTOperation> operations,
-      String[] sources,
-      String[] classpath) {
+      RunStatistics statistics) {
     try {
       // Ensure SOURCE is available on pre-parsed units (batch path), mirroring readAsCompilationUnit.
       if (preParseUnit.getProperty(CompilationUnitProperty.SOURCE) == null) {
         preParseUnit.setProperty(CompilationUnitProperty.SOURCE, fileContentBefore);
       }
-      ASTRewrite rewriter = runOperations(operations, preParseUnit);
-      String fileContentAfter = makeChangesFromAST(fileContentBefore, rewriter);
+      ASTRewrite rewriter;
+      try (RunStatistics.PhaseTiming timing = statistics.time(Phase.APPLY_OPERATIONS)) {
+        rewriter = runOperations(operations, preParseUnit, statistics);
+      }
+      String fileContentAfter;
+      try (RunStatistics.PhaseTiming timing = statistics.time(Phase.MAKE_CHANGES)) {
+        fileContentAfter = makeChangesFromAST(fileContentBefore, rewriter);
+      }
 
       if (fileContentAfter.equals(fileContentBefore)) {
-        return;
+        return Optional.empty();
       }
 
-      // File was changed: run import cleanup and write back.
-      fileContentAfter = applyOperationsToSource(
-          new HashSet<>(Arrays.asList(new UnusedImportRefactor())),
-          sources, classpath, javaFile, fileContentAfter);
-
-      if (!fileContentAfter.equals(fileContentBefore)) {
-        Files.write(javaFile.toAbsolutePath(), fileContentAfter.getBytes(),
-            StandardOpenOption.TRUNCATE_EXISTING);
+      FileDeadline.checkNotCancelled();
+      try (RunStatistics.PhaseTiming timing = statistics.time(Phase.WRITE)) {
+        replaceFile(javaFile, fileContentAfter);
       }
+      onFileWritten.accept(javaFile);
+      return Optional.of(fileContentAfter);
     } catch (IOException | BadLocationException | IllegalArgumentException e) {
       throw new RuntimeException("Failed to process file [" + javaFile + "]: " + e.getMessage(), e);
     }
@@ -338,18 +1179,56 @@ public class AstraCore {
 
 
   /**
-   * Builds the single, shared file-selection filter applied to every {@link Path} encountered when
-   * walking the source directory. This combines the {@code .java} file check with the path-level
-   * prefiltering predicate from the {@link UseCase} ({@link UseCase#getPrefilteringPredicate()}).
+   * Removes unused imports from a changed file, using a {@link CompilationUnit} re-parsed from its
+   * changed content, and writes the file back if that removed anything.
+   */
+  private void removeUnusedImportsAndSave(Path javaFile, String fileContent, CompilationUnit reparsedUnit, String[] sources, String[] classpath) {
+    try {
+      if (reparsedUnit == null) {
+        // Defensive fallback: batch parse did not return a CU (should not happen with JDT).
+        log.warn("Batch parse produced no CompilationUnit for [{}]; falling back to per-file parse for import cleanup", javaFile);
+        reparsedUnit = AstraUtils.readAsCompilationUnit(javaFile, fileContent, sources, classpath);
+      }
+      reparsedUnit.setProperty(CompilationUnitProperty.SOURCE, fileContent);
+      ASTRewrite rewriter = runOperations(new HashSet<>(Arrays.asList(new UnusedImportRefactor())), reparsedUnit);
+      String fileContentAfter = makeChangesFromAST(fileContent, rewriter);
+
+      if (!fileContentAfter.equals(fileContent)) {
+        FileDeadline.checkNotCancelled();
+        replaceFile(javaFile, fileContentAfter);
+        onFileWritten.accept(javaFile);
+      }
+    } catch (IOException | BadLocationException | IllegalArgumentException e) {
+      throw new RuntimeException("Failed to remove unused imports from file [" + javaFile + "]: " + e.getMessage(), e);
+    }
+  }
+
+
+  /**
+   * Replaces the content of a file by writing it to a temporary file in the same directory, then moving that over the
+   * file. Another thread reading the file, such as the parse of the next chunk when the source path covers the target
+   * directory, sees either the old content or the new, never an empty or partly written file.
    *
-   * <p>The same {@link Predicate} instance is used for both the count walk (which determines the
-   * total used for progress reporting) and the processing walk, ensuring the two can never diverge.
+   * <p>If the thread is interrupted, as it is when the file runs out of time, the temporary file is not moved over the
+   * file, which is left as it was.
    */
-  private Predicate<Path> buildFileFilter(UseCase useCase) {
-    Predicate<String> prefilteringPredicate = useCase.getPrefilteringPredicate();
-    return f -> f.toFile().isFile()
-        && f.getFileName().toString().endsWith("java")
-        && prefilteringPredicate.test(f.toString());
+  static void replaceFile(Path file, String content) throws IOException {
+    Path target = file.toAbsolutePath();
+    Path temporary = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".astra");
+    try {
+      Files.write(temporary, content.getBytes(StandardCharsets.UTF_8));
+      if (Files.getFileAttributeView(target, PosixFileAttributeView.class) != null) {
+        Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(target));
+      }
+      FileDeadline.checkNotCancelled();
+      try {
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
   }
 
 
@@ -428,7 +1307,7 @@ public class AstraCore {
    */
   protected void applyOperationsAndSave(Path javaFile, Set<? extends ASTOperation> operations, String[] sources, String[] classpath, Predicate<String> contentPrefilteringPredicate) {
     try {
-      String fileContentBefore = new String(Files.readAllBytes(javaFile.toAbsolutePath()));
+      String fileContentBefore = new String(Files.readAllBytes(javaFile.toAbsolutePath()), StandardCharsets.UTF_8);
 
       // Apply the content predicate before parsing — skip files that cannot be affected
       if (!contentPrefilteringPredicate.test(fileContentBefore)) {
@@ -442,7 +1321,9 @@ public class AstraCore {
       // If the file content has changed
       if (! fileContentAfter.equals(fileContentBefore)) {
         // save the file (over the original)
-        Files.write(javaFile.toAbsolutePath(), fileContentAfter.getBytes(), StandardOpenOption.TRUNCATE_EXISTING);
+        FileDeadline.checkNotCancelled();
+        replaceFile(javaFile, fileContentAfter);
+        onFileWritten.accept(javaFile);
       }
     } catch (IOException | BadLocationException | IllegalArgumentException e) {
       throw new RuntimeException("Failed to process file [" + javaFile + "]: " + e.getMessage(), e);
@@ -491,6 +1372,16 @@ public class AstraCore {
    * @return ASTRewrite, a collection of changes to make to the source file
    */
   private static ASTRewrite runOperations(Set<? extends ASTOperation> operations, final CompilationUnit compilationUnit) {
+    return runOperations(operations, compilationUnit, new RunStatistics());
+  }
+
+
+  /**
+   * As {@link #runOperations(Set, CompilationUnit)}, recording the time spent in each operation, and the number of
+   * nodes passed to it, in {@code statistics}.
+   */
+  private static ASTRewrite runOperations(Set<? extends ASTOperation> operations, final CompilationUnit compilationUnit,
+      RunStatistics statistics) {
 
     // Create the re-writer for modifying the code
     final ASTRewrite rewriter = ASTRewrite.create(compilationUnit.getAST());
@@ -498,19 +1389,42 @@ public class AstraCore {
     final ClassVisitor visitor = new ClassVisitor();
     compilationUnit.accept(visitor);
 
-    for (ASTOperation operation : operations) {
+    // Bucket the visited nodes by type once, rather than handing every node to every operation
+    final Map<Class<? extends ASTNode>, List<ASTNode>> nodesByType = visitor.getVisitedNodesByType();
 
-      // For every ASTNode we've visited
-      visitor.getVisitedNodes()
-      .forEach(node -> {
-        try {
-          // Pass them to the operation
-          operation.run(compilationUnit, node, rewriter);
-        } catch (MalformedTreeException | IOException | BadLocationException e) {
-          throw new RuntimeException(e);
+    for (ASTOperation operation : operations) {
+      Set<Class<? extends ASTNode>> handledNodeTypes = operation.getHandledNodeTypes();
+      long startNanos = System.nanoTime();
+      long invocations = 0;
+
+      // For every bucket of visited ASTNodes the operation handles
+      for (Map.Entry<Class<? extends ASTNode>, List<ASTNode>> bucket : nodesByType.entrySet()) {
+        if (!isHandledNodeType(handledNodeTypes, bucket.getKey())) {
+          continue;
         }
-      });
+        for (ASTNode node : bucket.getValue()) {
+          FileDeadline.checkNotCancelled();
+          try {
+            // Pass them to the operation
+            operation.run(compilationUnit, node, rewriter);
+          } catch (MalformedTreeException | IOException | BadLocationException e) {
+            throw new RuntimeException(e);
+          }
+          invocations++;
+        }
+      }
+      statistics.recordOperation(operation, invocations, System.nanoTime() - startNanos);
     }
     return rewriter;
   }
+
+
+  private static boolean isHandledNodeType(Set<Class<? extends ASTNode>> handledNodeTypes, Class<? extends ASTNode> nodeType) {
+    for (Class<? extends ASTNode> handledNodeType : handledNodeTypes) {
+      if (handledNodeType.isAssignableFrom(nodeType)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
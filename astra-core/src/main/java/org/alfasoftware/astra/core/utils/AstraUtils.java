@@ -74,9 +74,20 @@ public class AstraUtils {
 
 
   public static ASTParser createParser(String fileSource, String[] sources, String[] classPath) {
+    return createParser(fileSource, sources, classPath, true);
+  }
+
+
+  /**
+   * Creates an {@link ASTParser} for a single file. When {@code resolveBindings} is {@code false},
+   * binding resolution and binding recovery are disabled and no classpath or source environment is
+   * set up, so the file is only parsed syntactically. This is much cheaper, but every
+   * {@code resolveBinding()} call on the resulting AST returns {@code null}.
+   */
+  public static ASTParser createParser(String fileSource, String[] sources, String[] classPath, boolean resolveBindings) {
     ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
-    parser.setResolveBindings(true);
-    parser.setBindingsRecovery(true);
+    parser.setResolveBindings(resolveBindings);
+    parser.setBindingsRecovery(resolveBindings);
     parser.setStatementsRecovery(true);
     parser.setKind(ASTParser.K_COMPILATION_UNIT);
     parser.setSource(fileSource.toCharArray());
@@ -86,10 +97,12 @@ public class AstraUtils {
 
     parser.setCompilerOptions(javaCoreOptions);
 
-    final String[] encodings = new String[sources.length];
-    Arrays.fill(encodings, "UTF-8");
+    if (resolveBindings) {
+      final String[] encodings = new String[sources.length];
+      Arrays.fill(encodings, "UTF-8");
 
-    parser.setEnvironment(classPath, sources, encodings, true);
+      parser.setEnvironment(classPath, sources, encodings, true);
+    }
     return parser;
   }
 
@@ -109,22 +122,50 @@ public class AstraUtils {
    * once per file as in the single-file {@code createAST()} path.
    */
   public static ASTParser createBatchParser(String[] sources, String[] classPath) {
+    return createBatchParser(sources, classPath, true);
+  }
+
+
+  /**
+   * Creates an {@link ASTParser} configured for batch processing, as {@link #createBatchParser(String[], String[])}.
+   *
+   * <p>When {@code resolveBindings} is {@code false}, binding resolution and binding recovery are
+   * disabled, and the supplied classpath and source paths are ignored: the parser's environment
+   * is left empty, so no JARs are scanned and no lookup environment is built. The files are only
+   * parsed syntactically, and every {@code resolveBinding()} call on the resulting ASTs returns
+   * {@code null}. This suits operations which only inspect the shape of the source, see
+   * {@link ASTOperation#requiresBindings()}.
+   */
+  public static ASTParser createBatchParser(String[] sources, String[] classPath, boolean resolveBindings) {
     ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
-    parser.setResolveBindings(true);
-    parser.setBindingsRecovery(true);
+    parser.setResolveBindings(resolveBindings);
+    parser.setBindingsRecovery(resolveBindings);
     parser.setStatementsRecovery(true);
 
-    HashMap<String, String> javaCoreOptions = new HashMap<>(JavaCore.getOptions());
-    JavaCore.setComplianceOptions(JAVA_VERSION, javaCoreOptions);
-    parser.setCompilerOptions(javaCoreOptions);
+    parser.setCompilerOptions(createBatchCompilerOptions());
 
-    final String[] encodings = new String[sources.length];
-    Arrays.fill(encodings, "UTF-8");
-    parser.setEnvironment(filterClassPath(classPath), sources, encodings, true);
+    if (resolveBindings) {
+      final String[] encodings = new String[sources.length];
+      Arrays.fill(encodings, "UTF-8");
+      parser.setEnvironment(filterClassPath(classPath), sources, encodings, true);
+    } else {
+      parser.setEnvironment(new String[0], new String[0], new String[0], false);
+    }
     return parser;
   }
 
 
+  /**
+   * @return the compiler options used for batch parsing: the JDT defaults, with the compliance level of the latest
+   *         supported Java version.
+   */
+  static Map<String, String> createBatchCompilerOptions() {
+    HashMap<String, String> javaCoreOptions = new HashMap<>(JavaCore.getOptions());
+    JavaCore.setComplianceOptions(JAVA_VERSION, javaCoreOptions);
+    return javaCoreOptions;
+  }
+
+
   /**
    * Filters classpath entries to those that JDT can open as a JAR archive or source directory,
    * discarding any entry that is neither.
@@ -387,6 +428,25 @@ public class AstraUtils {
   }
 
 
+  /**
+   * @return the simple name of a type or method, as a token which must appear in source referring to it,
+   *         or empty if the simple name is not a plain Java identifier
+   */
+  public static Optional<String> getSimpleNameToken(String fullName) {
+    return Optional.ofNullable(fullName)
+        .map(AstraUtils::getSimpleName)
+        .filter(AstraUtils::isJavaIdentifier);
+  }
+
+
+  private static boolean isJavaIdentifier(String name) {
+    if (name.isEmpty() || ! Character.isJavaIdentifierStart(name.charAt(0))) {
+      return false;
+    }
+    return name.chars().allMatch(Character::isJavaIdentifierPart);
+  }
+
+
   /**
    * Find the package name of a type.
    *
@@ -0,0 +1,157 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+
+/**
+ * Decides how many files to read and parse in each chunk of a run.
+ *
+ * <p>A fixed sizer always uses the {@link UseCase#getBatchSize()} of the use case. An adaptive sizer (see
+ * {@link UseCase#isBatchSizeAdaptive()}) sizes each chunk from the heap which is free when the chunk is read, and the
+ * size on disk of the files waiting to be processed: it takes as many files as it estimates will fit in half of the
+ * free heap, as the chunk is parsed while the previous chunk is still resident.
+ *
+ * <p>The heap needed by a file is estimated as a multiple of its size on disk. That estimate is doubled whenever a
+ * chunk runs out of memory, so that later chunks are smaller. A fixed sizer halves its batch size instead.
+ *
+ * <p>Not thread safe. Chunks are only sized on the calling thread.
+ */
+final class ChunkSizer {
+
+  /**
+   * The heap needed to hold the compilation unit of a file, with its bindings, and its content, per byte of the file.
+   */
+  static final long INITIAL_HEAP_BYTES_PER_SOURCE_BYTE = 64;
+
+  /**
+   * The most files an adaptive sizer puts in one chunk, however much heap is free.
+   */
+  static final int MAX_ADAPTIVE_BATCH_SIZE = 10_000;
+
+  private final boolean adaptive;
+  private int batchSize;
+  private final LongSupplier freeHeap;
+  private long heapBytesPerSourceByte = INITIAL_HEAP_BYTES_PER_SOURCE_BYTE;
+
+
+  private ChunkSizer(boolean adaptive, int batchSize, LongSupplier freeHeap) {
+    this.adaptive = adaptive;
+    this.batchSize = Math.max(1, batchSize);
+    this.freeHeap = freeHeap;
+  }
+
+
+  /**
+   * @return a sizer for the given use case.
+   */
+  static ChunkSizer forUseCase(UseCase useCase) {
+    return useCase.isBatchSizeAdaptive()
+        ? adaptive(useCase.getBatchSize(), ChunkSizer::measureFreeHeap)
+        : new ChunkSizer(false, useCase.getBatchSize(), () -> Long.MAX_VALUE);
+  }
+
+
+  /**
+   * @param batchSize the number of files in each chunk if the sizer is not adaptive.
+   * @param freeHeap supplies the number of bytes of heap which are free when a chunk is sized.
+   * @return an adaptive sizer.
+   */
+  static ChunkSizer adaptive(int batchSize, LongSupplier freeHeap) {
+    return new ChunkSizer(true, batchSize, freeHeap);
+  }
+
+
+  /**
+   * @return whether chunks are sized from the free heap.
+   */
+  boolean isAdaptive() {
+    return adaptive;
+  }
+
+
+  /**
+   * @return the most files the next chunk can hold, which are needed to size it.
+   */
+  int getLookahead() {
+    return adaptive ? MAX_ADAPTIVE_BATCH_SIZE : batchSize;
+  }
+
+
+  /**
+   * @param paths the files waiting to be processed, at least up to {@link #getLookahead()} of them.
+   * @param start the index of the first file of the next chunk.
+   * @return the number of files in the next chunk, at least one if any files remain.
+   */
+  int nextChunkSize(List<Path> paths, int start) {
+    int remaining = paths.size() - start;
+    if (!adaptive || remaining <= 0) {
+      return Math.max(0, Math.min(batchSize, remaining));
+    }
+
+    long budget = freeHeap.getAsLong() / 2 / heapBytesPerSourceByte;
+    long chunkBytes = 0;
+    int files = 0;
+    while (files < remaining && files < MAX_ADAPTIVE_BATCH_SIZE) {
+      chunkBytes += sizeOf(paths.get(start + files));
+      if (files > 0 && chunkBytes > budget) {
+        break;
+      }
+      files++;
+    }
+    return Math.max(1, files);
+  }
+
+
+  /**
+   * Records that a chunk of {@code chunkSize} files ran out of memory, so that later chunks are smaller.
+   *
+   * @return the number of files to retry the chunk with, half of {@code chunkSize}, or {@code 0} if the chunk was a
+   *         single file, which cannot be split.
+   */
+  int outOfMemory(int chunkSize) {
+    if (adaptive) {
+      heapBytesPerSourceByte *= 2;
+    } else {
+      batchSize = Math.max(1, Math.min(batchSize, chunkSize) / 2);
+    }
+    return chunkSize / 2;
+  }
+
+
+  /**
+   * @return the current estimate of the heap needed per byte of a file.
+   */
+  long getHeapBytesPerSourceByte() {
+    return heapBytesPerSourceByte;
+  }
+
+
+  /**
+   * @return the size of the file, or {@code 0} if it cannot be read, in which case reading it will fail too.
+   */
+  private static long sizeOf(Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+
+  /**
+   * @return the maximum heap less the heap in use. The heap in use includes garbage which has not been collected yet,
+   *         so this errs towards smaller chunks.
+   */
+  private static long measureFreeHeap() {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    long max = heap.getMax() > 0 ? heap.getMax() : Runtime.getRuntime().maxMemory();
+    return Math.max(0, max - heap.getUsed());
+  }
+}
@@ -2,7 +2,11 @@ package org.alfasoftware.astra.core.utils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -409,6 +413,30 @@ public class ClassVisitor extends ASTVisitor {
    * Note that if the node type is not explicitly handled by this visitor, they won't be returned.
    */
   public Set<ASTNode> getVisitedNodes() {
+    return getVisitedNodeLists()
+    .flatMap(Collection::stream)
+    .collect(Collectors.toSet());
+  }
+
+
+  /**
+   * @return All the nodes visited and collected by this visitor, grouped by their concrete node class.
+   *
+   * Each node appears exactly once, in the bucket for its own runtime class.
+   * Note that if the node type is not explicitly handled by this visitor, they won't be returned.
+   */
+  public Map<Class<? extends ASTNode>, List<ASTNode>> getVisitedNodesByType() {
+    Map<Class<? extends ASTNode>, List<ASTNode>> nodesByType = new LinkedHashMap<>();
+    Set<ASTNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    getVisitedNodeLists()
+    .flatMap(Collection::stream)
+    .filter(seen::add)
+    .forEach(node -> nodesByType.computeIfAbsent(node.getClass(), k -> new ArrayList<>()).add(node));
+    return nodesByType;
+  }
+
+
+  private Stream<List<? extends ASTNode>> getVisitedNodeLists() {
     return Stream.of(
       getAbstractTypeDeclarations(),
       getMethodInvocations(),
@@ -434,8 +462,6 @@ public class ClassVisitor extends ASTVisitor {
       getFieldAccesses(),
       getCastExpressions(),
       getInfixExpressions(),
-      getPatternInstanceofExpressions())
-    .flatMap(Collection::stream)
-    .collect(Collectors.toSet());
+      getPatternInstanceofExpressions());
   }
-}
\ No newline at end of file
+}
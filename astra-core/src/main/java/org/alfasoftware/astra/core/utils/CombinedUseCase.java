@@ -0,0 +1,242 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+
+/**
+ * Several use cases run together, so that the target directory is walked, read and parsed once for all of them,
+ * rather than once for each.
+ *
+ * <p>As a use case, this selects every file which any of the use cases would: a directory is walked, and a file is
+ * read and parsed, if it passes the prefilters of at least one of them. The sources and classpaths of all the use
+ * cases are used to parse it. Its operations are those of every use case, but they are not applied together: each
+ * use case's operations are applied in turn, in the order given, and only to the files which pass that use case's
+ * own prefilters (see {@link #getUseCases()}).
+ *
+ * <p>The settings which shape the run as a whole are merged so that it suits every use case: the highest
+ * parallelism, the smallest batch size, adaptive batch sizes if any use case asks for them, bindings if any use
+ * case requires them, the most rounds, and the shortest file timeout and time budget. The run cache file, journal
+ * file and shard are those of the first use case which has one, and the run cache and journal are invalidated by a
+ * change to any of the use cases. The run cache is only used if every use case gives a run cache identity.
+ *
+ * <p>The use cases are run in the calling JVM: a use case which asks for worker JVMs (see
+ * {@link UseCase#getWorkerProcesses()}) cannot be combined with others, as each worker creates its use case again on
+ * its own, and is rejected.
+ */
+final class CombinedUseCase implements UseCase {
+
+  private final Path root;
+  private final List<UseCase> useCases;
+
+
+  /**
+   * @param root the directory the use cases run over.
+   * @param useCases the use cases, in the order their operations are applied.
+   */
+  CombinedUseCase(Path root, List<? extends UseCase> useCases) {
+    if (useCases.isEmpty()) {
+      throw new IllegalArgumentException("At least one use case is required");
+    }
+    for (UseCase useCase : useCases) {
+      if (useCase.getWorkerProcesses() > 0) {
+        throw new IllegalArgumentException("Use case [" + useCase.getClass().getName() + "] asks for ["
+            + useCase.getWorkerProcesses() + "] worker processes, which are only used when it is run on its own");
+      }
+    }
+    this.root = root;
+    this.useCases = Collections.unmodifiableList(new ArrayList<>(useCases));
+  }
+
+
+  /**
+   * @return the use cases, in the order their operations are applied.
+   */
+  List<UseCase> getUseCases() {
+    return useCases;
+  }
+
+
+  /**
+   * @return the directory the use cases run over.
+   */
+  Path getRoot() {
+    return root;
+  }
+
+
+  @Override
+  public Predicate<String> getPrefilteringPredicate() {
+    List<Predicate<String>> predicates = useCases.stream().map(UseCase::getPrefilteringPredicate).collect(Collectors.toList());
+    return path -> predicates.stream().anyMatch(predicate -> predicate.test(path));
+  }
+
+
+  /**
+   * A directory is walked unless every use case excludes it, whether by its directory predicate or its globs.
+   */
+  @Override
+  public Predicate<String> getDirectoryPrefilteringPredicate() {
+    List<Predicate<Path>> excluded = useCases.stream()
+        .map(useCase -> FileScanner.excludedDirectories(root, useCase))
+        .collect(Collectors.toList());
+    return dir -> {
+      Path path = root.getFileSystem().getPath(dir);
+      return excluded.stream().anyMatch(predicate -> !predicate.test(path));
+    };
+  }
+
+
+  /**
+   * @return no globs, as each use case's globs are applied by {@link #getDirectoryPrefilteringPredicate()}.
+   */
+  @Override
+  public Set<String> getExcludedDirectoryGlobs() {
+    return new LinkedHashSet<>();
+  }
+
+
+  @Override
+  public Predicate<String> getContentPrefilteringPredicate() {
+    List<Predicate<String>> predicates = useCases.stream().map(UseCase::getContentPrefilteringPredicate).collect(Collectors.toList());
+    return content -> predicates.stream().anyMatch(predicate -> predicate.test(content));
+  }
+
+
+  @Override
+  public Set<? extends ASTOperation> getOperations() {
+    Set<ASTOperation> operations = new LinkedHashSet<>();
+    useCases.forEach(useCase -> operations.addAll(useCase.getOperations()));
+    return operations;
+  }
+
+
+  @Override
+  public String[] getClassPath() {
+    return useCases.stream()
+        .flatMap(useCase -> Arrays.stream(useCase.getClassPath()))
+        .distinct()
+        .toArray(String[]::new);
+  }
+
+
+  @Override
+  public String[] getSources() {
+    return useCases.stream()
+        .flatMap(useCase -> Arrays.stream(useCase.getSources()))
+        .distinct()
+        .toArray(String[]::new);
+  }
+
+
+  @Override
+  public int getParallelism() {
+    return useCases.stream().mapToInt(UseCase::getParallelism).max().getAsInt();
+  }
+
+
+  @Override
+  public int getBatchSize() {
+    return useCases.stream().mapToInt(UseCase::getBatchSize).min().getAsInt();
+  }
+
+
+  @Override
+  public boolean isBatchSizeAdaptive() {
+    return useCases.stream().anyMatch(UseCase::isBatchSizeAdaptive);
+  }
+
+
+  @Override
+  public int getParseParallelism() {
+    return useCases.stream().mapToInt(UseCase::getParseParallelism).max().getAsInt();
+  }
+
+
+  @Override
+  public boolean requiresBindings() {
+    return useCases.stream().anyMatch(UseCase::requiresBindings);
+  }
+
+
+  @Override
+  public int getMaximumRounds() {
+    return useCases.stream().mapToInt(UseCase::getMaximumRounds).max().getAsInt();
+  }
+
+
+  @Override
+  public Optional<Shard> getShard() {
+    return useCases.stream()
+        .map(UseCase::getShard)
+        .flatMap(Optional::stream)
+        .findFirst();
+  }
+
+
+  @Override
+  public Optional<Path> getRunCacheFile() {
+    return useCases.stream()
+        .map(UseCase::getRunCacheFile)
+        .flatMap(Optional::stream)
+        .findFirst();
+  }
+
+
+  /**
+   * @return the identities of every use case, or empty if any use case has none.
+   */
+  @Override
+  public Optional<String> getRunCacheIdentity() {
+    List<Optional<String>> identities = useCases.stream().map(UseCase::getRunCacheIdentity).collect(Collectors.toList());
+    if (identities.stream().anyMatch(Optional::isEmpty)) {
+      return Optional.empty();
+    }
+    return Optional.of(identities.stream().map(Optional::get).collect(Collectors.joining(",")));
+  }
+
+
+  /**
+   * @return the shortest file timeout of the use cases, ignoring those which set none.
+   */
+  @Override
+  public Optional<Duration> getFileTimeout() {
+    return useCases.stream()
+        .map(UseCase::getFileTimeout)
+        .flatMap(Optional::stream)
+        .filter(timeout -> !timeout.isNegative() && !timeout.isZero())
+        .min(Comparator.naturalOrder());
+  }
+
+
+  @Override
+  public Optional<Path> getJournalFile() {
+    return useCases.stream()
+        .map(UseCase::getJournalFile)
+        .flatMap(Optional::stream)
+        .findFirst();
+  }
+
+
+  /**
+   * @return the smallest time budget of the use cases, ignoring those which set none.
+   */
+  @Override
+  public Optional<Duration> getTimeBudget() {
+    return useCases.stream()
+        .map(UseCase::getTimeBudget)
+        .flatMap(Optional::stream)
+        .min(Comparator.naturalOrder());
+  }
+}
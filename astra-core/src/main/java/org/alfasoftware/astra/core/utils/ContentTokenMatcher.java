@@ -0,0 +1,168 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks whether file content contains any of a set of tokens, scanning the content once
+ * regardless of how many tokens there are.
+ *
+ * <p>The tokens are compiled into an Aho–Corasick automaton over their UTF-8 encoded bytes,
+ * expanded into a full transition table so that each byte of the content costs a single table
+ * lookup. Bytes which do not occur in any token share one column of the table, so the table stays
+ * small. Matching raw UTF-8 bytes lets files be rejected before they are decoded; as no encoded
+ * character is a substring of another, this finds exactly the tokens that the decoded text contains.
+ *
+ * <p>Instances are immutable, and can be shared between threads.
+ */
+final class ContentTokenMatcher {
+
+  /**
+   * Files which spell an identifier with a unicode escape must not be filtered out, as the
+   * escaped identifier will not contain the token as written.
+   */
+  private static final String UNICODE_ESCAPE = "\\u";
+
+  private final int[] byteClasses = new int[256];
+  private final int[][] transitions;
+  private final boolean[] accepting;
+  private final int numberOfTokens;
+
+
+  private ContentTokenMatcher(Collection<String> tokens) {
+    numberOfTokens = tokens.size();
+    List<byte[]> encodedTokens = tokens.stream()
+        .map(token -> token.getBytes(StandardCharsets.UTF_8))
+        .collect(Collectors.toList());
+    int numberOfClasses = 1;
+    for (byte[] token : encodedTokens) {
+      for (byte b : token) {
+        if (byteClasses[b & 0xFF] == 0) {
+          byteClasses[b & 0xFF] = numberOfClasses++;
+        }
+      }
+    }
+
+    // Build the trie. Class 0 stands for every byte not in any token, so it never has a child.
+    List<int[]> trie = new ArrayList<>();
+    List<Boolean> trieAccepting = new ArrayList<>();
+    trie.add(new int[numberOfClasses]);
+    trieAccepting.add(false);
+    for (byte[] token : encodedTokens) {
+      int state = 0;
+      for (byte b : token) {
+        int byteClass = byteClasses[b & 0xFF];
+        if (trie.get(state)[byteClass] == 0) {
+          trie.get(state)[byteClass] = trie.size();
+          trie.add(new int[numberOfClasses]);
+          trieAccepting.add(false);
+        }
+        state = trie.get(state)[byteClass];
+      }
+      trieAccepting.set(state, true);
+    }
+
+    // Breadth first, turn the trie into a complete transition table by following failure links.
+    transitions = trie.toArray(new int[0][]);
+    accepting = new boolean[transitions.length];
+    int[] failure = new int[transitions.length];
+    Queue<Integer> queue = new ArrayDeque<>();
+    for (int byteClass = 0; byteClass < numberOfClasses; byteClass++) {
+      int child = transitions[0][byteClass];
+      if (child != 0) {
+        queue.add(child);
+      }
+    }
+    for (int state = 0; state < transitions.length; state++) {
+      accepting[state] = trieAccepting.get(state);
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.remove();
+      accepting[state] |= accepting[failure[state]];
+      for (int byteClass = 0; byteClass < numberOfClasses; byteClass++) {
+        int child = transitions[state][byteClass];
+        if (child != 0) {
+          failure[child] = transitions[failure[state]][byteClass];
+          queue.add(child);
+        } else {
+          transitions[state][byteClass] = transitions[failure[state]][byteClass];
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Builds a matcher from the tokens required by a set of operations, see
+   * {@link ASTOperation#getRequiredContentTokens()}.
+   *
+   * @return the matcher, or empty if any operation cannot narrow down the files it applies to,
+   *         in which case every file must be processed
+   */
+  static Optional<ContentTokenMatcher> forOperations(Collection<? extends ASTOperation> operations) {
+    if (operations.isEmpty()) {
+      return Optional.empty();
+    }
+    Set<String> tokens = new LinkedHashSet<>();
+    for (ASTOperation operation : operations) {
+      Optional<Set<String>> operationTokens = operation.getRequiredContentTokens();
+      if (operationTokens.isEmpty() || operationTokens.get().isEmpty() || operationTokens.get().contains("")) {
+        return Optional.empty();
+      }
+      tokens.addAll(operationTokens.get());
+    }
+    tokens.add(UNICODE_ESCAPE);
+    return Optional.of(of(tokens));
+  }
+
+
+  /**
+   * @param tokens the tokens to look for, none of which may be empty
+   */
+  static ContentTokenMatcher of(Collection<String> tokens) {
+    return new ContentTokenMatcher(tokens);
+  }
+
+
+  /**
+   * @return true if {@code content} contains at least one of the tokens
+   */
+  boolean containsAny(String content) {
+    return containsAny(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+  }
+
+
+  /**
+   * Scans the remaining bytes of UTF-8 encoded {@code content}, without changing its position.
+   *
+   * @return true if {@code content} contains at least one of the tokens
+   */
+  boolean containsAny(ByteBuffer content) {
+    int state = 0;
+    for (int i = content.position(), limit = content.limit(); i < limit; i++) {
+      state = transitions[state][byteClasses[content.get(i) & 0xFF]];
+      if (accepting[state]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * @return the number of distinct tokens looked for
+   */
+  int getNumberOfTokens() {
+    return numberOfTokens;
+  }
+
+}
@@ -0,0 +1,155 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the time spent processing each file of a run, see {@link UseCase#getFileTimeout()}.
+ *
+ * <p>The time of a file starts when a thread starts processing it, not when it is submitted. Once the time is up,
+ * the future of the file is cancelled, so that waiting for the chunk carries on at once, and the thread processing
+ * it is interrupted. The operations stop at the next node they are given, see {@link #checkNotCancelled()}, and a
+ * cancelled file is not written. A file is replaced whole, see {@link AstraCore#replaceFile(Path, String)}, so one
+ * cancelled while it is being written keeps its old content. A thread stuck in a single call which ignores
+ * interruption is lost to the run until that call returns, but no longer holds up the chunk.
+ *
+ * <p>Files which run out of time are skipped, rather than failed, and are kept for the run summary.
+ */
+final class FileDeadline implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(FileDeadline.class);
+
+  private final Optional<Duration> timeout;
+  private final ScheduledExecutorService watchdog;
+
+  // Guarded by this
+  private final List<Path> timedOut = new ArrayList<>();
+
+
+  private FileDeadline(Optional<Duration> timeout) {
+    this.timeout = timeout;
+    this.watchdog = timeout.isPresent() ? Executors.newSingleThreadScheduledExecutor(daemonThreads("astra-file-deadline")) : null;
+  }
+
+
+  static FileDeadline forUseCase(UseCase useCase) {
+    return new FileDeadline(useCase.getFileTimeout().filter(timeout -> !timeout.isNegative() && !timeout.isZero()));
+  }
+
+
+  /**
+   * @return the time allowed for each file, if limited
+   */
+  Optional<Duration> getTimeout() {
+    return timeout;
+  }
+
+
+  /**
+   * Submits the processing of a file to the executor, to be cancelled if it runs out of time. The future of a file
+   * which runs out of time throws {@link CancellationException}.
+   */
+  Future<?> submit(ExecutorService executor, Path path, Runnable task) {
+    if (watchdog == null) {
+      return executor.submit(task);
+    }
+    DeadlineTask deadlineTask = new DeadlineTask(path, task);
+    executor.execute(deadlineTask);
+    return deadlineTask;
+  }
+
+
+  /**
+   * @return the files which have run out of time since this was last called
+   */
+  synchronized List<Path> takeTimedOut() {
+    List<Path> taken = new ArrayList<>(timedOut);
+    timedOut.clear();
+    return taken;
+  }
+
+
+  /**
+   * Creates daemon threads, so that a thread stuck on a file which ran out of time does not keep the JVM alive.
+   */
+  static ThreadFactory daemonThreads(String name) {
+    AtomicInteger threads = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+
+  /**
+   * Stops processing a file once its thread is interrupted, as it is when the file runs out of time.
+   *
+   * @throws CancellationException if the current thread has been interrupted
+   */
+  static void checkNotCancelled() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("Processing of the file was cancelled");
+    }
+  }
+
+
+  @Override
+  public void close() {
+    if (watchdog != null) {
+      watchdog.shutdownNow();
+    }
+  }
+
+
+  /**
+   * The processing of one file, which cancels itself once it has run for longer than the timeout.
+   */
+  private final class DeadlineTask extends FutureTask<Void> {
+    private final Path path;
+
+    private DeadlineTask(Path path, Runnable task) {
+      super(task, null);
+      this.path = path;
+    }
+
+    @Override
+    public void run() {
+      ScheduledFuture<?> expiry = watchdog.schedule(this::expire, timeout.get().toNanos(), TimeUnit.NANOSECONDS);
+      try {
+        super.run();
+      } finally {
+        expiry.cancel(false);
+        // Do not leave the interrupt of a cancelled file for the next file processed on this thread
+        Thread.interrupted();
+      }
+    }
+
+    private void expire() {
+      // Recorded while cancelling, so that a thread which sees the cancellation also sees the file as timed out
+      synchronized (FileDeadline.this) {
+        if (cancel(true)) {
+          timedOut.add(path);
+          log.warn("Processing file [" + path + "] took longer than [" + timeout.get() + "]; skipping it");
+        }
+      }
+    }
+  }
+}
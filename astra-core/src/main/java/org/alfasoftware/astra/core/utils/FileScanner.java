@@ -0,0 +1,271 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.alfasoftware.astra.core.utils.RunStatistics.Phase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the files of a run by walking the target directory on a background thread, so that the first chunks can be
+ * read and parsed while the rest of the directory is still being walked.
+ *
+ * <p>A file is found if it is a {@code .java} file which passes the {@link UseCase#getPrefilteringPredicate()}.
+ * Directories which fail the {@link UseCase#getDirectoryPrefilteringPredicate()}, or which match one of the
+ * {@link UseCase#getExcludedDirectoryGlobs()}, are not walked at all, so build output and version control
+ * directories cost a single check rather than a visit to every file beneath them. The target directory itself is
+ * always walked.
+ *
+ * <p>If the use case is run over a {@link Shard} (see {@link UseCase#getShard()}), only the files of that shard are
+ * found. Files sharded by path hash are found as the directory is walked, but files balanced by size are only found
+ * once the whole directory has been walked, as the shard of each file depends on every other file.
+ *
+ * <p>Files are found in the order the directory is walked, which does not change while it is walked, and are
+ * retrieved by their index in that order with {@link #awaitFiles(int, int)}. A known set of files, such as those
+ * changed by a round of a run, can be processed in the same way with {@link #of(List)}.
+ */
+final class FileScanner implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(FileScanner.class);
+
+  private final Path root;
+  private final Predicate<String> filePredicate;
+  private final Predicate<Path> excludedDirectory;
+  private final Optional<Shard> shard;
+  private final RunStatistics statistics;
+  private final Thread thread;
+
+  // Guarded by this
+  private final List<Path> files = new ArrayList<>();
+  private boolean complete;
+  private IOException failure;
+
+  private volatile boolean closed;
+
+
+  private FileScanner(Path root, Predicate<String> filePredicate, Predicate<Path> excludedDirectory, Optional<Shard> shard,
+      RunStatistics statistics) {
+    this.root = root;
+    this.filePredicate = filePredicate;
+    this.excludedDirectory = excludedDirectory;
+    this.shard = shard;
+    this.statistics = statistics;
+    this.thread = new Thread(this::scan, "astra-file-scanner");
+    this.thread.setDaemon(true);
+  }
+
+
+  private FileScanner(List<Path> files) {
+    this.root = null;
+    this.filePredicate = null;
+    this.excludedDirectory = null;
+    this.shard = Optional.empty();
+    this.statistics = null;
+    this.thread = null;
+    this.files.addAll(files);
+    this.complete = true;
+  }
+
+
+  /**
+   * @return a scanner which has already found the given files, and no others.
+   */
+  static FileScanner of(List<Path> files) {
+    return new FileScanner(files);
+  }
+
+
+  /**
+   * Starts walking {@code root} for the files of the given use case.
+   */
+  static FileScanner start(Path root, UseCase useCase, RunStatistics statistics) {
+    FileScanner scanner = new FileScanner(root, useCase.getPrefilteringPredicate(), excludedDirectories(root, useCase),
+        useCase.getShard(), statistics);
+    scanner.thread.start();
+    return scanner;
+  }
+
+
+  /**
+   * @return a predicate which is true for the directories under {@code root} which the use case excludes from the run,
+   *         see {@link UseCase#getDirectoryPrefilteringPredicate()} and {@link UseCase#getExcludedDirectoryGlobs()}.
+   */
+  static Predicate<Path> excludedDirectories(Path root, UseCase useCase) {
+    Predicate<String> directoryPredicate = useCase.getDirectoryPrefilteringPredicate();
+    FileSystem fileSystem = root.getFileSystem();
+    List<PathMatcher> excludedDirectoryGlobs = useCase.getExcludedDirectoryGlobs().stream()
+        .map(glob -> fileSystem.getPathMatcher("glob:" + glob))
+        .collect(Collectors.toList());
+    return dir -> {
+      if (!directoryPredicate.test(dir.toString())) {
+        return true;
+      }
+      Path relativePath = root.relativize(dir);
+      Path name = dir.getFileName();
+      return excludedDirectoryGlobs.stream().anyMatch(matcher -> matcher.matches(relativePath) || name != null && matcher.matches(name));
+    };
+  }
+
+
+  /**
+   * @return a predicate which is true for the files under {@code root} which would be found for the use case: those
+   *         which pass its path prefilter, and are not in a directory it excludes.
+   */
+  static Predicate<Path> includedFiles(Path root, UseCase useCase) {
+    Predicate<String> filePredicate = useCase.getPrefilteringPredicate();
+    Predicate<Path> excludedDirectory = excludedDirectories(root, useCase);
+    return file -> {
+      if (!filePredicate.test(file.toString())) {
+        return false;
+      }
+      for (Path dir = file.getParent(); dir != null && !dir.equals(root) && dir.startsWith(root); dir = dir.getParent()) {
+        if (excludedDirectory.test(dir)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+
+  private void scan() {
+    log.info("Scanning for files (this may take a few seconds)" + shard.map(s -> " for " + s).orElse(""));
+    boolean balancedBySize = shard.isPresent() && shard.get().getStrategy() == Shard.Strategy.BALANCED_SIZE;
+    List<Path> candidates = new ArrayList<>();
+    Map<Path, Long> candidateSizes = new HashMap<>();
+    try (RunStatistics.PhaseTiming timing = statistics.time(Phase.SCAN)) {
+      Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+          if (closed) {
+            return FileVisitResult.TERMINATE;
+          }
+          if (!dir.equals(root) && excludedDirectory.test(dir)) {
+            log.debug("Skipping excluded directory [" + dir + "]");
+            return FileVisitResult.SKIP_SUBTREE;
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          // Links are not followed when walking, but a link to a file is still a file to process
+          boolean isFile = attrs.isRegularFile() || attrs.isSymbolicLink() && Files.isRegularFile(file);
+          if (isFile && file.getFileName().toString().endsWith("java") && filePredicate.test(file.toString())) {
+            if (balancedBySize) {
+              candidates.add(file);
+              candidateSizes.put(root.relativize(file), attrs.isSymbolicLink() ? Files.size(file) : attrs.size());
+            } else if (shard.isEmpty() || shard.get().containsByPathHash(root.relativize(file))) {
+              found(file);
+            }
+          }
+          return closed ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+        }
+      });
+      if (balancedBySize && !closed) {
+        Set<Path> selected = shard.get().selectByBalancedSize(candidateSizes);
+        candidates.stream().filter(file -> selected.contains(root.relativize(file))).forEach(this::found);
+        log.info("[" + selected.size() + "] of [" + candidates.size() + "] files are in " + shard.get());
+      }
+    } catch (IOException e) {
+      synchronized (this) {
+        failure = e;
+      }
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        failure = new IOException("Failed to scan directory [" + root + "]: " + e.getMessage(), e);
+      }
+    } finally {
+      int filesFound;
+      synchronized (this) {
+        filesFound = files.size();
+        // Counted before the scan is complete, so that anyone waiting on it sees the count
+        statistics.addFilesScanned(filesFound);
+        complete = true;
+        notifyAll();
+      }
+      log.info(filesFound + " files to process after path based prefiltering");
+    }
+  }
+
+
+  private synchronized void found(Path file) {
+    files.add(file);
+    notifyAll();
+  }
+
+
+  /**
+   * Waits until at least {@code count} files have been found after the first {@code start}, or the scan is complete.
+   *
+   * @param start the index of the first file to return, in the order found.
+   * @param count the most files to return.
+   * @return the files from index {@code start}, up to {@code count} of them; fewer only once the scan is complete, and
+   *         none if every file has already been retrieved.
+   * @throws IOException if the directory could not be walked, or the wait was interrupted.
+   */
+  synchronized List<Path> awaitFiles(int start, int count) throws IOException {
+    while (!complete && files.size() - start < count) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("File scan was interrupted", e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    int end = Math.min(files.size(), start + count);
+    return start < end ? new ArrayList<>(files.subList(start, end)) : new ArrayList<>();
+  }
+
+
+  /**
+   * @return whether every file has been found.
+   */
+  synchronized boolean isComplete() {
+    return complete;
+  }
+
+
+  /**
+   * @return the number of files found so far.
+   */
+  synchronized int getFilesFound() {
+    return files.size();
+  }
+
+
+  /**
+   * Stops the scan, if it is still running, and waits for it to stop.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    if (thread == null) {
+      return;
+    }
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.analysis.AnalysisResultsFile;
+import org.alfasoftware.astra.core.analysis.AnalysisUseCase;
+import org.alfasoftware.astra.core.refactoring.UseCase;
+
+/**
+ * The main class of a worker JVM, started by a {@link ForkedWorkerPool} to process chunks of files in a heap of its
+ * own.
+ *
+ * <p>The worker is given the name of the use case's class. It reads the path of a chunk file from its standard input,
+ * holding the paths of the files to process one per line, and creates the use case afresh to process them. It then
+ * writes the statistics of the chunk, and the failure of any file, to the {@link #resultFile(Path) result file} of the
+ * chunk, along with the {@link #analysisResultsFile(Path) results} of an {@link AnalysisUseCase}, and prints
+ * {@link #CHUNK_DONE} on a line of its own. It exits when its standard input is closed.
+ *
+ * <p>While it processes a chunk, the worker appends the path of each file to the {@link #writtenFile(Path) written
+ * file} of the chunk as soon as the file has been written, so that if the worker exits before the chunk is done, the
+ * files it had already changed are not processed, and changed, again.
+ */
+final class ForkedWorker {
+
+  /** Printed by a worker once it has written the result file of a chunk. */
+  static final String CHUNK_DONE = "astra-worker-chunk-done";
+
+  /** The prefix of the keys of the result file which hold the failure of a file. */
+  static final String FAILURE = "failure.";
+
+
+  private ForkedWorker() {
+  }
+
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      throw new IllegalArgumentException("Usage: " + ForkedWorker.class.getName() + " <use case class>");
+    }
+    BufferedReader requests = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    String chunkFile;
+    while ((chunkFile = requests.readLine()) != null) {
+      processChunk(args[0], Paths.get(chunkFile));
+      System.out.println(CHUNK_DONE);
+      System.out.flush();
+    }
+  }
+
+
+  /**
+   * @return the file holding the statistics and failures of the chunk listed in {@code chunkFile}
+   */
+  static Path resultFile(Path chunkFile) {
+    return chunkFile.resolveSibling(chunkFile.getFileName() + ".result");
+  }
+
+
+  /**
+   * @return the file listing the files written while processing the chunk listed in {@code chunkFile}, one per line
+   */
+  static Path writtenFile(Path chunkFile) {
+    return chunkFile.resolveSibling(chunkFile.getFileName() + ".written");
+  }
+
+
+  /**
+   * @return the file holding the analysis results of the chunk listed in {@code chunkFile}, see {@link AnalysisResultsFile}
+   */
+  static Path analysisResultsFile(Path chunkFile) {
+    return chunkFile.resolveSibling(chunkFile.getFileName() + ".analysis");
+  }
+
+
+  /**
+   * Creates a use case by the name of its class, which must have a public no-argument constructor.
+   */
+  static UseCase newUseCase(String className) {
+    try {
+      return (UseCase) Class.forName(className).getConstructor().newInstance();
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      throw new IllegalArgumentException("Failed to create use case [" + className + "]: " + e.getMessage(), e);
+    }
+  }
+
+
+  private static void processChunk(String useCaseClassName, Path chunkFile) throws IOException {
+    // A new instance for each chunk, so that an analysis only holds the results of this chunk
+    UseCase useCase = newUseCase(useCaseClassName);
+    List<Path> files = Files.readAllLines(chunkFile, StandardCharsets.UTF_8).stream()
+        .map(Paths::get)
+        .collect(Collectors.toList());
+    RunStatistics statistics = new RunStatistics();
+    Properties result = new Properties();
+    try (BufferedWriter written = Files.newBufferedWriter(writtenFile(chunkFile), StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      new AstraCore(path -> recordWritten(written, path)).runOperations(FileScanner.of(files), useCase, useCase.getSources(),
+          AstraUtils.filterClassPath(useCase.getClassPath()), statistics, true);
+    } catch (IOException e) {
+      Throwable[] failures = e.getSuppressed().length > 0 ? e.getSuppressed() : new Throwable[] { e };
+      for (int i = 0; i < failures.length; i++) {
+        result.setProperty(FAILURE + i, String.valueOf(failures[i]));
+      }
+    }
+    statistics.writeTo(result);
+    if (useCase instanceof AnalysisUseCase) {
+      AnalysisResultsFile.write((AnalysisUseCase) useCase, analysisResultsFile(chunkFile));
+    }
+    try (OutputStream out = Files.newOutputStream(resultFile(chunkFile))) {
+      result.store(out, null);
+    }
+  }
+
+
+  /**
+   * Appends a written file to the written file of the chunk, flushed at once, so that it is there if the worker exits.
+   */
+  private static void recordWritten(BufferedWriter written, Path path) {
+    synchronized (written) {
+      try {
+        written.write(path.toString());
+        written.newLine();
+        written.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to record written file [" + path + "]: " + e.getMessage(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,347 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.alfasoftware.astra.core.analysis.AnalysisResultsFile;
+import org.alfasoftware.astra.core.analysis.AnalysisUseCase;
+import org.alfasoftware.astra.core.analysis.operations.MergeableAnalysisOperation;
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a {@link UseCase} in a pool of worker JVMs, see {@link UseCase#getWorkerProcesses()}.
+ *
+ * <p>The directory is walked in this JVM, and the files are sent in chunks of {@link UseCase#getBatchSize()} to the
+ * workers, each a {@link ForkedWorker} with its own heap. Workers are started as they are first needed, and then
+ * process chunk after chunk, so the cost of starting a JVM is paid once per worker rather than once per chunk.
+ *
+ * <p>A worker which exits while processing a chunk, for example because it ran out of heap or was killed, loses only
+ * that chunk. The files of the chunk which the worker had already written are left as they are, so that an operation
+ * is not applied to them twice, and the rest of the chunk is split in two, and each half sent to a fresh worker, until
+ * a file which still stops its worker is reported as failed on its own. The statistics and failures of every chunk, and the results of an
+ * {@link AnalysisUseCase}, are gathered back into this JVM.
+ */
+final class ForkedWorkerPool {
+
+  private static final Logger log = LoggerFactory.getLogger(ForkedWorkerPool.class);
+
+  private final Path root;
+  private final UseCase useCase;
+  private final int workers;
+  private final int batchSize;
+  private final List<String> command = new ArrayList<>();
+  private final AtomicInteger chunkFiles = new AtomicInteger();
+  private final AtomicLong filesProcessed = new AtomicLong();
+
+  // Idle workers, or empty where a worker is yet to be started
+  private final BlockingQueue<Optional<WorkerProcess>> idleWorkers;
+
+
+  ForkedWorkerPool(Path root, UseCase useCase) {
+    Class<?> useCaseClass = useCase.getClass();
+    boolean instantiable = Modifier.isPublic(useCaseClass.getModifiers())
+        && (!useCaseClass.isMemberClass() || Modifier.isStatic(useCaseClass.getModifiers()))
+        && Stream.of(useCaseClass.getConstructors()).anyMatch(constructor -> constructor.getParameterCount() == 0);
+    if (!instantiable) {
+      throw new IllegalArgumentException("Use case [" + useCaseClass.getName()
+          + "] must be a public class with a public no-argument constructor to run in worker processes");
+    }
+    if (useCase instanceof AnalysisUseCase) {
+      ((AnalysisUseCase) useCase).getOperations().stream()
+          .filter(operation -> !(operation instanceof MergeableAnalysisOperation))
+          .findFirst()
+          .ifPresent(operation -> {
+            throw new IllegalArgumentException("Operation [" + operation.getClass().getName()
+                + "] cannot merge its results, so cannot run in worker processes");
+          });
+    }
+    this.root = root;
+    this.useCase = useCase;
+    this.workers = useCase.getWorkerProcesses();
+    this.batchSize = Math.max(1, useCase.getBatchSize());
+    this.idleWorkers = new ArrayBlockingQueue<>(workers);
+    for (int i = 0; i < workers; i++) {
+      idleWorkers.add(Optional.empty());
+    }
+
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    useCase.getWorkerMaxHeap().ifPresent(heap -> command.add("-Xmx" + heap));
+    // A worker which runs out of heap exits at once, rather than carrying on in an unknown state
+    command.add("-XX:+ExitOnOutOfMemoryError");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(ForkedWorker.class.getName());
+    command.add(useCaseClass.getName());
+  }
+
+
+  /**
+   * Processes every file of the directory in the workers, and stops them.
+   *
+   * @return the statistics of the run, gathered from every worker
+   * @throws IOException if the directory cannot be walked, or any file failed, with the failure of each file
+   *           suppressed
+   */
+  RunStatistics run() throws IOException {
+    log.info("Starting Astra run for directory [" + root + "] in [" + workers + "] worker process(es)"
+        + useCase.getWorkerMaxHeap().map(heap -> " with a maximum heap of [" + heap + "] each").orElse(""));
+    if (useCase.getRunCacheFile().isPresent() || useCase.getJournalFile().isPresent()) {
+      log.warn("The run cache and run journal are not used by worker processes; every file will be processed");
+    }
+    if (useCase.getTimeBudget().isPresent()) {
+      log.warn("The time budget is not used by worker processes; every file will be processed");
+    }
+    Instant startTime = Instant.now();
+    RunStatistics statistics = new RunStatistics();
+    List<Throwable> fileErrors = Collections.synchronizedList(new ArrayList<>());
+    Path workDirectory = Files.createTempDirectory("astra-workers");
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    CompletionService<List<List<Path>>> completionService = new ExecutorCompletionService<>(executor);
+    try {
+      // Chunks are sent to the workers as soon as they are found, while the rest of the directory is walked
+      int outstanding = 0;
+      FileScanner scanner = FileScanner.start(root, useCase, statistics);
+      try {
+        for (int start = 0; ; start += batchSize) {
+          List<Path> chunk = scanner.awaitFiles(start, batchSize);
+          if (chunk.isEmpty()) {
+            break;
+          }
+          submit(completionService, chunk, workDirectory, scanner, statistics, fileErrors);
+          outstanding++;
+        }
+      } finally {
+        scanner.close();
+      }
+      // A chunk whose worker exited is split, and its halves sent again
+      for (; outstanding > 0; outstanding--) {
+        for (List<Path> retry : completionService.take().get()) {
+          submit(completionService, retry, workDirectory, scanner, statistics, fileErrors);
+          outstanding++;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for worker processes", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to run worker processes: " + e.getCause().getMessage(), e.getCause());
+    } finally {
+      executor.shutdownNow();
+      stopWorkers();
+      try (Stream<Path> files = Files.walk(workDirectory)) {
+        files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+      }
+    }
+
+    statistics.recordRunDuration(Duration.between(startTime, Instant.now()));
+    log.info(statistics.toString());
+    if (!fileErrors.isEmpty()) {
+      IOException summary = new IOException(
+          fileErrors.size() + " file(s) failed during processing; see suppressed exceptions for details");
+      fileErrors.forEach(summary::addSuppressed);
+      throw summary;
+    }
+    return statistics;
+  }
+
+
+  private void submit(CompletionService<List<List<Path>>> completionService, List<Path> chunk, Path workDirectory,
+      FileScanner scanner, RunStatistics statistics, List<Throwable> fileErrors) {
+    completionService.submit(() -> processChunk(chunk, workDirectory, scanner, statistics, fileErrors));
+  }
+
+
+  /**
+   * Processes a chunk in an idle worker.
+   *
+   * @return the halves of the chunk to retry if the worker exited while processing it, or nothing
+   */
+  private List<List<Path>> processChunk(List<Path> chunk, Path workDirectory, FileScanner scanner,
+      RunStatistics statistics, List<Throwable> fileErrors) throws IOException, InterruptedException {
+    Optional<WorkerProcess> idleWorker = idleWorkers.take();
+    WorkerProcess worker = null;
+    try {
+      worker = idleWorker.isPresent() ? idleWorker.get() : new WorkerProcess(command);
+      Path chunkFile = workDirectory.resolve("chunk-" + chunkFiles.incrementAndGet() + ".txt");
+      Files.write(chunkFile, chunk.stream().map(Path::toString).collect(Collectors.toList()), StandardCharsets.UTF_8);
+
+      if (worker.process(chunkFile)) {
+        gatherResults(chunkFile, statistics, fileErrors);
+        long processed = filesProcessed.addAndGet(chunk.size());
+        log.info("Processed [" + processed + "] of [" + scanner.getFilesFound() + "] file(s) found so far in worker processes");
+        return List.of();
+      }
+
+      int exitCode = worker.awaitExit();
+      worker = null;
+      List<Path> notWritten = notWritten(chunk, chunkFile, statistics);
+      if (notWritten.isEmpty()) {
+        log.warn("Worker process exited with code [" + exitCode + "] after writing every file of a chunk of [" + chunk.size()
+            + "] file(s)");
+        return List.of();
+      }
+      if (chunk.size() == 1) {
+        RuntimeException failure = new RuntimeException("Worker process exited with code [" + exitCode + "] while processing file ["
+            + chunk.get(0) + "]");
+        log.error(failure.getMessage());
+        fileErrors.add(failure);
+        statistics.addFilesFailed(1);
+        return List.of();
+      }
+      log.warn("Worker process exited with code [" + exitCode + "] while processing a chunk of [" + chunk.size()
+          + "] file(s); retrying the [" + notWritten.size() + "] file(s) it had not written"
+          + (notWritten.size() > 1 ? " in two halves" : ""));
+      if (notWritten.size() == 1) {
+        return List.of(notWritten);
+      }
+      int half = notWritten.size() / 2;
+      return List.of(new ArrayList<>(notWritten.subList(0, half)), new ArrayList<>(notWritten.subList(half, notWritten.size())));
+    } finally {
+      idleWorkers.put(Optional.ofNullable(worker));
+    }
+  }
+
+
+  /**
+   * Counts the files of a chunk which its worker wrote before it exited as changed, as they are not processed again.
+   *
+   * @return the files of the chunk which its worker did not write
+   */
+  private static List<Path> notWritten(List<Path> chunk, Path chunkFile, RunStatistics statistics) throws IOException {
+    Path writtenFile = ForkedWorker.writtenFile(chunkFile);
+    Set<Path> written = new HashSet<>();
+    if (Files.isRegularFile(writtenFile)) {
+      // A line cut short by the worker exiting matches no file of the chunk
+      Files.readAllLines(writtenFile, StandardCharsets.UTF_8)
+          .forEach(line -> written.add(Paths.get(line).toAbsolutePath().normalize()));
+    }
+    List<Path> notWritten = chunk.stream()
+        .filter(path -> !written.contains(path.toAbsolutePath().normalize()))
+        .collect(Collectors.toList());
+    statistics.addFilesChanged(chunk.size() - notWritten.size());
+    return notWritten;
+  }
+
+
+  private void gatherResults(Path chunkFile, RunStatistics statistics, List<Throwable> fileErrors) throws IOException {
+    Properties result = new Properties();
+    try (InputStream in = Files.newInputStream(ForkedWorker.resultFile(chunkFile))) {
+      result.load(in);
+    }
+    statistics.addFrom(result);
+    result.stringPropertyNames().stream()
+        .filter(key -> key.startsWith(ForkedWorker.FAILURE))
+        .sorted()
+        .forEach(key -> {
+          log.error("Failed to process file in worker process: " + result.getProperty(key));
+          fileErrors.add(new RuntimeException(result.getProperty(key)));
+        });
+    if (useCase instanceof AnalysisUseCase) {
+      // The operations of the use case are not thread safe
+      synchronized (useCase) {
+        AnalysisResultsFile.merge((AnalysisUseCase) useCase, List.of(ForkedWorker.analysisResultsFile(chunkFile)));
+      }
+    }
+  }
+
+
+  private void stopWorkers() {
+    for (Optional<WorkerProcess> worker : idleWorkers) {
+      worker.ifPresent(WorkerProcess::stop);
+    }
+  }
+
+
+  /**
+   * A running worker JVM.
+   */
+  private static final class WorkerProcess {
+    private final Process process;
+    private final BufferedWriter requests;
+    private final BufferedReader output;
+
+    private WorkerProcess(List<String> command) throws IOException {
+      process = new ProcessBuilder(command)
+          .redirectError(ProcessBuilder.Redirect.INHERIT)
+          .start();
+      requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+      output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+      log.info("Started worker process [" + process.pid() + "]");
+    }
+
+    /**
+     * Sends a chunk to the worker, and waits for it to be processed.
+     *
+     * @return whether the chunk was processed, or {@code false} if the worker exited first
+     */
+    private boolean process(Path chunkFile) throws IOException {
+      try {
+        requests.write(chunkFile.toString());
+        requests.newLine();
+        requests.flush();
+      } catch (IOException e) {
+        // The worker has already exited
+        return false;
+      }
+      String line;
+      while ((line = output.readLine()) != null) {
+        if (line.equals(ForkedWorker.CHUNK_DONE)) {
+          return true;
+        }
+        log.debug("[worker " + process.pid() + "] " + line);
+      }
+      return false;
+    }
+
+    private int awaitExit() throws InterruptedException {
+      return process.waitFor();
+    }
+
+    private void stop() {
+      try {
+        requests.close();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+          process.destroyForcibly();
+        }
+      } catch (IOException e) {
+        process.destroyForcibly();
+      } catch (InterruptedException e) {
+        process.destroyForcibly();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
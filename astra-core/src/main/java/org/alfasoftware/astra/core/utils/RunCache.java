@@ -0,0 +1,238 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An on-disk manifest of the files which a previous run of a {@link UseCase} processed without making any edits.
+ *
+ * <p>Each entry maps a file's normalised absolute path to the hash of the content it had when it was processed.
+ * The manifest as a whole is keyed by a fingerprint of the use case identity, its operations, its sources and its
+ * classpath. When a file's content hash matches its entry, and the fingerprint is unchanged, the file can be skipped:
+ * the same operations would see the same input, and so would again produce no edits.
+ *
+ * <p>The manifest is rewritten at the end of each run, and only contains the files which that run found to be
+ * unchanged (including those skipped as cache hits). Files which were edited, or which failed, are always processed
+ * again on the next run.
+ *
+ * <p>Lookups and recording are thread safe, so they can be made from the worker threads applying operations.
+ */
+final class RunCache {
+
+  private static final Logger log = LoggerFactory.getLogger(RunCache.class);
+
+  private static final String HEADER = "# Astra run cache";
+  private static final String FINGERPRINT_PREFIX = "fingerprint ";
+
+  private final Optional<Path> cacheFile;
+  private final String fingerprint;
+  private final Map<String, String> previousContentHashes;
+  private final Map<String, String> unchangedContentHashes = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+
+  private RunCache(Optional<Path> cacheFile, String fingerprint, Map<String, String> previousContentHashes) {
+    this.cacheFile = cacheFile;
+    this.fingerprint = fingerprint;
+    this.previousContentHashes = previousContentHashes;
+  }
+
+
+  /**
+   * @return a cache which never hits, and is never saved.
+   */
+  static RunCache disabled() {
+    return new RunCache(Optional.empty(), "", new HashMap<>());
+  }
+
+
+  /**
+   * Loads the manifest from {@code cacheFile}. If the file does not exist, cannot be read, or was written for a
+   * different fingerprint, the returned cache starts empty.
+   */
+  static RunCache load(Path cacheFile, String fingerprint) {
+    Map<String, String> previousContentHashes = new HashMap<>();
+    if (Files.isRegularFile(cacheFile)) {
+      try {
+        List<String> lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+        if (lines.size() >= 2 && lines.get(0).equals(HEADER) && lines.get(1).equals(FINGERPRINT_PREFIX + fingerprint)) {
+          for (String line : lines.subList(2, lines.size())) {
+            int separator = line.indexOf(' ');
+            if (separator > 0) {
+              previousContentHashes.put(line.substring(separator + 1), line.substring(0, separator));
+            }
+          }
+        } else {
+          log.info("Run cache [" + cacheFile + "] was written for a different use case, operations or classpath; ignoring it");
+        }
+      } catch (IOException e) {
+        log.warn("Failed to read run cache [" + cacheFile + "]; ignoring it: " + e.getMessage());
+      }
+    }
+    return new RunCache(Optional.of(cacheFile), fingerprint, previousContentHashes);
+  }
+
+
+  /**
+   * Checks whether the file was processed without edits by the previous run, with the same content.
+   * Every call counts as either a hit or a miss. Hits are carried forward into the saved manifest.
+   *
+   * @param path normalised absolute path of the file
+   * @param contentHash hash of the file's current content, see {@link #hash(byte[])}
+   */
+  boolean isUnchanged(String path, String contentHash) {
+    if (cacheFile.isEmpty()) {
+      return false;
+    }
+    if (contentHash.equals(previousContentHashes.get(path))) {
+      hits.incrementAndGet();
+      unchangedContentHashes.put(path, contentHash);
+      return true;
+    }
+    misses.incrementAndGet();
+    return false;
+  }
+
+
+  /**
+   * Records that the file was processed by this run without any edits being made.
+   */
+  void recordUnchanged(String path, String contentHash) {
+    if (cacheFile.isPresent()) {
+      unchangedContentHashes.put(path, contentHash);
+    }
+  }
+
+
+  /**
+   * Writes the files recorded as unchanged by this run to the manifest, replacing its previous content.
+   */
+  void save() throws IOException {
+    if (cacheFile.isEmpty()) {
+      return;
+    }
+    Path parent = cacheFile.get().toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (BufferedWriter writer = Files.newBufferedWriter(cacheFile.get(), StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.newLine();
+      writer.write(FINGERPRINT_PREFIX + fingerprint);
+      writer.newLine();
+      for (Map.Entry<String, String> entry : unchangedContentHashes.entrySet()) {
+        writer.write(entry.getValue() + " " + entry.getKey());
+        writer.newLine();
+      }
+    }
+  }
+
+
+  boolean isEnabled() {
+    return cacheFile.isPresent();
+  }
+
+
+  long getHits() {
+    return hits.get();
+  }
+
+
+  long getMisses() {
+    return misses.get();
+  }
+
+
+  /**
+   * @return a hex encoded hash of a file's raw content
+   */
+  static String hash(byte[] content) {
+    return HexFormat.of().formatHex(sha256().digest(content));
+  }
+
+
+  /**
+   * @return a hex encoded hash of the remaining bytes of a file's raw content, leaving its position unchanged
+   */
+  static String hash(ByteBuffer content) {
+    MessageDigest digest = sha256();
+    digest.update(content.duplicate());
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+
+  /**
+   * Loads the run cache of a use case, if it has a run cache file and a run cache identity. Without an identity, a
+   * change to what the operations match could not be told apart, so the cache is not used.
+   */
+  static RunCache forUseCase(UseCase useCase, String[] sources, String[] classPath) {
+    if (useCase.getRunCacheFile().isEmpty()) {
+      return disabled();
+    }
+    if (useCase.getRunCacheIdentity().isEmpty()) {
+      log.warn("Not using run cache [" + useCase.getRunCacheFile().get() + "], as the use case has no run cache identity;"
+          + " every file will be processed");
+      return disabled();
+    }
+    return load(useCase.getRunCacheFile().get(), fingerprint(useCase, sources, classPath));
+  }
+
+
+  /**
+   * Builds the fingerprint for a run of a use case with a run cache identity. This covers that identity, the classes
+   * of its operations, and every source and classpath entry. Files on the classpath (e.g. JARs) are identified by
+   * path, size and modification time. Directories are identified by path only, so changes within a source directory
+   * or classes directory do not invalidate the cache.
+   */
+  static String fingerprint(UseCase useCase, String[] sources, String[] classPath) {
+    StringBuilder fingerprint = new StringBuilder(useCase.getRunCacheIdentity().orElseThrow()).append('\n');
+    useCase.getOperations().stream()
+      .map(operation -> operation.getClass().getName())
+      .sorted()
+      .forEach(operation -> fingerprint.append("operation ").append(operation).append('\n'));
+    Arrays.stream(sources)
+      .forEach(source -> fingerprint.append("source ").append(describeEntry(source)).append('\n'));
+    Arrays.stream(classPath)
+      .sorted()
+      .forEach(entry -> fingerprint.append("classpath ").append(describeEntry(entry)).append('\n'));
+    return hash(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+
+  private static String describeEntry(String entry) {
+    File file = new File(entry);
+    if (file.isFile()) {
+      return entry + "|" + file.length() + "|" + file.lastModified();
+    }
+    return entry;
+  }
+
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only journal of the files a run of a {@link UseCase} has completed, so that a run which was interrupted
+ * or stopped can be resumed by running it again (see {@link UseCase#getJournalFile()}).
+ *
+ * <p>Each entry records a file's normalised absolute path, with the hash of its content before it was processed and
+ * the hash of its content once it had been processed. Entries are appended at the end of each chunk, once every file
+ * of the chunk has been written, so an interrupted run leaves the files of the chunks it completed. A file whose
+ * content still matches the hash it was left with is skipped by the next run. A file which failed or ran out of time
+ * is not journaled, so it is processed again. A file whose hashes differ was changed, so with several rounds (see
+ * {@link UseCase#getMaximumRounds()}) the next run still processes it again in its next round.
+ *
+ * <p>The journal is keyed by the same fingerprint as the {@link RunCache}, so it is started again if the use case's
+ * run cache identity, its operations, sources or classpath change, and is only used when the use case gives an
+ * identity. It is deleted once a run finishes without leaving any file to be
+ * processed again.
+ */
+final class RunJournal {
+
+  private static final Logger log = LoggerFactory.getLogger(RunJournal.class);
+
+  private static final String HEADER = "# Astra run journal";
+  private static final String FINGERPRINT_PREFIX = "fingerprint ";
+
+  private final Optional<Path> journalFile;
+  private final Map<String, String> completedContentHashes;
+  private final Set<String> changed;
+
+
+  private RunJournal(Optional<Path> journalFile, Map<String, String> completedContentHashes, Set<String> changed) {
+    this.journalFile = journalFile;
+    this.completedContentHashes = completedContentHashes;
+    this.changed = changed;
+  }
+
+
+  /**
+   * @return a journal which holds no files, and is never written.
+   */
+  static RunJournal disabled() {
+    return new RunJournal(Optional.empty(), new HashMap<>(), new HashSet<>());
+  }
+
+
+  /**
+   * Opens the journal of a use case, if it has a journal file and a run cache identity. Without an identity, a journal
+   * written by a differently configured use case of the same class could not be told apart, so the journal is not used.
+   *
+   * @throws IOException if the journal cannot be started
+   */
+  static RunJournal forUseCase(UseCase useCase, String[] sources, String[] classPath) throws IOException {
+    if (useCase.getJournalFile().isEmpty()) {
+      return disabled();
+    }
+    if (useCase.getRunCacheIdentity().isEmpty()) {
+      log.warn("Not using run journal [" + useCase.getJournalFile().get() + "], as the use case has no run cache identity;"
+          + " the run cannot be resumed");
+      return disabled();
+    }
+    return open(useCase.getJournalFile().get(), RunCache.fingerprint(useCase, sources, classPath));
+  }
+
+
+  /**
+   * Opens the journal in {@code journalFile}, to resume from the files it holds if it was written for the same
+   * fingerprint, or starts it again otherwise.
+   *
+   * @throws IOException if the journal cannot be started
+   */
+  static RunJournal open(Path journalFile, String fingerprint) throws IOException {
+    Map<String, String> completedContentHashes = new HashMap<>();
+    Set<String> changed = new HashSet<>();
+    if (Files.isRegularFile(journalFile)) {
+      List<String> lines = Files.readAllLines(journalFile, StandardCharsets.UTF_8);
+      if (lines.size() >= 2 && lines.get(0).equals(HEADER) && lines.get(1).equals(FINGERPRINT_PREFIX + fingerprint)) {
+        for (String line : lines.subList(2, lines.size())) {
+          // <hash before> <hash after> <path>; a line cut short by an interruption is ignored
+          String[] fields = line.split(" ", 3);
+          if (fields.length == 3) {
+            completedContentHashes.put(fields[2], fields[1]);
+            // The last entry for a file, from the last round which processed it, says whether it was changed
+            if (fields[0].equals(fields[1])) {
+              changed.remove(fields[2]);
+            } else {
+              changed.add(fields[2]);
+            }
+          }
+        }
+        if (Files.size(journalFile) > 0 && !Files.readString(journalFile, StandardCharsets.UTF_8).endsWith("\n")) {
+          // Start the next entry on a line of its own, after the line cut short
+          Files.write(journalFile, List.of(""), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+        log.info("Resuming from run journal [" + journalFile + "], skipping up to [" + completedContentHashes.size()
+            + "] file(s) completed by an earlier run");
+        return new RunJournal(Optional.of(journalFile), completedContentHashes, changed);
+      }
+      log.info("Run journal [" + journalFile + "] was written for a different use case, operations or classpath; starting it again");
+    }
+    Path parent = journalFile.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.write(journalFile, List.of(HEADER, FINGERPRINT_PREFIX + fingerprint), StandardCharsets.UTF_8);
+    return new RunJournal(Optional.of(journalFile), completedContentHashes, changed);
+  }
+
+
+  boolean isEnabled() {
+    return journalFile.isPresent();
+  }
+
+
+  /**
+   * @param path normalised absolute path of the file
+   * @param contentHash hash of the file's current content, see {@link RunCache#hash(byte[])}
+   * @return whether an earlier run completed the file, and left it with its current content
+   */
+  boolean isCompleted(String path, String contentHash) {
+    return contentHash.equals(completedContentHashes.get(path));
+  }
+
+
+  /**
+   * @param path normalised absolute path of the file
+   * @return whether the file was changed when an earlier run last processed it, so that a further round should
+   *         process it again
+   */
+  boolean isChanged(String path) {
+    return changed.contains(path);
+  }
+
+
+  /**
+   * Appends the files completed by a chunk to the journal.
+   *
+   * @param contentHashesBefore the hash of the content each file had when it was read, by normalised absolute path
+   * @param changed the files changed by the chunk, whose content is hashed again as it is now
+   */
+  void recordCompleted(Map<String, String> contentHashesBefore, Set<String> changed) throws IOException {
+    if (journalFile.isEmpty() || contentHashesBefore.isEmpty()) {
+      return;
+    }
+    List<String> lines = new ArrayList<>(contentHashesBefore.size());
+    for (Map.Entry<String, String> entry : contentHashesBefore.entrySet()) {
+      String path = entry.getKey();
+      String contentHashAfter = changed.contains(path) ? RunCache.hash(Files.readAllBytes(Paths.get(path))) : entry.getValue();
+      lines.add(entry.getValue() + " " + contentHashAfter + " " + path);
+    }
+    Files.write(journalFile.get(), lines, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+  }
+
+
+  /**
+   * Deletes the journal, once the run has no file left to process again.
+   */
+  void delete() throws IOException {
+    if (journalFile.isPresent()) {
+      Files.deleteIfExists(journalFile.get());
+      log.info("Run complete; deleted run journal [" + journalFile.get() + "]");
+    }
+  }
+}
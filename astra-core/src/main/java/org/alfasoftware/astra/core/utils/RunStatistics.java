@@ -0,0 +1,407 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics gathered during one run of {@link AstraCore#run(String, org.alfasoftware.astra.core.refactoring.UseCase)}.
+ *
+ * <p>Time spent in each {@link Phase} is accumulated across every thread which did work in that phase,
+ * both as elapsed (wall clock) time and as thread CPU time. As phases run concurrently on several
+ * threads, and the parsing of one chunk overlaps with applying operations to the previous one, the
+ * per-phase times can add up to more than the {@link #getRunDuration() duration of the run}.
+ *
+ * <p>Time and invocation counts are also accumulated for each operation class, across all instances
+ * of that class in the use case.
+ *
+ * <p>All recording methods are thread safe.
+ */
+public final class RunStatistics {
+
+  /**
+   * The phases of a run which are timed.
+   */
+  public enum Phase {
+    /** Walking the target directory for files which pass the path prefilter. */
+    SCAN,
+    /** Reading file content, checking it against the run cache and content prefilters, and decoding it. */
+    READ,
+    /** Batch parsing files into compilation units. */
+    PARSE,
+    /** Visiting compilation units and running the operations over the visited nodes. */
+    APPLY_OPERATIONS,
+    /** Applying the changes recorded by the operations to the file content. */
+    MAKE_CHANGES,
+    /** Writing changed files. */
+    WRITE,
+    /** Re-parsing changed files, removing unused imports from them, and writing them again. */
+    IMPORT_CLEANUP
+  }
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final Map<Phase, LongAdder> phaseWallNanos = new EnumMap<>(Phase.class);
+  private final Map<Phase, LongAdder> phaseCpuNanos = new EnumMap<>(Phase.class);
+  private final Map<String, OperationStatistics> operationStatistics = new ConcurrentHashMap<>();
+  private final AtomicLong runNanos = new AtomicLong();
+  private final LongAdder filesScanned = new LongAdder();
+  private final LongAdder filesSkippedUnchanged = new LongAdder();
+  private final LongAdder filesSkippedCompleted = new LongAdder();
+  private final LongAdder filesPrefiltered = new LongAdder();
+  private final LongAdder filesParsed = new LongAdder();
+  private final LongAdder filesChanged = new LongAdder();
+  private final LongAdder filesFailed = new LongAdder();
+  private final LongAdder filesTimedOut = new LongAdder();
+  private volatile boolean stoppedByTimeBudget;
+
+
+  RunStatistics() {
+    for (Phase phase : Phase.values()) {
+      phaseWallNanos.put(phase, new LongAdder());
+      phaseCpuNanos.put(phase, new LongAdder());
+    }
+  }
+
+
+  /**
+   * Starts timing work done in {@code phase} on the current thread, until the returned timing is closed.
+   */
+  PhaseTiming time(Phase phase) {
+    return new PhaseTiming(phase);
+  }
+
+
+  void recordOperation(ASTOperation operation, long invocations, long nanos) {
+    OperationStatistics statistics = operationStatistics.computeIfAbsent(operation.getClass().getName(), k -> new OperationStatistics());
+    statistics.invocations.add(invocations);
+    statistics.nanos.add(nanos);
+  }
+
+
+  void recordRunDuration(Duration duration) {
+    runNanos.set(duration.toNanos());
+  }
+
+
+  void addFilesScanned(long count) {
+    filesScanned.add(count);
+  }
+
+
+  void addFilesSkippedUnchanged(long count) {
+    filesSkippedUnchanged.add(count);
+  }
+
+
+  void addFilesSkippedCompleted(long count) {
+    filesSkippedCompleted.add(count);
+  }
+
+
+  void addFilesPrefiltered(long count) {
+    filesPrefiltered.add(count);
+  }
+
+
+  void addFilesParsed(long count) {
+    filesParsed.add(count);
+  }
+
+
+  void addFilesChanged(long count) {
+    filesChanged.add(count);
+  }
+
+
+  void addFilesFailed(long count) {
+    filesFailed.add(count);
+  }
+
+
+  void addFilesTimedOut(long count) {
+    filesTimedOut.add(count);
+  }
+
+
+  void recordStoppedByTimeBudget() {
+    stoppedByTimeBudget = true;
+  }
+
+
+  /**
+   * Writes the statistics gathered so far, other than the duration of the run, as properties which
+   * {@link #addFrom(Properties)} can read, so that the statistics of a worker process can be gathered.
+   */
+  void writeTo(Properties properties) {
+    properties.setProperty("files.scanned", Long.toString(getFilesScanned()));
+    properties.setProperty("files.skippedUnchanged", Long.toString(getFilesSkippedUnchanged()));
+    properties.setProperty("files.skippedCompleted", Long.toString(getFilesSkippedCompleted()));
+    properties.setProperty("files.prefiltered", Long.toString(getFilesPrefiltered()));
+    properties.setProperty("files.parsed", Long.toString(getFilesParsed()));
+    properties.setProperty("files.changed", Long.toString(getFilesChanged()));
+    properties.setProperty("files.failed", Long.toString(getFilesFailed()));
+    properties.setProperty("files.timedOut", Long.toString(getFilesTimedOut()));
+    for (Phase phase : Phase.values()) {
+      properties.setProperty("phase." + phase.name() + ".wallNanos", Long.toString(phaseWallNanos.get(phase).sum()));
+      properties.setProperty("phase." + phase.name() + ".cpuNanos", Long.toString(phaseCpuNanos.get(phase).sum()));
+    }
+    operationStatistics.forEach((className, operation) -> {
+      properties.setProperty("operation." + className + ".invocations", Long.toString(operation.invocations.sum()));
+      properties.setProperty("operation." + className + ".nanos", Long.toString(operation.nanos.sum()));
+    });
+  }
+
+
+  /**
+   * Adds statistics written by {@link #writeTo(Properties)} to those gathered so far.
+   */
+  void addFrom(Properties properties) {
+    filesScanned.add(readLong(properties, "files.scanned"));
+    filesSkippedUnchanged.add(readLong(properties, "files.skippedUnchanged"));
+    filesSkippedCompleted.add(readLong(properties, "files.skippedCompleted"));
+    filesPrefiltered.add(readLong(properties, "files.prefiltered"));
+    filesParsed.add(readLong(properties, "files.parsed"));
+    filesChanged.add(readLong(properties, "files.changed"));
+    filesFailed.add(readLong(properties, "files.failed"));
+    filesTimedOut.add(readLong(properties, "files.timedOut"));
+    for (Phase phase : Phase.values()) {
+      phaseWallNanos.get(phase).add(readLong(properties, "phase." + phase.name() + ".wallNanos"));
+      phaseCpuNanos.get(phase).add(readLong(properties, "phase." + phase.name() + ".cpuNanos"));
+    }
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith("operation.") && key.endsWith(".invocations")) {
+        String className = key.substring("operation.".length(), key.length() - ".invocations".length());
+        // The name of a lambda's hidden class ends with an address which differs in each JVM
+        String stableClassName = className.replaceFirst("/0x[0-9a-f]+$", "");
+        OperationStatistics statistics = operationStatistics.computeIfAbsent(stableClassName, k -> new OperationStatistics());
+        statistics.invocations.add(readLong(properties, key));
+        statistics.nanos.add(readLong(properties, "operation." + className + ".nanos"));
+      }
+    }
+  }
+
+
+  private static long readLong(Properties properties, String key) {
+    return Long.parseLong(properties.getProperty(key, "0"));
+  }
+
+
+  /**
+   * @return the elapsed time of the whole run
+   */
+  public Duration getRunDuration() {
+    return Duration.ofNanos(runNanos.get());
+  }
+
+
+  /**
+   * @return the elapsed time spent in {@code phase}, summed across threads
+   */
+  public Duration getWallTime(Phase phase) {
+    return Duration.ofNanos(phaseWallNanos.get(phase).sum());
+  }
+
+
+  /**
+   * @return the CPU time spent in {@code phase}, summed across threads. This is zero if the JVM does not support
+   *         measuring thread CPU time.
+   */
+  public Duration getCpuTime(Phase phase) {
+    return Duration.ofNanos(phaseCpuNanos.get(phase).sum());
+  }
+
+
+  /**
+   * @return the number of files found in the target directory which passed the path prefilter
+   */
+  public long getFilesScanned() {
+    return filesScanned.sum();
+  }
+
+
+  /**
+   * @return the number of files skipped as unchanged since the last run, see
+   *         {@link org.alfasoftware.astra.core.refactoring.UseCase#getRunCacheFile()}
+   */
+  public long getFilesSkippedUnchanged() {
+    return filesSkippedUnchanged.sum();
+  }
+
+
+  /**
+   * @return the number of files skipped as completed by an earlier run which was interrupted or stopped, see
+   *         {@link org.alfasoftware.astra.core.refactoring.UseCase#getJournalFile()}
+   */
+  public long getFilesSkippedCompleted() {
+    return filesSkippedCompleted.sum();
+  }
+
+
+  /**
+   * @return the number of files skipped by content prefiltering
+   */
+  public long getFilesPrefiltered() {
+    return filesPrefiltered.sum();
+  }
+
+
+  /**
+   * @return the number of files parsed
+   */
+  public long getFilesParsed() {
+    return filesParsed.sum();
+  }
+
+
+  /**
+   * @return the number of files changed by the operations
+   */
+  public long getFilesChanged() {
+    return filesChanged.sum();
+  }
+
+
+  /**
+   * @return the number of files which failed to be read or processed
+   */
+  public long getFilesFailed() {
+    return filesFailed.sum();
+  }
+
+
+  /**
+   * @return the number of files skipped as they took longer to process than
+   *         {@link org.alfasoftware.astra.core.refactoring.UseCase#getFileTimeout()}
+   */
+  public long getFilesTimedOut() {
+    return filesTimedOut.sum();
+  }
+
+
+  /**
+   * @return whether the run stopped before processing every file, as its time budget was spent, see
+   *         {@link org.alfasoftware.astra.core.refactoring.UseCase#getTimeBudget()}
+   */
+  public boolean isStoppedByTimeBudget() {
+    return stoppedByTimeBudget;
+  }
+
+
+  /**
+   * @return statistics for each operation class, keyed by class name
+   */
+  public Map<String, OperationStatistics> getOperationStatistics() {
+    return Collections.unmodifiableMap(new TreeMap<>(operationStatistics));
+  }
+
+
+  /**
+   * @return these statistics as a JSON object, with times in milliseconds
+   */
+  public String toJson() {
+    StringBuilder json = new StringBuilder("{\n");
+    json.append("  \"runMillis\": ").append(getRunDuration().toMillis()).append(",\n");
+    json.append("  \"stoppedByTimeBudget\": ").append(isStoppedByTimeBudget()).append(",\n");
+    json.append("  \"files\": {\n");
+    json.append("    \"scanned\": ").append(getFilesScanned()).append(",\n");
+    json.append("    \"skippedUnchanged\": ").append(getFilesSkippedUnchanged()).append(",\n");
+    json.append("    \"skippedCompleted\": ").append(getFilesSkippedCompleted()).append(",\n");
+    json.append("    \"prefiltered\": ").append(getFilesPrefiltered()).append(",\n");
+    json.append("    \"parsed\": ").append(getFilesParsed()).append(",\n");
+    json.append("    \"changed\": ").append(getFilesChanged()).append(",\n");
+    json.append("    \"failed\": ").append(getFilesFailed()).append(",\n");
+    json.append("    \"timedOut\": ").append(getFilesTimedOut()).append("\n");
+    json.append("  },\n");
+    json.append("  \"phases\": {");
+    String separator = "\n";
+    for (Phase phase : Phase.values()) {
+      json.append(separator)
+        .append("    \"").append(phase.name()).append("\": { \"wallMillis\": ").append(getWallTime(phase).toMillis())
+        .append(", \"cpuMillis\": ").append(getCpuTime(phase).toMillis()).append(" }");
+      separator = ",\n";
+    }
+    json.append("\n  },\n");
+    json.append("  \"operations\": {");
+    separator = "\n";
+    for (Map.Entry<String, OperationStatistics> operation : getOperationStatistics().entrySet()) {
+      json.append(separator)
+        .append("    \"").append(escapeJson(operation.getKey())).append("\": { \"invocations\": ").append(operation.getValue().getInvocations())
+        .append(", \"millis\": ").append(operation.getValue().getTime().toMillis()).append(" }");
+      separator = ",\n";
+    }
+    json.append(operationStatistics.isEmpty() ? "}\n" : "\n  }\n");
+    return json.append("}\n").toString();
+  }
+
+
+  private static String escapeJson(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+
+  @Override
+  public String toString() {
+    return "Files: [" + getFilesScanned() + "] scanned, [" + getFilesSkippedUnchanged() + "] unchanged since the last run, ["
+        + getFilesSkippedCompleted() + "] completed by an earlier run, ["
+        + getFilesPrefiltered() + "] prefiltered, [" + getFilesParsed() + "] parsed, [" + getFilesChanged() + "] changed, ["
+        + getFilesFailed() + "] failed, [" + getFilesTimedOut() + "] timed out";
+  }
+
+
+  /**
+   * Statistics for the instances of one operation class.
+   */
+  public static final class OperationStatistics {
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * @return the number of nodes passed to the operation
+     */
+    public long getInvocations() {
+      return invocations.sum();
+    }
+
+    /**
+     * @return the elapsed time spent in the operation, summed across threads
+     */
+    public Duration getTime() {
+      return Duration.ofNanos(nanos.sum());
+    }
+  }
+
+
+  /**
+   * Times work done in one phase on the current thread, from creation until closed.
+   */
+  final class PhaseTiming implements AutoCloseable {
+    private final Phase phase;
+    private final long startNanos = System.nanoTime();
+    private final long startCpuNanos = currentThreadCpuNanos();
+
+    private PhaseTiming(Phase phase) {
+      this.phase = phase;
+    }
+
+    @Override
+    public void close() {
+      phaseWallNanos.get(phase).add(System.nanoTime() - startNanos);
+      phaseCpuNanos.get(phase).add(currentThreadCpuNanos() - startCpuNanos);
+    }
+  }
+
+
+  private static long currentThreadCpuNanos() {
+    // -1 if measuring thread CPU time is disabled
+    return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? Math.max(0, THREAD_MX_BEAN.getCurrentThreadCpuTime()) : 0;
+  }
+}
@@ -0,0 +1,150 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+
+/**
+ * One of several slices of the files a {@link UseCase} runs over, so that the files can be shared between
+ * independent processes, each running the use case over its own shard (see {@link UseCase#getShard()}).
+ *
+ * <p>The files of a shard are chosen deterministically, from the paths of the files relative to the directory the
+ * use case runs over, so that processes run over the same checkout agree on which shard each file is in, wherever
+ * the checkout is, as long as they are given the same shard count:
+ * <ul>
+ *   <li>{@link #byPathHash(int, int)} assigns each file by a stable hash of its relative path. A file's shard does
+ *       not depend on any other file, so files are processed as they are found, but shards may differ in size.</li>
+ *   <li>{@link #byBalancedSize(int, int)} assigns files, largest first, to the shard with the fewest bytes so far, so
+ *       that each shard has a similar amount of source to parse. Every file must be found before any is assigned,
+ *       so processing waits for the whole directory to be walked.</li>
+ * </ul>
+ */
+public final class Shard {
+
+  /**
+   * How the files are assigned to shards.
+   */
+  public enum Strategy {
+    /** By a stable hash of the relative path of each file. */
+    PATH_HASH,
+    /** Largest file first, to the shard with the fewest bytes so far. */
+    BALANCED_SIZE
+  }
+
+  private final int index;
+  private final int count;
+  private final Strategy strategy;
+
+
+  private Shard(int index, int count, Strategy strategy) {
+    if (count < 1 || index < 0 || index >= count) {
+      throw new IllegalArgumentException("Invalid shard [" + index + "] of [" + count + "]; the index must be from 0 to one less than the count");
+    }
+    this.index = index;
+    this.count = count;
+    this.strategy = strategy;
+  }
+
+
+  /**
+   * @param index the shard, from {@code 0} to {@code count - 1}.
+   * @param count the number of shards.
+   * @return the shard of files whose relative path hashes to {@code index}.
+   */
+  public static Shard byPathHash(int index, int count) {
+    return new Shard(index, count, Strategy.PATH_HASH);
+  }
+
+
+  /**
+   * @param index the shard, from {@code 0} to {@code count - 1}.
+   * @param count the number of shards.
+   * @return the shard of files assigned to {@code index} when balancing the shards by the size of their files.
+   */
+  public static Shard byBalancedSize(int index, int count) {
+    return new Shard(index, count, Strategy.BALANCED_SIZE);
+  }
+
+
+  /**
+   * @return the shard, from {@code 0} to {@link #getCount()} less one.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+
+  /**
+   * @return the number of shards.
+   */
+  public int getCount() {
+    return count;
+  }
+
+
+  /**
+   * @return how the files are assigned to shards.
+   */
+  public Strategy getStrategy() {
+    return strategy;
+  }
+
+
+  /**
+   * @return whether the file at {@code relativePath} is in this shard, for a shard assigned by path hash.
+   */
+  boolean containsByPathHash(Path relativePath) {
+    CRC32 crc = new CRC32();
+    crc.update(normalise(relativePath).getBytes(StandardCharsets.UTF_8));
+    return crc.getValue() % count == index;
+  }
+
+
+  /**
+   * Balances all the files of a run between the shards by size.
+   *
+   * @param sizes the size in bytes of every file, by its path relative to the directory the run is over.
+   * @return the relative paths of the files in this shard.
+   */
+  Set<Path> selectByBalancedSize(Map<Path, Long> sizes) {
+    List<Path> largestFirst = new ArrayList<>(sizes.keySet());
+    largestFirst.sort(Comparator.<Path>comparingLong(sizes::get).reversed().thenComparing(Shard::normalise));
+    long[] shardBytes = new long[count];
+    Set<Path> selected = new HashSet<>();
+    for (Path path : largestFirst) {
+      int smallest = 0;
+      for (int i = 1; i < count; i++) {
+        if (shardBytes[i] < shardBytes[smallest]) {
+          smallest = i;
+        }
+      }
+      shardBytes[smallest] += sizes.get(path);
+      if (smallest == index) {
+        selected.add(path);
+      }
+    }
+    return selected;
+  }
+
+
+  /**
+   * @return the path with {@code /} as its separator, so that it is the same on every platform.
+   */
+  private static String normalise(Path relativePath) {
+    return relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), "/");
+  }
+
+
+  @Override
+  public String toString() {
+    return "shard [" + index + "] of [" + count + "] by " + strategy;
+  }
+}
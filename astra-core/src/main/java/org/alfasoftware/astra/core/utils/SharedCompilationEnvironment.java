@@ -0,0 +1,276 @@
+package org.alfasoftware.astra.core.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.eclipse.jdt.internal.compiler.batch.ClasspathJar;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem.Classpath;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
+import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
+import org.eclipse.jdt.internal.compiler.util.Util;
+import org.eclipse.jdt.internal.core.dom.ICompilationUnitResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The classpath state used to batch parse files with bindings, kept for the length of a run so that it is shared by
+ * every chunk rather than being rebuilt for each one.
+ *
+ * <p>{@link ASTParser#createASTs} builds its classpath from scratch on each call: every JAR is
+ * opened again, its entries are listed again to find its packages, and every class file is read and decoded again.
+ * For a run of many chunks over a large classpath, that repeats the same work for each chunk. Here, each JAR on the
+ * classpath is opened once, its package listing is kept, and the class files read from it are kept, decoded, for
+ * the rest of the run. Lookups of types a JAR does not contain are remembered too, as most lookups of a type miss in
+ * most JARs. The class files kept are bounded, and held softly, so they give way to the files being parsed.
+ *
+ * <p>Only the classpath is shared. Each call still creates its own compiler {@code LookupEnvironment}, so the
+ * {@link org.eclipse.jdt.core.dom.CompilationUnit}s of one chunk are not reachable from the next, and can be garbage
+ * collected once the chunk has been processed. The JDK's own classes, and class directories and source paths, are
+ * set up for each call as before: JDT already caches the JDK image for the life of the JVM, and the contents of
+ * directories may change during the run.
+ *
+ * <p>The parse itself is made by the resolver which {@link ASTParser} would use, given this classpath. JDT has no
+ * public way to do that, so if the resolver cannot be found, each parse falls back to a parser created by
+ * {@link AstraUtils#createBatchParser(String[], String[], boolean)}, with its own classpath. The resolver, and the
+ * {@link ClasspathJar} extended here, are internal to JDT and its compiler, so both are pinned in the build, and
+ * checked by the tests, in case an upgrade changes them.
+ *
+ * <p>This can be used by several threads at once, for example to parse the shards of a chunk concurrently.
+ */
+final class SharedCompilationEnvironment implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(SharedCompilationEnvironment.class);
+
+  private static final String ENCODING = "UTF-8";
+
+  private static final Optional<ICompilationUnitResolver> UNIT_RESOLVER = findUnitResolver();
+
+  private final String[] sources;
+  private final String[] classPath;
+  private final Map<String, String> compilerOptions;
+  /**
+   * Each classpath entry, in order, mapped to its shared JAR, or to empty for a directory set up for each call.
+   */
+  private final Map<String, Optional<SharedClasspathJar>> classPathEntries = new LinkedHashMap<>();
+
+
+  SharedCompilationEnvironment(String[] sources, String[] classPath) {
+    this.sources = sources.clone();
+    this.classPath = classPath.clone();
+    this.compilerOptions = Collections.unmodifiableMap(AstraUtils.createBatchCompilerOptions());
+    for (String entry : AstraUtils.filterClassPath(classPath)) {
+      File file = new File(entry);
+      if (file.isFile()) {
+        classPathEntries.put(entry, Optional.of(new SharedClasspathJar(file)));
+      } else if (file.isDirectory()) {
+        classPathEntries.put(entry, Optional.empty());
+      }
+    }
+    log.debug("Sharing [" + getNumberOfSharedArchives() + "] classpath archive(s) across batch parses");
+  }
+
+
+  private static Optional<ICompilationUnitResolver> findUnitResolver() {
+    try {
+      Field unitResolver = ASTParser.class.getDeclaredField("unitResolver");
+      unitResolver.setAccessible(true);
+      return Optional.of((ICompilationUnitResolver) unitResolver.get(ASTParser.newParser(AST.getJLSLatest())));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.warn("Failed to find the JDT compilation unit resolver; the classpath will be set up again for each batch parse: "
+          + e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+
+  /**
+   * @return whether batch parses use the shared classpath, i.e. the JDT compilation unit resolver was found.
+   */
+  static boolean isClasspathShared() {
+    return UNIT_RESOLVER.isPresent();
+  }
+
+
+  /**
+   * @return the number of classpath archives shared by all batch parses.
+   */
+  int getNumberOfSharedArchives() {
+    return (int) classPathEntries.values().stream().filter(Optional::isPresent).count();
+  }
+
+
+  /**
+   * Parses the given files, resolving bindings, as
+   * {@link ASTParser#createASTs(String[], String[], String[], FileASTRequestor, org.eclipse.core.runtime.IProgressMonitor)}
+   * does for a parser created by {@link AstraUtils#createBatchParser(String[], String[], boolean)} with bindings.
+   *
+   * @param sourceFilePaths the absolute paths of the files to parse.
+   * @param requestor called with each file's compilation unit once it has been parsed and resolved.
+   */
+  void createASTs(String[] sourceFilePaths, FileASTRequestor requestor) {
+    String[] encodings = new String[sourceFilePaths.length];
+    Arrays.fill(encodings, ENCODING);
+    if (UNIT_RESOLVER.isPresent()) {
+      UNIT_RESOLVER.get().resolve(sourceFilePaths, encodings, new String[0], requestor, AST.getJLSLatest(), compilerOptions,
+          createClasspath(), ICompilationUnit.ENABLE_STATEMENTS_RECOVERY | ICompilationUnit.ENABLE_BINDINGS_RECOVERY, null);
+    } else {
+      AstraUtils.createBatchParser(sources, classPath, true).createASTs(sourceFilePaths, encodings, new String[0], requestor, null);
+    }
+  }
+
+
+  /**
+   * Creates the classpath for one batch parse, in the same order as the parser would: the running JDK, then the
+   * source paths, then the classpath entries.
+   */
+  private List<Classpath> createClasspath() {
+    List<Classpath> classpath = new ArrayList<>();
+    Util.collectRunningVMBootclasspath(classpath);
+    for (String source : sources) {
+      addIfPresent(classpath, FileSystem.getClasspath(source, ENCODING, true, null, null, compilerOptions, null));
+    }
+    for (Map.Entry<String, Optional<SharedClasspathJar>> entry : classPathEntries.entrySet()) {
+      if (entry.getValue().isPresent()) {
+        classpath.add(entry.getValue().get());
+      } else {
+        addIfPresent(classpath, FileSystem.getClasspath(entry.getKey(), null, false, null, null, compilerOptions, null));
+      }
+    }
+    return classpath;
+  }
+
+
+  /**
+   * @return the number of class files, or lookups of types not found, kept by the shared classpath archives.
+   */
+  int getNumberOfCachedClassFiles() {
+    return classPathEntries.values().stream().flatMap(Optional::stream).mapToInt(SharedClasspathJar::getNumberOfCachedClassFiles).sum();
+  }
+
+
+  private static void addIfPresent(List<Classpath> classpath, Classpath entry) {
+    if (entry != null) {
+      classpath.add(entry);
+    }
+  }
+
+
+  /**
+   * Closes the shared classpath archives.
+   */
+  @Override
+  public void close() {
+    classPathEntries.values().forEach(jar -> jar.ifPresent(SharedClasspathJar::close));
+  }
+
+
+  /**
+   * A classpath JAR which stays open, with its package listing and the class files read from it, when the compiler
+   * environment using it is cleaned up, so that it can be used by the next one.
+   */
+  private static final class SharedClasspathJar extends ClasspathJar {
+
+    private static final int MAX_CLASS_FILES = 10_000;
+    private static final SoftReference<ClassFileReader> NOT_FOUND = new SoftReference<>(null);
+
+    /**
+     * The class files read from the archive, and the lookups of types it does not contain, least recently used first.
+     */
+    @SuppressWarnings("serial")
+    private final Map<String, SoftReference<ClassFileReader>> classFiles = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SoftReference<ClassFileReader>> eldest) {
+          return size() > MAX_CLASS_FILES;
+        }
+      });
+
+
+    private SharedClasspathJar(File file) {
+      super(file, false, null, null);
+    }
+
+
+    /**
+     * Opens the archive the first time this is used, as each new compiler environment initialises its classpath.
+     */
+    @Override
+    public synchronized void initialize() throws IOException {
+      super.initialize();
+    }
+
+
+    /**
+     * Keeps the archive open and its package listing, see {@link #close()}.
+     */
+    @Override
+    public void reset() {
+      // Left open to be used by the next compiler environment
+    }
+
+
+    /**
+     * Closes the archive and discards the package listing and class files read from it.
+     */
+    synchronized void close() {
+      super.reset();
+      classFiles.clear();
+    }
+
+
+    int getNumberOfCachedClassFiles() {
+      return classFiles.size();
+    }
+
+
+    @Override
+    public NameEnvironmentAnswer findClass(char[] typeName, String qualifiedPackageName, String moduleName,
+        String qualifiedBinaryFileName, boolean asBinaryOnly) {
+      String key = moduleName == null ? qualifiedBinaryFileName : moduleName + ":" + qualifiedBinaryFileName;
+      SoftReference<ClassFileReader> cached = classFiles.get(key);
+      ClassFileReader reader = cached == null ? null : cached.get();
+      if (reader == null && cached != NOT_FOUND) {
+        // Not read yet, or given way to the files being parsed
+        reader = readClass(qualifiedPackageName, moduleName, qualifiedBinaryFileName);
+        classFiles.put(key, reader == null ? NOT_FOUND : new SoftReference<>(reader));
+      }
+      // Each compiler environment records its own state in the answer, so only the class file is shared
+      return reader == null ? null : new NameEnvironmentAnswer(reader, fetchAccessRestriction(qualifiedBinaryFileName), reader.moduleName);
+    }
+
+
+    /**
+     * Reads a class file as {@link ClasspathJar#findClass} does, but decoding it fully, so that the result can be
+     * read by several compiler environments, on different threads, without it decoding more of itself as it is read.
+     */
+    private ClassFileReader readClass(String qualifiedPackageName, String moduleName, String qualifiedBinaryFileName) {
+      if (!isPackage(qualifiedPackageName, moduleName)) {
+        return null;
+      }
+      try {
+        ClassFileReader reader = ClassFileReader.read(zipFile, qualifiedBinaryFileName, true);
+        if (reader != null && reader.moduleName == null && getModule() != null) {
+          reader.moduleName = getModule().name();
+        }
+        return reader;
+      } catch (ClassFormatException | IOException e) {
+        return null;
+      }
+    }
+  }
+}
@@ -8,17 +8,28 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import org.alfasoftware.astra.core.analysis.operations.AnalysisOperation;
 import org.alfasoftware.astra.core.analysis.operations.AnalysisResult;
 import org.alfasoftware.astra.core.utils.AstraCore;
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jface.text.BadLocationException;
 
 public abstract class AbstractAnalysisTest {
@@ -26,6 +37,9 @@ public abstract class AbstractAnalysisTest {
   protected static final String TEST_SOURCE = Paths.get(".").toAbsolutePath().normalize().toString().concat("/src/test/java");
   protected static final String TEST_EXAMPLES = "./src/test/java";
 
+  private static final int CONCURRENT_THREADS = 8;
+  private static final int CONCURRENT_PASSES = 2000;
+
   /**
    * Reads the fileToAnalyse from the examples. Calls the Astra runner on the file example,
    * and checks that the gathered results match the passed in expected values.
@@ -58,4 +72,64 @@ public abstract class AbstractAnalysisTest {
 
     assertTrue("Expected \n" + sortedResult + "\n to contain all of \n " + sortedExpectation , sortedResult.containsAll(sortedExpectation));
   }
+
+
+  /**
+   * Applies the analysis operation on several threads at once, many times over, each thread with its own parse of
+   * the file - as a parallel run applies one operation to many files - and checks that no result was lost. Results
+   * added to a collection which is not thread-safe are very likely, though not certain, to be lost.
+   *
+   * @param fileToAnalyse The file to perform the analysis on
+   * @param analysisOperation The analysisOperation to apply
+   * @param countResults Counts the individual results held by the operation
+   * @param expectedPerPass The number of results from applying the operation to the file once
+   */
+  protected <T extends AnalysisResult> void assertConcurrentAnalysis(Class<?> fileToAnalyse, AnalysisOperation<T> analysisOperation,
+      ToIntFunction<Collection<T>> countResults, int expectedPerPass) throws Exception {
+
+    Path file = Path.of(TEST_EXAMPLES + "/" + fileToAnalyse.getName().replaceAll("\\.", "/") + ".java");
+    String fileContent = new String(Files.readAllBytes(file.toAbsolutePath()));
+    // Each pass starts on every thread at once, so that results are added at the same time
+    CyclicBarrier pass = new CyclicBarrier(CONCURRENT_THREADS);
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_THREADS);
+    try {
+      List<Future<?>> threads = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_THREADS; i++) {
+        CompilationUnit compilationUnit = AstraUtils.readAsCompilationUnit(file, fileContent, new String[] { TEST_SOURCE }, new String[0]);
+        List<ASTNode> nodes = handledNodes(compilationUnit, analysisOperation);
+        threads.add(executor.submit(() -> {
+          for (int run = 0; run < CONCURRENT_PASSES; run++) {
+            pass.await();
+            for (ASTNode node : nodes) {
+              analysisOperation.run(compilationUnit, node, null);
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<?> thread : threads) {
+        thread.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    assertEquals("No result should be lost when the analysis runs on several threads at once",
+        CONCURRENT_THREADS * CONCURRENT_PASSES * expectedPerPass, countResults.applyAsInt(analysisOperation.getResults()));
+  }
+
+
+  private List<ASTNode> handledNodes(CompilationUnit compilationUnit, AnalysisOperation<?> analysisOperation) {
+    List<ASTNode> nodes = new ArrayList<>();
+    compilationUnit.accept(new ASTVisitor() {
+      @Override
+      public void preVisit(ASTNode node) {
+        if (analysisOperation.getHandledNodeTypes().stream().anyMatch(type -> type.isInstance(node))) {
+          nodes.add(node);
+        }
+      }
+    });
+    return nodes;
+  }
 }
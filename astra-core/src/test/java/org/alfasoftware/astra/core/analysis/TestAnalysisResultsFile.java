@@ -0,0 +1,142 @@
+package org.alfasoftware.astra.core.analysis;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.analysis.operations.AnalysisOperation;
+import org.alfasoftware.astra.core.analysis.operations.AnalysisResult;
+import org.alfasoftware.astra.core.analysis.operations.assignment.FindAssignmentAnalysis;
+import org.alfasoftware.astra.core.analysis.operations.methods.FindMethodInvocationsAnalysis;
+import org.alfasoftware.astra.core.analysis.operations.methods.MatchedMethodResult;
+import org.alfasoftware.astra.core.analysis.operations.methods.MethodAnalysisResult;
+import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.utils.AstraCore;
+import org.alfasoftware.astra.core.utils.Shard;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for writing the results of an analysis run over each of several shards, and merging them.
+ */
+public class TestAnalysisResultsFile {
+
+  private static final int FILES = 8;
+
+  private Path tempDir;
+  private Path resultsDir;
+
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("astra-analysis-results-test");
+    resultsDir = Files.createTempDirectory("astra-analysis-results");
+  }
+
+
+  @After
+  public void tearDown() throws IOException {
+    for (Path dir : List.of(tempDir, resultsDir)) {
+      Files.walk(dir)
+          .sorted(Comparator.reverseOrder())
+          .forEach(path -> path.toFile().delete());
+    }
+  }
+
+
+  /**
+   * The merged results of runs over every shard are the same as the results of one run over every file.
+   */
+  @Test
+  public void testMergedShardResultsMatchSingleRun() throws IOException {
+    Files.createDirectories(tempDir.resolve("sample"));
+    Files.writeString(tempDir.resolve("sample/Service.java"), "package sample;\n\npublic class Service {\n  public void call() {}\n}\n");
+    for (int i = 0; i < FILES; i++) {
+      Files.writeString(tempDir.resolve("sample/Caller" + i + ".java"),
+          "package sample;\n\npublic class Caller" + i + " {\n"
+          + "  Service service = new Service();\n"
+          + "  void run() {\n    service.call();\n  }\n}\n");
+    }
+
+    ShardedUseCase singleRun = new ShardedUseCase(Optional.empty(), Optional.empty());
+    AstraCore.run(tempDir.toString(), singleRun);
+
+    List<Path> resultsFiles = new ArrayList<>();
+    for (int index = 0; index < 2; index++) {
+      Path resultsFile = resultsDir.resolve("shard-" + index + ".txt");
+      AstraCore.run(tempDir.toString(), new ShardedUseCase(Optional.of(Shard.byPathHash(index, 2)), Optional.of(resultsFile)));
+      resultsFiles.add(resultsFile);
+    }
+    ShardedUseCase merged = new ShardedUseCase(Optional.empty(), Optional.empty());
+    AnalysisResultsFile.merge(merged, resultsFiles);
+
+    assertEquals(FILES, singleRun.invocations.getResults().iterator().next().getValue().size());
+    assertEquals(sorted(singleRun.invocations), sorted(merged.invocations));
+    assertEquals(FILES, singleRun.assignments.getResults().size());
+    assertEquals(sorted(singleRun.assignments), sorted(merged.assignments));
+  }
+
+
+  @Test
+  public void testFieldsWithSeparatorsAreRead() {
+    List<String> fields = List.of("tab\there", "line\nbreak\r\n", "back\\slash\\t", "");
+    assertEquals(fields, AnalysisResultsFile.splitFields(AnalysisResultsFile.joinFields(fields)));
+  }
+
+
+  private static List<String> sorted(AnalysisOperation<? extends AnalysisResult> operation) {
+    return operation.getResults().stream()
+        .flatMap(result -> result instanceof MethodAnalysisResult
+            ? ((MethodAnalysisResult) result).getValue().stream().map(MatchedMethodResult::toString)
+            : Set.of(result.toString()).stream())
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+
+  private final class ShardedUseCase implements AnalysisUseCase {
+
+    private final Optional<Shard> shard;
+    private final Optional<Path> resultsFile;
+    private final FindMethodInvocationsAnalysis invocations = new FindMethodInvocationsAnalysis(Set.of(
+        MethodMatcher.builder()
+          .withFullyQualifiedDeclaringType("sample.Service")
+          .withMethodName("call")
+          .build()));
+    private final FindAssignmentAnalysis assignments = new FindAssignmentAnalysis("sample.Service");
+
+    private ShardedUseCase(Optional<Shard> shard, Optional<Path> resultsFile) {
+      this.shard = shard;
+      this.resultsFile = resultsFile;
+    }
+
+    @Override
+    public Set<? extends AnalysisOperation<? extends AnalysisResult>> getOperations() {
+      return Set.of(invocations, assignments);
+    }
+
+    @Override
+    public String[] getSources() {
+      return new String[] { tempDir.toString() };
+    }
+
+    @Override
+    public Optional<Shard> getShard() {
+      return shard;
+    }
+
+    @Override
+    public Optional<Path> getResultsFile() {
+      return resultsFile;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.alfasoftware.astra.core.analysis.assignment;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -38,5 +39,13 @@ public class TestAssignmentAnalysis extends AbstractAnalysisTest {
 
     assertAnalysis(AssignmentExample.class, analysis, expectedResults);
   }
-}
 
+
+  /**
+   * Results are collected from many files at once in a parallel run.
+   */
+  @Test
+  public void testConcurrentAnalysis() throws Exception {
+    assertConcurrentAnalysis(AssignmentExample.class, new FindAssignmentAnalysis(Date.class.getName()), Collection::size, 15);
+  }
+}
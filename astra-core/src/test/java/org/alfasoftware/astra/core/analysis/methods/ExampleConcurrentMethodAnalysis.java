@@ -0,0 +1,157 @@
+package org.alfasoftware.astra.core.analysis.methods;
+
+/**
+ * Many declarations and invocations of the same method, for analysing on several threads at once.
+ */
+class ExampleConcurrentMethodAnalysis {
+
+  static class Example1 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example2 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example3 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example4 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example5 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example6 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example7 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example8 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example9 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+
+  static class Example10 {
+    void baseMethod() {
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+      baseMethod();
+    }
+  }
+}
@@ -44,5 +44,16 @@ public class TestFindMethodDeclarationsAnalysis extends AbstractAnalysisTest {
         assertAnalysis(ExampleMethodAnalysis.class, analysis, expectedResult);
         assertNotNull(analysis.getPrintableResults());
     }
-}
 
+
+    /**
+     * Results are collected from many files at once in a parallel run.
+     */
+    @Test
+    public void testConcurrentAnalysis() throws Exception {
+        FindMethodDeclarationsAnalysis analysis = new FindMethodDeclarationsAnalysis(Set.of(MethodMatcher.builder().withMethodName("baseMethod").build()));
+
+        assertConcurrentAnalysis(ExampleConcurrentMethodAnalysis.class, analysis,
+            results -> results.stream().mapToInt(result -> result.getValue().size()).sum(), 10);
+    }
+}
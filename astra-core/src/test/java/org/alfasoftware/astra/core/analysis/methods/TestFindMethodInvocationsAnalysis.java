@@ -46,5 +46,16 @@ public class TestFindMethodInvocationsAnalysis extends AbstractAnalysisTest {
         assertNotNull(analysis.getPrintableResults());
 
     }
-}
 
+
+    /**
+     * Results are collected from many files at once in a parallel run.
+     */
+    @Test
+    public void testConcurrentAnalysis() throws Exception {
+        FindMethodInvocationsAnalysis analysis = new FindMethodInvocationsAnalysis(Set.of(MethodMatcher.builder().withMethodName("baseMethod").build()));
+
+        assertConcurrentAnalysis(ExampleConcurrentMethodAnalysis.class, analysis,
+            results -> results.stream().mapToInt(result -> result.getValue().size()).sum(), 100);
+    }
+}
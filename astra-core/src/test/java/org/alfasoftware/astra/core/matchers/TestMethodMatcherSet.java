@@ -0,0 +1,195 @@
+package org.alfasoftware.astra.core.matchers;
+
+import static org.alfasoftware.astra.core.matchers.DescribedPredicate.describedPredicate;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.alfasoftware.astra.core.utils.ClassVisitor;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.junit.Test;
+
+/**
+ * Tests that a {@link MethodMatcherSet} finds the same matches as checking each of its matchers in turn.
+ */
+public class TestMethodMatcherSet {
+
+  private static final String TEST_SOURCE = Paths.get(".").toAbsolutePath().normalize().toString().concat("/src/test/java");
+  private static final String TEST_EXAMPLES = "./src/test/java";
+
+
+  /**
+   * Checks every invocation of several example classes against a mix of indexed and fallback matchers, hidden among
+   * thousands of signatures which match nothing.
+   */
+  @Test
+  public void testMatchesAreThoseOfEachMatcher() throws IOException {
+    List<MethodMatcher> matchers = new ArrayList<>(unrelatedSignatures());
+    matchers.add(MethodMatcher.builder()
+        .withFullyQualifiedDeclaringType(ExampleUsedClass.class.getName())
+        .withMethodName("methodWithArgs")
+        .withFullyQualifiedParameters(List.of("java.lang.Long"))
+        .build());
+    matchers.add(MethodMatcher.builder()
+        .withFullyQualifiedDeclaringType(ExampleUsedClass.class.getName())
+        .withMethodName("methodWithArgs")
+        .isVarargs(true)
+        .build());
+    matchers.add(MethodMatcher.builder()
+        .withFullyQualifiedDeclaringType(ExampleUsedClass.class.getName())
+        .withMethodName("staticMethod")
+        .build());
+    // Declared on a supertype of the type invoked on
+    matchers.add(MethodMatcher.builder()
+        .withFullyQualifiedDeclaringType(Object.class.getName())
+        .withMethodName("notify")
+        .build());
+    matchers.add(MethodMatcher.builder()
+        .withFullyQualifiedDeclaringType("java.io.Serializable")
+        .withMethodName("notify")
+        .build());
+    matchers.add(MethodMatcher.builder()
+        .withMethodName("setTime")
+        .build());
+    matchers.add(MethodMatcher.builder()
+        .withMethodName(describedPredicate("method name starts with [base]", name -> name.startsWith("base")))
+        .build());
+
+    MethodMatcherSet matcherSet = MethodMatcherSet.of(matchers);
+
+    int matched = 0;
+    for (Class<?> exampleClass : List.of(ExampleClassUsingOneArgMethod.class, ExampleClassUsingVarargMethod.class,
+        ExampleClassUsingStaticMethod.class, ExampleClassUsingMethodsWithImport.class, ExampleClassUsingMultipleMethods.class,
+        ExampleClassUsingNoArgBaseMethod.class)) {
+      CompilationUnit compilationUnit = parse(exampleClass);
+      ClassVisitor visitor = visit(compilationUnit);
+      for (MethodInvocation methodInvocation : visitor.getMethodInvocations()) {
+        List<MethodMatcher> expected = matchers.stream()
+            .filter(matcher -> matcher.matches(methodInvocation, compilationUnit))
+            .collect(Collectors.toList());
+        assertEquals("Matches of [" + methodInvocation + "] in [" + exampleClass.getSimpleName() + "]",
+            expected, matcherSet.findAllMatches(methodInvocation, compilationUnit));
+        assertEquals(expected.stream().findFirst(), matcherSet.findMatch(methodInvocation, compilationUnit));
+        matched += expected.size();
+      }
+    }
+    assertTrue("The example classes should match some of the matchers", matched >= 6);
+  }
+
+
+  @Test
+  public void testFirstMatcherInOrderGivenIsFound() throws IOException {
+    MethodMatcher byPredicate = MethodMatcher.builder()
+        .withMethodName(describedPredicate("method name is [methodWithArgs]", "methodWithArgs"::equals))
+        .build();
+    MethodMatcher byName = MethodMatcher.builder()
+        .withMethodName("methodWithArgs")
+        .build();
+    MethodMatcher byNameAndType = MethodMatcher.builder()
+        .withFullyQualifiedDeclaringType(ExampleUsedClass.class.getName())
+        .withMethodName("methodWithArgs")
+        .build();
+
+    CompilationUnit compilationUnit = parse(ExampleClassUsingOneArgMethod.class);
+    MethodInvocation methodInvocation = visit(compilationUnit).getMethodInvocations().stream()
+        .filter(mi -> mi.getName().getIdentifier().equals("methodWithArgs"))
+        .findFirst()
+        .get();
+
+    assertEquals(Optional.of(byNameAndType), MethodMatcherSet.of(List.of(byNameAndType, byName, byPredicate)).findMatch(methodInvocation, compilationUnit));
+    assertEquals(Optional.of(byName), MethodMatcherSet.of(List.of(byName, byPredicate, byNameAndType)).findMatch(methodInvocation, compilationUnit));
+    assertEquals(List.of(byPredicate, byNameAndType, byName),
+        MethodMatcherSet.of(List.of(byPredicate, byNameAndType, byName)).findAllMatches(methodInvocation, compilationUnit));
+  }
+
+
+  @Test
+  public void testClassInstanceCreationsAndDeclarationsAreMatched() throws IOException {
+    MethodMatcher constructor = MethodMatcher.builder()
+        .withFullyQualifiedDeclaringType(ExampleUsedClass.class.getName())
+        .withMethodName("ExampleUsedClass")
+        .build();
+    MethodMatcher declaration = MethodMatcher.builder()
+        .withFullyQualifiedDeclaringType(ExampleUsedClass.class.getName())
+        .withMethodName("staticMethod")
+        .build();
+    List<MethodMatcher> matchers = new ArrayList<>(unrelatedSignatures());
+    matchers.add(constructor);
+    matchers.add(declaration);
+    MethodMatcherSet matcherSet = MethodMatcherSet.of(matchers);
+
+    CompilationUnit usingClass = parse(ExampleClassUsingOneArgMethod.class);
+    List<ClassInstanceCreation> classInstanceCreations = visit(usingClass).getClassInstanceCreations();
+    assertFalse(classInstanceCreations.isEmpty());
+    for (ClassInstanceCreation classInstanceCreation : classInstanceCreations) {
+      assertEquals(Optional.of(constructor), matcherSet.findMatch(classInstanceCreation));
+    }
+
+    List<MethodMatcher> matchedDeclarations = new ArrayList<>();
+    for (MethodDeclaration methodDeclaration : visit(parse(ExampleUsedClass.class)).getMethodDeclarations()) {
+      matcherSet.findMatch(methodDeclaration).ifPresent(matchedDeclarations::add);
+    }
+    assertEquals(List.of(declaration), matchedDeclarations);
+  }
+
+
+  /**
+   * A method name predicate given after an exact method name replaces it, so the matcher is no longer indexed by it.
+   */
+  @Test
+  public void testMethodNamePredicateReplacesExactMethodName() throws IOException {
+    MethodMatcher matcher = MethodMatcher.builder()
+        .withMethodName("baseMethod")
+        .withMethodName(describedPredicate("method name is [methodWithArgs]", "methodWithArgs"::equals))
+        .build();
+    assertEquals(Optional.empty(), matcher.getMethodNameExactName());
+
+    CompilationUnit compilationUnit = parse(ExampleClassUsingMultipleMethods.class);
+    MethodMatcherSet matcherSet = MethodMatcherSet.of(List.of(matcher));
+    long matched = visit(compilationUnit).getMethodInvocations().stream()
+        .filter(mi -> matcherSet.findMatch(mi, compilationUnit).isPresent())
+        .count();
+    assertEquals(1, matched);
+    assertEquals(Optional.empty(), matcherSet.getRequiredContentTokens());
+  }
+
+
+  /**
+   * @return thousands of signatures which none of the example classes invoke, some sharing their method names
+   */
+  private List<MethodMatcher> unrelatedSignatures() {
+    List<MethodMatcher> matchers = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      matchers.add(MethodMatcher.buildMethodMatcherForFQSignature("com.example.Deprecated" + i + ".method" + i + "(int, java.lang.String)"));
+    }
+    matchers.add(MethodMatcher.buildMethodMatcherForFQSignature("com.example.Deprecated.methodWithArgs(java.lang.Long)"));
+    matchers.add(MethodMatcher.buildMethodMatcherForFQSignature("com.example.Deprecated.notify()"));
+    return matchers;
+  }
+
+
+  private CompilationUnit parse(Class<?> exampleClass) throws IOException {
+    String source = Files.readString(Path.of(TEST_EXAMPLES, exampleClass.getName().replaceAll("\\.", "/") + ".java"));
+    return AstraUtils.readAsCompilationUnit(Path.of(""), source, new String[] { TEST_SOURCE }, new String[0]);
+  }
+
+
+  private ClassVisitor visit(CompilationUnit compilationUnit) {
+    ClassVisitor visitor = new ClassVisitor();
+    compilationUnit.accept(visitor);
+    return visitor;
+  }
+}
@@ -0,0 +1,87 @@
+package org.alfasoftware.astra.core.matchers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.alfasoftware.astra.core.matchers.TypeHierarchyCache.TypeHierarchy;
+import org.alfasoftware.astra.core.utils.AstraUtils;
+import org.alfasoftware.astra.core.utils.ClassVisitor;
+import org.alfasoftware.astra.exampleTypes.A;
+import org.alfasoftware.astra.exampleTypes.BaseFooable;
+import org.alfasoftware.astra.exampleTypes.ExampleMarkerInterface;
+import org.alfasoftware.astra.exampleTypes.Fooable;
+import org.alfasoftware.astra.exampleTypes.G;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link TypeHierarchyCache} shared by the matchers.
+ */
+public class TestTypeHierarchyCache {
+
+  private static final String TEST_SOURCE = Paths.get(".").toAbsolutePath().normalize().toString().concat("/src/test/java");
+
+
+  /**
+   * H extends G, which extends A, which implements Fooable, which extends BaseFooable.
+   */
+  @Test
+  public void testHierarchyIsFlattened() {
+    TypeHierarchy hierarchy = TypeHierarchyCache.shared().get(typeBinding("package x; public class H extends " + G.class.getName() + " {}"));
+
+    assertTrue(hierarchy.getSuperclasses().getBinaryNames().containsAll(List.of(G.class.getName(), A.class.getName(), Object.class.getName())));
+    assertTrue(hierarchy.getInterfaces().getNames().isEmpty());
+    assertTrue(hierarchy.getAllInterfaces().getBinaryNames().containsAll(List.of(Fooable.class.getName(), BaseFooable.class.getName())));
+  }
+
+
+  @Test
+  public void testHierarchiesAreSharedWithinRun() {
+    TypeHierarchyCache cache = TypeHierarchyCache.shared();
+    cache.startRun();
+    try {
+      cache.get(typeBinding("package x; public class H extends " + G.class.getName() + " {}"));
+      assertEquals(0, cache.getHits());
+
+      // A different compilation unit, whose supertypes have been walked already
+      TypeHierarchy hierarchy = cache.get(typeBinding("package x; public class I extends " + G.class.getName() + " {}"));
+      assertEquals(1, cache.getHits());
+      assertTrue(hierarchy.getAllInterfaces().getBinaryNames().contains(BaseFooable.class.getName()));
+    } finally {
+      cache.endRun();
+    }
+  }
+
+
+  /**
+   * The same key names a different type in each run, so its hierarchy is not kept once the run ends.
+   */
+  @Test
+  public void testHierarchiesAreNotKeptBetweenRuns() {
+    TypeHierarchyCache cache = TypeHierarchyCache.shared();
+    cache.startRun();
+    try {
+      TypeHierarchy hierarchy = cache.get(typeBinding("package x; public class Test implements " + ExampleMarkerInterface.class.getName() + " {}"));
+      assertTrue(hierarchy.getInterfaces().getBinaryNames().contains(ExampleMarkerInterface.class.getName()));
+    } finally {
+      cache.endRun();
+    }
+
+    TypeHierarchy hierarchy = cache.get(typeBinding("package x; public class Test {}"));
+    assertFalse(hierarchy.getInterfaces().getBinaryNames().contains(ExampleMarkerInterface.class.getName()));
+  }
+
+
+  private ITypeBinding typeBinding(String source) {
+    CompilationUnit compilationUnit = AstraUtils.readAsCompilationUnit(Path.of(""), source, new String[] { TEST_SOURCE }, new String[0]);
+    ClassVisitor visitor = new ClassVisitor();
+    compilationUnit.accept(visitor);
+    return visitor.getTypeDeclarations().get(0).resolveBinding();
+  }
+}
@@ -0,0 +1,18 @@
+package org.alfasoftware.astra.core.refactoring.methods.methodInvocation;
+
+import org.alfasoftware.astra.exampleTypes.A;
+import org.alfasoftware.astra.exampleTypes.C;
+
+public class InvocationBulkChangeExample {
+
+  @SuppressWarnings("unused")
+  private void example(A a, C c) {
+    A.staticOne();
+    A.staticFour("");
+    A.staticTwo();
+    org.alfasoftware.astra.exampleTypes.A.staticOne();
+    C.staticOne();
+    a.one();
+    c.one();
+  }
+}
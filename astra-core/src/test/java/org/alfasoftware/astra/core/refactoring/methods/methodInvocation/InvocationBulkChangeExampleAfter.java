@@ -0,0 +1,19 @@
+package org.alfasoftware.astra.core.refactoring.methods.methodInvocation;
+
+import org.alfasoftware.astra.exampleTypes.A;
+import org.alfasoftware.astra.exampleTypes.B;
+import org.alfasoftware.astra.exampleTypes.C;
+
+public class InvocationBulkChangeExampleAfter {
+
+  @SuppressWarnings("unused")
+  private void example(A a, C c) {
+    B.staticTwo();
+    B.staticThree("");
+    A.staticTwo();
+    org.alfasoftware.astra.exampleTypes.B.staticTwo();
+    C.staticTwo();
+    a.two();
+    c.one();
+  }
+}
@@ -0,0 +1,101 @@
+package org.alfasoftware.astra.core.refactoring.methods.methodInvocation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.refactoring.AbstractRefactorTest;
+import org.alfasoftware.astra.core.refactoring.operations.methods.BulkMethodInvocationRefactor;
+import org.alfasoftware.astra.core.refactoring.operations.methods.MethodInvocationRefactor;
+import org.alfasoftware.astra.core.refactoring.operations.methods.MethodInvocationRefactor.Changes;
+import org.alfasoftware.astra.exampleTypes.A;
+import org.alfasoftware.astra.exampleTypes.B;
+import org.alfasoftware.astra.exampleTypes.C;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBulkMethodInvocationRefactor extends AbstractRefactorTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+  /**
+   * Changes static and instance method invocations, to a new type and method name or just a new method name.
+   */
+  @Test
+  public void testChangeInvocationsFromMappingFile() throws IOException {
+    Path mappingFile = temporaryFolder.newFile("methods.txt").toPath();
+    Files.write(mappingFile, List.of(
+      "# Moved and renamed",
+      A.class.getName() + ".staticOne() -> " + B.class.getName() + ".staticTwo",
+      A.class.getName() + ".staticFour(java.lang.String) -> " + B.class.getName() + ".staticThree",
+      "",
+      "# Renamed",
+      C.class.getName() + ".staticOne() -> staticTwo",
+      A.class.getName() + ".one() -> two"));
+
+    BulkMethodInvocationRefactor refactor = BulkMethodInvocationRefactor.forMappingFile(mappingFile);
+
+    assertEquals(4, refactor.getRefactors().size());
+    assertRefactor(InvocationBulkChangeExample.class, Set.of(refactor));
+  }
+
+
+  /**
+   * Mappings indexed under the same method name as an invocation, but which do not match its declaring type or
+   * parameters, are not applied to it.
+   */
+  @Test
+  public void testNonMatchingMappingsWithSameMethodNameAreNotApplied() {
+    Map<String, String> mapping = new LinkedHashMap<>();
+    mapping.put(A.class.getName() + ".staticOne()", B.class.getName() + ".staticTwo");
+    mapping.put(A.class.getName() + ".staticFour(java.lang.String)", B.class.getName() + ".staticThree");
+    mapping.put(C.class.getName() + ".staticOne()", "staticTwo");
+    mapping.put(A.class.getName() + ".one()", "two");
+    // Not matching any invocation in the example
+    mapping.put(A.class.getName() + ".staticTwo(int)", "staticThree");
+    mapping.put(A.class.getName() + ".staticFour(java.lang.Integer)", "staticOne");
+    mapping.put("com.example.Other.staticTwo()", "staticThree");
+    mapping.put(B.class.getName() + ".one()", "two");
+
+    assertRefactor(InvocationBulkChangeExample.class, Set.of(BulkMethodInvocationRefactor.forMapping(mapping)));
+  }
+
+
+  /**
+   * Where more than one refactor matches an invocation, the first one given is applied.
+   */
+  @Test
+  public void testFirstMatchingRefactorIsApplied() {
+    Map<String, String> mapping = new LinkedHashMap<>();
+    mapping.put(A.class.getName() + ".staticOne()", B.class.getName() + ".staticTwo");
+    mapping.put(A.class.getName() + ".staticFour(java.lang.String)", B.class.getName() + ".staticThree");
+    mapping.put(C.class.getName() + ".staticOne()", "staticTwo");
+    mapping.put(A.class.getName() + ".one()", "two");
+
+    List<MethodInvocationRefactor> refactors = new ArrayList<>(BulkMethodInvocationRefactor.forMapping(mapping).getRefactors());
+    refactors.add(MethodInvocationRefactor
+        .from(MethodMatcher.builder()
+          .withMethodName("staticOne")
+          .build())
+        .to(new Changes().toNewMethodName("staticThree")));
+
+    assertRefactor(InvocationBulkChangeExample.class, Set.of(BulkMethodInvocationRefactor.of(refactors)));
+  }
+
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMappingWithoutSignatureIsRejected() {
+    BulkMethodInvocationRefactor.forMapping(Map.of(A.class.getName() + ".staticOne", B.class.getName() + ".staticTwo"));
+  }
+}
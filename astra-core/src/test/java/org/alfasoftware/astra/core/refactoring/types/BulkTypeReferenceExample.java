@@ -0,0 +1,26 @@
+package org.alfasoftware.astra.core.refactoring.types;
+
+import java.util.List;
+
+import org.alfasoftware.astra.exampleTypes.A;
+import org.alfasoftware.astra.exampleTypes.C;
+import org.alfasoftware.astra.exampleTypes.EnumA;
+
+/**
+ * {@link A}
+ * {@link C}
+ * {@link UpdateTypeToChangeExample}
+ */
+@SuppressWarnings({ "unused", "rawtypes" })
+public class BulkTypeReferenceExample {
+  A field = new A();
+  C unchanged = new C();
+  EnumA enumField = EnumA.ONE;
+  UpdateTypeToChangeExample samePackage = new UpdateTypeToChangeExample();
+  List<UpdateTypeToChangeExample> samePackageList;
+  Class qualified = org.alfasoftware.astra.core.refactoring.types.UpdateTypeToChangeExample.class;
+
+  public A parameter(A param, EnumA enumParam) {
+    return param;
+  }
+}
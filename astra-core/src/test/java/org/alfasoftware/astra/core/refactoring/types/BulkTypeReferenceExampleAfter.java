@@ -0,0 +1,27 @@
+package org.alfasoftware.astra.core.refactoring.types;
+
+import java.util.List;
+
+import org.alfasoftware.astra.core.refactoring.types.newpackage.UpdatedTypeExampleAfter;
+import org.alfasoftware.astra.exampleTypes.B;
+import org.alfasoftware.astra.exampleTypes.C;
+import org.alfasoftware.astra.exampleTypes.EnumB;
+
+/**
+ * {@link B}
+ * {@link C}
+ * {@link UpdatedTypeExampleAfter}
+ */
+@SuppressWarnings({ "unused", "rawtypes" })
+public class BulkTypeReferenceExampleAfter {
+  B field = new B();
+  C unchanged = new C();
+  EnumB enumField = EnumB.ONE;
+  UpdatedTypeExampleAfter samePackage = new UpdatedTypeExampleAfter();
+  List<UpdatedTypeExampleAfter> samePackageList;
+  Class qualified = org.alfasoftware.astra.core.refactoring.types.newpackage.UpdatedTypeExampleAfter.class;
+
+  public B parameter(B param, EnumB enumParam) {
+    return param;
+  }
+}
@@ -0,0 +1,101 @@
+package org.alfasoftware.astra.core.refactoring.types;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alfasoftware.astra.core.refactoring.AbstractRefactorTest;
+import org.alfasoftware.astra.core.refactoring.operations.types.BulkTypeReferenceRefactor;
+import org.alfasoftware.astra.core.refactoring.types.newpackage.UpdatedTypeExampleAfter;
+import org.alfasoftware.astra.exampleTypes.A;
+import org.alfasoftware.astra.exampleTypes.B;
+import org.alfasoftware.astra.exampleTypes.EnumA;
+import org.alfasoftware.astra.exampleTypes.EnumB;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBulkTypeReferenceRefactor extends AbstractRefactorTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+  /**
+   * Changing types from a mapping gives the same result as changing each type in turn.
+   */
+  @Test
+  public void testChangeTypesFromMapping() {
+    assertRefactor(TypeReferenceExample.class,
+        Set.of(BulkTypeReferenceRefactor.forMapping(Map.of(A.class.getName(), B.class.getName()))));
+  }
+
+
+  /**
+   * Types which share a simple name with a type in the mapping, but are in another package, are not changed.
+   */
+  @Test
+  public void testChangeTypesFromMappingNegativeExample() {
+    assertRefactor(TypeReferenceNegativeExample.class,
+        Set.of(BulkTypeReferenceRefactor.forMapping(Map.of(
+          A.class.getName(), B.class.getName(),
+          "com.example.C", "com.example.D"))));
+  }
+
+
+  /**
+   * Changing several types in one file, where one of them is in the same package, so is not imported, and its new type
+   * has to be imported.
+   */
+  @Test
+  public void testChangeTypesAddsImportForTypeFromSamePackage() {
+    assertRefactor(BulkTypeReferenceExample.class,
+        Set.of(BulkTypeReferenceRefactor.forMapping(Map.of(
+          A.class.getName(), B.class.getName(),
+          EnumA.class.getName(), EnumB.class.getName(),
+          UpdateTypeToChangeExample.class.getName(), UpdatedTypeExampleAfter.class.getName()))));
+  }
+
+
+  @Test
+  public void testMappingFromCsvFile() throws IOException {
+    Path mappingFile = temporaryFolder.newFile("mapping.csv").toPath();
+    Files.write(mappingFile, List.of(
+      "# old type, new type",
+      A.class.getName() + ", " + B.class.getName(),
+      "",
+      EnumA.class.getName() + "," + EnumB.class.getName()));
+
+    BulkTypeReferenceRefactor refactor = BulkTypeReferenceRefactor.forMappingFile(mappingFile);
+
+    assertEquals(Map.of(A.class.getName(), B.class.getName(), EnumA.class.getName(), EnumB.class.getName()), refactor.getMapping());
+    assertRefactor(TypeReferenceEnumExample.class, Set.of(refactor));
+  }
+
+
+  @Test
+  public void testMappingFromPropertiesFile() throws IOException {
+    Path mappingFile = temporaryFolder.newFile("mapping.properties").toPath();
+    Files.write(mappingFile, List.of(
+      "# old type = new type",
+      A.class.getName() + "=" + B.class.getName(),
+      "com.example.Outer$Inner = com.example.Outer$Renamed"));
+
+    assertEquals(Map.of(A.class.getName(), B.class.getName(), "com.example.Outer.Inner", "com.example.Outer.Renamed"),
+        BulkTypeReferenceRefactor.forMappingFile(mappingFile).getMapping());
+  }
+
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMappingWithoutNewTypeIsRejected() {
+    Map<String, String> mapping = new HashMap<>();
+    mapping.put(A.class.getName(), " ");
+    BulkTypeReferenceRefactor.forMapping(mapping);
+  }
+}
@@ -0,0 +1,359 @@
+package org.alfasoftware.astra.core.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for applying several use cases in one run, see {@link AstraCore#run(String, List)}.
+ */
+public class TestAstraCoreMultipleUseCases {
+
+  private Path tempDir;
+
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("astra-multiple-use-cases-test");
+  }
+
+
+  @After
+  public void tearDown() throws IOException {
+    Files.walk(tempDir)
+        .sorted(Comparator.reverseOrder())
+        .forEach(path -> path.toFile().delete());
+  }
+
+
+  /**
+   * Each file is parsed once for all the use cases, and each use case sees the content as changed by those before it.
+   */
+  @Test
+  public void testUseCasesAreAppliedInTurnToTheChangedContent() throws IOException {
+    Path renamed = tempDir.resolve("Renamed.java");
+    Files.writeString(renamed, "package sample;\n\npublic class Renamed {\n  int first;\n}\n");
+    Files.writeString(tempDir.resolve("Other.java"), "package sample;\n\npublic class Other {\n  int other;\n}\n");
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), List.of(
+        useCase(rename("first", "second")),
+        useCase(rename("second", "third"))));
+
+    assertEquals("package sample;\n\npublic class Renamed {\n  int third;\n}\n", Files.readString(renamed));
+    assertEquals("Each file is parsed once", 2, statistics.getFilesParsed());
+    assertEquals(1, statistics.getFilesChanged());
+  }
+
+
+  /**
+   * The files are selected for each use case by its own prefilters, whichever other use case they were read for.
+   */
+  @Test
+  public void testEachUseCaseOnlyVisitsItsOwnFiles() throws IOException {
+    Files.createDirectories(tempDir.resolve("generated"));
+    Files.writeString(tempDir.resolve("Named.java"), "public class Named {}");
+    Files.writeString(tempDir.resolve("Mentions.java"), "public class Mentions { String token; }");
+    Files.writeString(tempDir.resolve("generated/Generated.java"), "public class Generated { String token; }");
+
+    Set<String> visitedByPathUseCase = ConcurrentHashMap.newKeySet();
+    Set<String> visitedByContentUseCase = ConcurrentHashMap.newKeySet();
+    UseCase pathUseCase = new UseCase() {
+      @Override
+      public Predicate<String> getPrefilteringPredicate() {
+        return path -> path.endsWith("Named.java") || path.endsWith("Generated.java");
+      }
+
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(recordTypes(visitedByPathUseCase));
+      }
+    };
+    UseCase contentUseCase = new UseCase() {
+      @Override
+      public Predicate<String> getContentPrefilteringPredicate() {
+        return content -> content.contains("token");
+      }
+
+      @Override
+      public Set<String> getExcludedDirectoryGlobs() {
+        return Set.of("generated");
+      }
+
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(recordTypes(visitedByContentUseCase));
+      }
+    };
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), List.of(pathUseCase, contentUseCase));
+
+    assertEquals(Set.of("Named", "Generated"), visitedByPathUseCase);
+    assertEquals(Set.of("Mentions"), visitedByContentUseCase);
+    assertEquals(3, statistics.getFilesScanned());
+  }
+
+
+  /**
+   * A directory excluded by every use case is not walked.
+   */
+  @Test
+  public void testDirectoryExcludedByEveryUseCaseIsNotWalked() throws IOException {
+    Files.createDirectories(tempDir.resolve("target"));
+    Files.writeString(tempDir.resolve("Source.java"), "public class Source {}");
+    Files.writeString(tempDir.resolve("target/Output.java"), "public class Output {}");
+
+    Set<String> visited = ConcurrentHashMap.newKeySet();
+    UseCase excludesTarget = new UseCase() {
+      @Override
+      public Set<String> getExcludedDirectoryGlobs() {
+        return Set.of("target");
+      }
+
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(recordTypes(visited));
+      }
+    };
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), List.of(excludesTarget, excludesTarget));
+
+    assertEquals(Set.of("Source"), visited);
+    assertEquals(1, statistics.getFilesScanned());
+    assertTrue(Files.exists(tempDir.resolve("target/Output.java")));
+  }
+
+
+  /**
+   * The shortest file timeout of the use cases is used for the run, whichever use case sets it, and a file which
+   * runs out of time is left as it was by the use cases after it.
+   */
+  @Test
+  public void testShortestFileTimeoutIsUsed() throws IOException {
+    Files.writeString(tempDir.resolve("Quick.java"), "public class Quick {\n  int before;\n}\n");
+    Files.writeString(tempDir.resolve("Slow.java"), "public class Slow {\n  int before;\n}\n");
+    UseCase slowUseCase = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((cu, node, rewriter) -> {
+          if (node instanceof TypeDeclaration && ((TypeDeclaration) node).getName().getIdentifier().equals("Slow")) {
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (System.nanoTime() < end) {
+              Thread.onSpinWait();
+            }
+          }
+        });
+      }
+
+      @Override
+      public int getParallelism() {
+        return 2;
+      }
+
+      @Override
+      public Optional<Duration> getFileTimeout() {
+        return Optional.of(Duration.ofHours(1));
+      }
+    };
+    UseCase renameUseCase = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(rename("before", "after"));
+      }
+
+      @Override
+      public Optional<Duration> getFileTimeout() {
+        return Optional.of(Duration.ofMillis(300));
+      }
+    };
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), List.of(slowUseCase, renameUseCase));
+
+    assertEquals(1, statistics.getFilesTimedOut());
+    assertEquals(1, statistics.getFilesChanged());
+    assertTrue(Files.readString(tempDir.resolve("Quick.java")).contains("int after;"));
+    assertTrue(Files.readString(tempDir.resolve("Slow.java")).contains("int before;"));
+  }
+
+
+  /**
+   * The smallest time budget of the use cases is used for the run, whichever use case sets it.
+   */
+  @Test
+  public void testSmallestTimeBudgetIsUsed() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      Files.writeString(tempDir.resolve("Budgeted" + i + ".java"), "public class Budgeted" + i + " {}");
+    }
+    Set<String> visited = ConcurrentHashMap.newKeySet();
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), List.of(
+        withTimeBudget(recordTypes(visited), Optional.of(Duration.ofHours(1))),
+        withTimeBudget(recordTypes(visited), Optional.of(Duration.ZERO))));
+
+    assertTrue(statistics.isStoppedByTimeBudget());
+    assertEquals("The run should stop after its first chunk", 1, visited.size());
+  }
+
+
+  /**
+   * The journal file of the first use case which has one is used for the run, so a run stopped by its time budget
+   * resumes after the files it completed.
+   */
+  @Test
+  public void testFirstJournalFileIsUsed() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      Files.writeString(tempDir.resolve("Journaled" + i + ".java"), "public class Journaled" + i + " {\n  int before;\n}\n");
+    }
+    Path journalFile = tempDir.resolve("journal").resolve("astra-run-journal.txt");
+    Path unusedJournalFile = tempDir.resolve("journal").resolve("unused-run-journal.txt");
+    AtomicReference<Optional<Duration>> timeBudget = new AtomicReference<>(Optional.of(Duration.ZERO));
+    Set<String> visited = ConcurrentHashMap.newKeySet();
+    UseCase budgetUseCase = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(recordTypes(visited));
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 1;
+      }
+
+      @Override
+      public Optional<Duration> getTimeBudget() {
+        return timeBudget.get();
+      }
+
+      @Override
+      public Optional<String> getRunCacheIdentity() {
+        return Optional.of("budget");
+      }
+    };
+    List<UseCase> useCases = List.of(budgetUseCase, withJournalFile(journalFile), withJournalFile(unusedJournalFile));
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), useCases);
+    assertTrue(statistics.isStoppedByTimeBudget());
+    assertTrue("The journal should be left to resume from", Files.isRegularFile(journalFile));
+    assertFalse(Files.exists(unusedJournalFile));
+
+    visited.clear();
+    timeBudget.set(Optional.empty());
+    statistics = AstraCore.run(tempDir.toString(), useCases);
+    assertEquals("The resumed run should only visit the files left", 2, visited.size());
+    assertEquals(1, statistics.getFilesSkippedCompleted());
+    assertFalse("The journal should be deleted once the run is complete", Files.exists(journalFile));
+    for (int i = 0; i < 3; i++) {
+      assertTrue(Files.readString(tempDir.resolve("Journaled" + i + ".java")).contains("int after;"));
+    }
+  }
+
+
+  /**
+   * A use case which asks for worker JVMs cannot be run together with others, as each worker creates its use case
+   * again on its own.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testUseCaseWithWorkerProcessesIsRejected() {
+    UseCase forked = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(rename("before", "after"));
+      }
+
+      @Override
+      public int getWorkerProcesses() {
+        return 2;
+      }
+    };
+
+    AstraCore.run(tempDir.toString(), List.of(useCase(rename("first", "second")), forked));
+  }
+
+
+  private static UseCase useCase(ASTOperation operation) {
+    return () -> Set.of(operation);
+  }
+
+
+  private static UseCase withTimeBudget(ASTOperation operation, Optional<Duration> timeBudget) {
+    return new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(operation);
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 1;
+      }
+
+      @Override
+      public Optional<Duration> getTimeBudget() {
+        return timeBudget;
+      }
+    };
+  }
+
+
+  private static UseCase withJournalFile(Path journalFile) {
+    return new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(rename("before", "after"));
+      }
+
+      @Override
+      public Optional<Path> getJournalFile() {
+        return Optional.of(journalFile);
+      }
+
+      @Override
+      public Optional<String> getRunCacheIdentity() {
+        return Optional.of("rename");
+      }
+    };
+  }
+
+
+  private static ASTOperation rename(String from, String to) {
+    return new ASTOperation() {
+      @Override
+      public void run(CompilationUnit cu, ASTNode node, ASTRewrite rewriter) {
+        if (node instanceof SimpleName && ((SimpleName) node).getIdentifier().equals(from)) {
+          rewriter.set(node, SimpleName.IDENTIFIER_PROPERTY, to, null);
+        }
+      }
+    };
+  }
+
+
+  private static ASTOperation recordTypes(Set<String> visitedTypes) {
+    return (cu, node, rewriter) -> {
+      if (node instanceof TypeDeclaration) {
+        visitedTypes.add(((TypeDeclaration) node).getName().getIdentifier());
+      }
+    };
+  }
+}
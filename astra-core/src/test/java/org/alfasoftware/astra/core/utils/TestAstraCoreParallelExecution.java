@@ -6,19 +6,35 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -199,6 +215,206 @@ public class TestAstraCoreParallelExecution {
   }
 
 
+  /**
+   * Verifies that an operation declaring its handled node types via {@link ASTOperation#getHandledNodeTypes()}
+   * is only passed nodes of those types, while an operation using the default is still passed every visited node.
+   */
+  @Test
+  public void testOperationsOnlyReceiveHandledNodeTypes() throws IOException {
+    Files.writeString(tempDir.resolve("Dispatch.java"),
+        "public class Dispatch {\n"
+        + "  void foo() { bar(); }\n"
+        + "  void bar() {}\n"
+        + "}");
+
+    Set<Class<?>> restrictedNodeTypes = ConcurrentHashMap.newKeySet();
+    Set<Class<?>> defaultNodeTypes = ConcurrentHashMap.newKeySet();
+
+    ASTOperation restricted = new ASTOperation() {
+      @Override
+      public void run(CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter) {
+        restrictedNodeTypes.add(node.getClass());
+      }
+
+      @Override
+      public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+        return Set.of(MethodInvocation.class);
+      }
+    };
+    ASTOperation unrestricted = (compilationUnit, node, rewriter) -> defaultNodeTypes.add(node.getClass());
+
+    AstraCore.run(tempDir.toString(), useCase(1, restricted, unrestricted));
+
+    assertEquals("Operation should only be passed the node types it handles",
+        Set.of(MethodInvocation.class), restrictedNodeTypes);
+    assertTrue("Operation using the default should be passed every visited node type",
+        defaultNodeTypes.containsAll(Set.of(TypeDeclaration.class, MethodDeclaration.class, MethodInvocation.class, SimpleName.class)));
+  }
+
+
+  /**
+   * Verifies that the next chunk is parsed while operations are still being applied to the current one.
+   * With a batch size of 1, the operation applied to the first file waits until the second chunk's
+   * parse has started, which would never happen if chunks were processed strictly one after another.
+   */
+  @Test
+  public void testNextChunkIsParsedWhileCurrentChunkIsApplied() throws IOException {
+    writeJavaClasses("Pipelined", 2);
+
+    List<String> events = new CopyOnWriteArrayList<>();
+    Set<Path> overlapped = ConcurrentHashMap.newKeySet();
+    Set<Path> processedFiles = ConcurrentHashMap.newKeySet();
+
+    ASTOperation waitForNextChunk = (compilationUnit, node, rewriter) -> {
+      Path path = visitedPath(compilationUnit);
+      if (processedFiles.add(path) && processedFiles.size() == 1) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+          if (events.stream().anyMatch(event -> event.contains("Batch parsing chunk [2/2]"))) {
+            overlapped.add(path);
+            return;
+          }
+          Thread.onSpinWait();
+        }
+      }
+    };
+
+    UseCase useCase = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(waitForNextChunk);
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 1;
+      }
+    };
+
+    captureAstraLogs(events, () -> AstraCore.run(tempDir.toString(), useCase));
+
+    assertEquals("Both files should be processed", 2, processedFiles.size());
+    assertEquals("The second chunk should be parsed while the first is being applied", 1, overlapped.size());
+  }
+
+
+  /**
+   * The files of a chunk are submitted largest first, so that a large file is not left running on its own at the
+   * end of the chunk.
+   */
+  @Test
+  public void testLargestFilesAreAppliedFirst() throws IOException {
+    int[] fields = { 2, 40, 0, 15, 7 };
+    for (int i = 0; i < fields.length; i++) {
+      Files.writeString(tempDir.resolve("Sized" + i + ".java"), "public class Sized" + i + " {\n" + "  int field;\n".repeat(fields[i]) + "}\n");
+    }
+
+    List<String> visited = new CopyOnWriteArrayList<>();
+    AstraCore.run(tempDir.toString(), useCase(1, (compilationUnit, node, rewriter) -> {
+      if (node instanceof TypeDeclaration) {
+        visited.add(((TypeDeclaration) node).getName().getIdentifier());
+      }
+    }));
+
+    assertEquals(List.of("Sized1", "Sized3", "Sized4", "Sized0", "Sized2"), visited);
+  }
+
+
+  /**
+   * Parse shards are contiguous, and split so that each holds a similar number of bytes.
+   */
+  @Test
+  public void testParseShardsHoldSimilarSizes() throws IOException {
+    List<Path> paths = new ArrayList<>();
+    int[] sizes = { 100, 100, 100, 100, 100, 100, 5000, 100 };
+    for (int i = 0; i < sizes.length; i++) {
+      Path path = tempDir.resolve("Shard" + i + ".java");
+      Files.writeString(path, " ".repeat(sizes[i]));
+      paths.add(path);
+    }
+
+    List<List<Path>> shards = AstraCore.contiguousShardsBySize(paths, 2);
+
+    assertEquals(List.of(paths.subList(0, 7), paths.subList(7, 8)), shards);
+    assertEquals("Every shard has a file", 3, AstraCore.contiguousShardsBySize(paths.subList(5, 8), 3).size());
+  }
+
+
+  /**
+   * A file which takes longer than the file timeout is skipped, without waiting for it, even if the operation ignores
+   * the interrupt, and is neither written nor counted as failed.
+   */
+  @Test
+  public void testFileWhichRunsOutOfTimeIsSkipped() throws IOException {
+    for (String name : List.of("Quick1", "Slow", "Quick2")) {
+      Files.writeString(tempDir.resolve(name + ".java"), "public class " + name + " {\n  int before;\n}\n");
+    }
+    AtomicBoolean spinning = new AtomicBoolean();
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((compilationUnit, node, rewriter) -> {
+          if (node instanceof TypeDeclaration && ((TypeDeclaration) node).getName().getIdentifier().equals("Slow")) {
+            spinning.set(true);
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (System.nanoTime() < end) {
+              Thread.onSpinWait();
+            }
+            spinning.set(false);
+          }
+          if (node instanceof SimpleName && ((SimpleName) node).getIdentifier().equals("before")) {
+            rewriter.set(node, SimpleName.IDENTIFIER_PROPERTY, "after", null);
+          }
+        });
+      }
+
+      @Override
+      public int getParallelism() {
+        return 2;
+      }
+
+      @Override
+      public Optional<Duration> getFileTimeout() {
+        return Optional.of(Duration.ofMillis(300));
+      }
+    });
+
+    assertTrue("The run should not wait for the file which ran out of time", spinning.get());
+    assertEquals(1, statistics.getFilesTimedOut());
+    assertEquals(0, statistics.getFilesFailed());
+    assertEquals(2, statistics.getFilesChanged());
+    assertTrue(Files.readString(tempDir.resolve("Quick1.java")).contains("int after;"));
+    assertTrue(Files.readString(tempDir.resolve("Quick2.java")).contains("int after;"));
+    assertTrue(Files.readString(tempDir.resolve("Slow.java")).contains("int before;"));
+  }
+
+
+  /**
+   * A file whose thread is interrupted while it is written, as it is when the file runs out of time, keeps its old
+   * content, and no temporary file is left behind.
+   */
+  @Test
+  public void testInterruptedWriteLeavesFileAsItWas() throws IOException {
+    Path file = Files.writeString(tempDir.resolve("Interrupted.java"), "public class Interrupted {}");
+
+    Thread.currentThread().interrupt();
+    try {
+      AstraCore.replaceFile(file, "public class Interrupted { int field; }");
+      fail("Expected the interrupted write to fail");
+    } catch (ClosedByInterruptException | CancellationException e) {
+      // Expected
+    } finally {
+      Thread.interrupted();
+    }
+
+    assertEquals("public class Interrupted {}", Files.readString(file));
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertEquals(List.of(file), files.collect(Collectors.toList()));
+    }
+  }
+
+
   /**
    * Writes {@code count} trivial Java classes named {@code <prefix>1.java} .. {@code <prefix><count>.java}
    * into the temp directory.
@@ -268,6 +484,15 @@ public class TestAstraCoreParallelExecution {
    */
   private static List<String> captureAstraLogs(Runnable action) throws IOException {
     List<String> events = new CopyOnWriteArrayList<>();
+    captureAstraLogs(events, action);
+    return events;
+  }
+
+
+  /**
+   * Captures the {@code INFO}-level log events emitted by {@link AstraCore} into {@code events} while {@code action} runs.
+   */
+  private static void captureAstraLogs(List<String> events, Runnable action) {
     AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
       @Override
       protected void append(ILoggingEvent event) {
@@ -287,6 +512,5 @@ public class TestAstraCoreParallelExecution {
       astraLogger.setLevel(previousLevel);
       appender.stop();
     }
-    return events;
   }
 }
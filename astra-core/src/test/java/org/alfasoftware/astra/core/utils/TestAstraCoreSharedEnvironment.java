@@ -7,20 +7,39 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.alfasoftware.astra.core.refactoring.UseCase;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
 import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -311,6 +330,988 @@ public class TestAstraCoreSharedEnvironment {
   }
 
 
+  /**
+   * Verifies that a chunk which runs out of memory is read and parsed again with half as many files,
+   * rather than failing the run. The first read of {@code Chunked3} runs out of memory, so the first
+   * chunk of {@code 5} files is retried with {@code 2}, and every file is still visited once.
+   */
+  @Test
+  public void testChunkRunningOutOfMemoryIsRetriedWithHalfTheFiles() throws IOException {
+    int fileCount = 7;
+    for (int i = 1; i <= fileCount; i++) {
+      Files.writeString(tempDir.resolve("Chunked" + i + ".java"),
+          "public class Chunked" + i + " {}");
+    }
+
+    Set<Path> visited = ConcurrentHashMap.newKeySet();
+    AtomicBoolean outOfMemory = new AtomicBoolean();
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((cu, node, rewriter) -> visited.add((Path) cu.getProperty(CompilationUnitProperty.ABSOLUTE_PATH)));
+      }
+
+      @Override
+      public Predicate<String> getContentPrefilteringPredicate() {
+        return content -> {
+          if (content.contains("Chunked3") && !outOfMemory.getAndSet(true)) {
+            throw new OutOfMemoryError("Intentional test failure");
+          }
+          return true;
+        };
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 5;
+      }
+    });
+
+    assertTrue(outOfMemory.get());
+    assertEquals("All files should be visited once the chunk is retried", fileCount, visited.size());
+    assertEquals(fileCount, statistics.getFilesParsed());
+  }
+
+
+  /**
+   * Verifies that a file which runs out of memory while the operations are applied is applied again on its own, once
+   * the rest of its chunk is done, rather than failing. The operations run out of memory on the first visit of
+   * {@code Heavy2} only, so its retry renames the field like every other file.
+   */
+  @Test
+  public void testFileRunningOutOfMemoryWhileAppliedIsRetriedOnItsOwn() throws IOException {
+    int fileCount = 4;
+    for (int i = 1; i <= fileCount; i++) {
+      Files.writeString(tempDir.resolve("Heavy" + i + ".java"), "public class Heavy" + i + " {\n  int before;\n}\n");
+    }
+    AtomicBoolean outOfMemory = new AtomicBoolean();
+    ASTOperation rename = renameField("before", "after");
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+          if (node instanceof TypeDeclaration && ((TypeDeclaration) node).getName().getIdentifier().equals("Heavy2")
+              && !outOfMemory.getAndSet(true)) {
+            throw new OutOfMemoryError("Intentional test failure");
+          }
+          rename.run(cu, node, rewriter);
+        });
+      }
+
+      @Override
+      public int getParallelism() {
+        return 2;
+      }
+    });
+
+    assertTrue(outOfMemory.get());
+    assertEquals(0, statistics.getFilesFailed());
+    assertEquals(fileCount, statistics.getFilesChanged());
+    for (int i = 1; i <= fileCount; i++) {
+      assertTrue(Files.readString(tempDir.resolve("Heavy" + i + ".java")).contains("int after;"));
+    }
+  }
+
+
+  /**
+   * Verifies that a file which still runs out of memory when the operations are applied to it on its own is reported
+   * as a failure of that file, and left as it was, while the rest of the chunk is processed.
+   */
+  @Test
+  public void testFileRunningOutOfMemoryOnItsOwnFails() throws IOException {
+    int fileCount = 3;
+    for (int i = 1; i <= fileCount; i++) {
+      Files.writeString(tempDir.resolve("Heavy" + i + ".java"), "public class Heavy" + i + " {\n  int before;\n}\n");
+    }
+    ASTOperation rename = renameField("before", "after");
+
+    try {
+      AstraCore.run(tempDir.toString(), new UseCase() {
+        @Override
+        public Set<? extends ASTOperation> getOperations() {
+          return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+            if (node instanceof TypeDeclaration && ((TypeDeclaration) node).getName().getIdentifier().equals("Heavy2")) {
+              throw new OutOfMemoryError("Intentional test failure");
+            }
+            rename.run(cu, node, rewriter);
+          });
+        }
+      });
+      fail("Expected the file which ran out of memory on its own to fail the run");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("1 file(s) failed"));
+      assertTrue(e.getCause().getSuppressed()[0].getMessage().startsWith("Ran out of memory applying operations to file"));
+    }
+
+    assertTrue(Files.readString(tempDir.resolve("Heavy1.java")).contains("int after;"));
+    assertTrue(Files.readString(tempDir.resolve("Heavy2.java")).contains("int before;"));
+    assertTrue(Files.readString(tempDir.resolve("Heavy3.java")).contains("int after;"));
+  }
+
+
+  /**
+   * Verifies that every file is visited when each chunk is sized from the free heap.
+   */
+  @Test
+  public void testAdaptiveBatchingVisitsAllFiles() throws IOException {
+    int fileCount = 7;
+    for (int i = 1; i <= fileCount; i++) {
+      Files.writeString(tempDir.resolve("Adaptive" + i + ".java"),
+          "public class Adaptive" + i + " {}");
+    }
+
+    Set<Path> visited = ConcurrentHashMap.newKeySet();
+
+    AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((cu, node, rewriter) -> visited.add((Path) cu.getProperty(CompilationUnitProperty.ABSOLUTE_PATH)));
+      }
+
+      @Override
+      public boolean isBatchSizeAdaptive() {
+        return true;
+      }
+    });
+
+    assertEquals("All files should be visited", fileCount, visited.size());
+  }
+
+
+  /**
+   * Verifies that sharding each chunk across several concurrent batch parsers still visits every
+   * file exactly once, with bindings resolved, when the shards are merged back together. The test
+   * uses {@code 7} files, a batch size of {@code 5} and a parse parallelism of {@code 3}, so the
+   * first chunk is split into uneven shards and the second chunk into fewer shards than parsers.
+   */
+  @Test
+  public void testShardedBatchParsingVisitsAllFilesWithBindings() throws IOException {
+    int fileCount = 7;
+    for (int i = 1; i <= fileCount; i++) {
+      Files.writeString(tempDir.resolve("Sharded" + i + ".java"),
+          "import java.util.List;\n"
+          + "public class Sharded" + i + " {\n"
+          + "  List<String> items;\n"
+          + "}");
+    }
+
+    Set<Path> resolved = ConcurrentHashMap.newKeySet();
+
+    AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+          if (node instanceof FieldDeclaration) {
+            ITypeBinding binding = ((FieldDeclaration) node).getType().resolveBinding();
+            if (binding != null && !binding.isRecovered()
+                && binding.getErasure().getQualifiedName().equals("java.util.List")) {
+              resolved.add((Path) cu.getProperty(CompilationUnitProperty.ABSOLUTE_PATH));
+            }
+          }
+        });
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 5;
+      }
+
+      @Override
+      public int getParseParallelism() {
+        return 3;
+      }
+    });
+
+    assertEquals("Every file should be parsed, with bindings resolved, across all shards", fileCount, resolved.size());
+  }
+
+
+  /**
+   * The shared classpath relies on JDT internals: the compilation unit resolver behind {@code ASTParser}, found by
+   * reflection, and the batch compiler's {@code ClasspathJar}. Without them, batch parses silently fall back to setting
+   * up the classpath for each chunk, so this fails if an upgrade of JDT breaks either.
+   */
+  @Test
+  public void testBatchParseUsesSharedClassPathArchive() throws IOException, URISyntaxException {
+    assertTrue("The JDT compilation unit resolver was not found; check ASTParser.unitResolver after upgrading JDT",
+        SharedCompilationEnvironment.isClasspathShared());
+
+    Path file = tempDir.resolve("Archived.java");
+    Files.writeString(file, "import org.junit.Assert;\npublic class Archived {\n  Assert assertions;\n}");
+    String junitJar = Paths.get(Assert.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    Set<String> resolved = ConcurrentHashMap.newKeySet();
+    try (SharedCompilationEnvironment environment = new SharedCompilationEnvironment(new String[0], new String[] { junitJar })) {
+      environment.createASTs(new String[] { file.toString() }, new FileASTRequestor() {
+        @Override
+        public void acceptAST(String sourceFilePath, CompilationUnit ast) {
+          ITypeBinding binding = ((FieldDeclaration) ((TypeDeclaration) ast.types().get(0)).bodyDeclarations().get(0))
+              .getType().resolveBinding();
+          if (binding != null && !binding.isRecovered()) {
+            resolved.add(binding.getQualifiedName());
+          }
+        }
+      });
+
+      assertEquals(Set.of("org.junit.Assert"), resolved);
+      assertTrue("Types should be looked up in the shared classpath archive", environment.getNumberOfCachedClassFiles() > 0);
+    }
+  }
+
+
+  /**
+   * Verifies that types in a JAR on the classpath resolve in every chunk, and every shard of a chunk, when the JAR is
+   * opened once and shared by all the batch parses of the run.
+   */
+  @Test
+  public void testClassPathArchiveIsSharedAcrossChunks() throws IOException, URISyntaxException {
+    String junitJar = Paths.get(Assert.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    try (SharedCompilationEnvironment environment = new SharedCompilationEnvironment(new String[0], new String[] { junitJar })) {
+      assertEquals(1, environment.getNumberOfSharedArchives());
+    }
+
+    int fileCount = 7;
+    for (int i = 1; i <= fileCount; i++) {
+      Files.writeString(tempDir.resolve("Archived" + i + ".java"),
+          "import org.junit.Assert;\n"
+          + "public class Archived" + i + " {\n"
+          + "  Assert assertions;\n"
+          + "}");
+    }
+
+    Set<Path> resolved = ConcurrentHashMap.newKeySet();
+
+    AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+          if (node instanceof FieldDeclaration) {
+            ITypeBinding binding = ((FieldDeclaration) node).getType().resolveBinding();
+            if (binding != null && !binding.isRecovered() && binding.getQualifiedName().equals("org.junit.Assert")) {
+              resolved.add((Path) cu.getProperty(CompilationUnitProperty.ABSOLUTE_PATH));
+            }
+          }
+        });
+      }
+
+      @Override
+      public String[] getClassPath() {
+        return new String[] { junitJar };
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 3;
+      }
+
+      @Override
+      public int getParseParallelism() {
+        return 2;
+      }
+    });
+
+    assertEquals("Types from the classpath archive should resolve in every chunk", fileCount, resolved.size());
+  }
+
+
+  /**
+   * Verifies that unused imports are removed from files changed by the batch path, where the
+   * changed files of a chunk are re-parsed together for import cleanup. Removing the only field
+   * using {@code ArrayList} should remove its import, while the still-used {@code List} import and
+   * the unchanged file are left alone.
+   */
+  @Test
+  public void testChangedFilesHaveUnusedImportsRemoved() throws IOException {
+    Path changedFile = tempDir.resolve("Changed.java");
+    Files.writeString(changedFile,
+        "package sample;\n"
+        + "\n"
+        + "import java.util.ArrayList;\n"
+        + "import java.util.List;\n"
+        + "\n"
+        + "public class Changed {\n"
+        + "  List<String> kept;\n"
+        + "  ArrayList<String> removed;\n"
+        + "}\n");
+    String unchangedContent =
+        "package sample;\n"
+        + "\n"
+        + "import java.util.ArrayList;\n"
+        + "\n"
+        + "public class Unchanged {\n"
+        + "}\n";
+    Path unchangedFile = tempDir.resolve("Unchanged.java");
+    Files.writeString(unchangedFile, unchangedContent);
+
+    AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+          if (node instanceof FieldDeclaration && node.toString().contains("removed")) {
+            rewriter.remove(node, null);
+          }
+        });
+      }
+    });
+
+    String changedContent = Files.readString(changedFile);
+    assertFalse("Import made unused by the change should be removed", changedContent.contains("import java.util.ArrayList;"));
+    assertTrue("Import still in use should be kept", changedContent.contains("import java.util.List;"));
+    assertFalse("Field should be removed", changedContent.contains("removed"));
+    assertEquals("Files not changed by the operations should not have imports cleaned up",
+        unchangedContent, Files.readString(unchangedFile));
+  }
+
+
+  /**
+   * When every operation declares the tokens it requires, files containing none of them are
+   * skipped before parsing, even though the use case has no content prefiltering predicate.
+   */
+  @Test
+  public void testFilesWithoutRequiredTokensAreSkipped() throws IOException {
+    Files.writeString(tempDir.resolve("Mentions.java"), "package sample;\n\npublic class Mentions {\n  int wanted;\n}\n");
+    Files.writeString(tempDir.resolve("Ignored.java"), "package sample;\n\npublic class Ignored {\n}\n");
+
+    Set<String> visitedTypes = ConcurrentHashMap.newKeySet();
+    AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(new ASTOperation() {
+          @Override
+          public Optional<Set<String>> getRequiredContentTokens() {
+            return Optional.of(Set.of("wanted"));
+          }
+
+          @Override
+          public void run(CompilationUnit cu, ASTNode node, ASTRewrite rewriter) {
+            if (node instanceof TypeDeclaration) {
+              visitedTypes.add(((TypeDeclaration) node).getName().getIdentifier());
+            }
+          }
+        });
+      }
+    });
+
+    assertEquals("Only the file containing the required token should be parsed", Set.of("Mentions"), visitedTypes);
+  }
+
+
+  /**
+   * Names in static imports of methods declared in the source path can be resolved after the batch parse
+   * which produced their compilation unit has finished.
+   */
+  @Test
+  public void testStaticImportBindingsResolveAfterBatchParse() throws IOException {
+    Files.createDirectories(tempDir.resolve("api"));
+    Files.writeString(tempDir.resolve("api/Service.java"),
+        "package api;\n\npublic class Service {\n  public static String format(int value) {\n    return \"\" + value;\n  }\n}\n");
+    Files.createDirectories(tempDir.resolve("user"));
+    Files.writeString(tempDir.resolve("user/User.java"),
+        "package user;\n\nimport static api.Service.format;\n\npublic class User {\n  String s = format(1);\n}\n");
+
+    Set<String> resolvedImports = ConcurrentHashMap.newKeySet();
+    AstraCore.run(tempDir.resolve("user").toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(new ASTOperation() {
+          @Override
+          public Set<Class<? extends ASTNode>> getHandledNodeTypes() {
+            return Set.of(ImportDeclaration.class);
+          }
+
+          @Override
+          public void run(CompilationUnit cu, ASTNode node, ASTRewrite rewriter) {
+            IBinding binding = ((ImportDeclaration) node).getName().resolveBinding();
+            if (binding != null) {
+              resolvedImports.add(binding.getName());
+            }
+          }
+        });
+      }
+
+      @Override
+      public String[] getSources() {
+        return new String[] { tempDir.toString() };
+      }
+    });
+
+    assertEquals(Set.of("format"), resolvedImports);
+  }
+
+
+  /**
+   * A run returns counts of the files it processed, and timings for each operation class.
+   */
+  @Test
+  public void testRunReturnsStatistics() throws IOException {
+    Files.writeString(tempDir.resolve("Mentions.java"), "package sample;\n\npublic class Mentions {\n  int wanted;\n}\n");
+    Files.writeString(tempDir.resolve("Ignored.java"), "package sample;\n\npublic class Ignored {\n}\n");
+
+    ASTOperation renameField = new ASTOperation() {
+      @Override
+      public Optional<Set<String>> getRequiredContentTokens() {
+        return Optional.of(Set.of("wanted"));
+      }
+
+      @Override
+      public void run(CompilationUnit cu, ASTNode node, ASTRewrite rewriter) {
+        if (node instanceof SimpleName && ((SimpleName) node).getIdentifier().equals("wanted")) {
+          rewriter.set(node, SimpleName.IDENTIFIER_PROPERTY, "renamed", null);
+        }
+      }
+    };
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(renameField);
+      }
+    });
+
+    assertEquals(2, statistics.getFilesScanned());
+    assertEquals(1, statistics.getFilesPrefiltered());
+    assertEquals(1, statistics.getFilesParsed());
+    assertEquals(1, statistics.getFilesChanged());
+    assertEquals(0, statistics.getFilesFailed());
+    assertTrue(statistics.getOperationStatistics().get(renameField.getClass().getName()).getInvocations() > 0);
+    assertTrue(statistics.toJson().contains("\"APPLY_OPERATIONS\": { \"wallMillis\": "));
+  }
+
+
+  /**
+   * With several rounds, operations are applied again to the files changed by the previous round, until a round
+   * changes nothing, so that an operation can act on code written by another.
+   */
+  @Test
+  public void testRoundsReprocessChangedFilesUntilNothingChanges() throws IOException {
+    Path cascading = tempDir.resolve("Cascading.java");
+    Files.writeString(cascading, "package sample;\n\npublic class Cascading {\n  int first;\n}\n");
+    Files.writeString(tempDir.resolve("Other.java"), "package sample;\n\npublic class Other {\n}\n");
+
+    Set<ASTOperation> operations = Set.of(renameField("first", "second"), renameField("second", "third"));
+    AstraCore.run(tempDir.toString(), () -> operations);
+    assertTrue("A single round only applies the first rename", Files.readString(cascading).contains("int second;"));
+
+    Files.writeString(cascading, "package sample;\n\npublic class Cascading {\n  int first;\n}\n");
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return operations;
+      }
+
+      @Override
+      public int getMaximumRounds() {
+        return 5;
+      }
+    });
+
+    assertTrue("The second round applies the second rename", Files.readString(cascading).contains("int third;"));
+    assertEquals("Both files are parsed in the first round, and only the changed file in the second and third", 4,
+        statistics.getFilesParsed());
+    assertEquals(1, statistics.getFilesChanged());
+  }
+
+
+  /**
+   * Builds a use case renaming the field {@code before} to {@code to}, journaled in {@code journalFile}, one file per
+   * chunk. Every use case built here is of the same class.
+   */
+  private static UseCase journaledRename(Path journalFile, String to, Optional<String> identity, Optional<Duration> timeBudget) {
+    return new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(renameField("before", to));
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 1;
+      }
+
+      @Override
+      public Optional<Path> getJournalFile() {
+        return Optional.of(journalFile);
+      }
+
+      @Override
+      public Optional<String> getRunCacheIdentity() {
+        return identity;
+      }
+
+      @Override
+      public Optional<Duration> getTimeBudget() {
+        return timeBudget;
+      }
+    };
+  }
+
+
+  private static ASTOperation renameField(String from, String to) {
+    return (cu, node, rewriter) -> {
+      if (node instanceof SimpleName && ((SimpleName) node).getIdentifier().equals(from)) {
+        rewriter.set(node, SimpleName.IDENTIFIER_PROPERTY, to, null);
+      }
+    };
+  }
+
+
+  /**
+   * When no operation requires bindings, files are parsed syntactically only, but edits are still
+   * written and imports made unused by them are still removed.
+   */
+  @Test
+  public void testBindingFreeParsingWhenNoOperationRequiresBindings() throws IOException {
+    Path changedFile = tempDir.resolve("Changed.java");
+    Files.writeString(changedFile,
+        "package sample;\n"
+        + "\n"
+        + "import java.util.ArrayList;\n"
+        + "\n"
+        + "public class Changed {\n"
+        + "  ArrayList<String> removed;\n"
+        + "}\n");
+    Files.writeString(tempDir.resolve("Other.java"), "package sample;\n\npublic class Other {\n}\n");
+
+    Set<String> visitedTypes = ConcurrentHashMap.newKeySet();
+    Set<String> resolvedTypes = ConcurrentHashMap.newKeySet();
+    AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of(new ASTOperation() {
+          @Override
+          public boolean requiresBindings() {
+            return false;
+          }
+
+          @Override
+          public void run(CompilationUnit cu, ASTNode node, ASTRewrite rewriter) {
+            if (node instanceof TypeDeclaration) {
+              TypeDeclaration type = (TypeDeclaration) node;
+              visitedTypes.add(type.getName().getIdentifier());
+              if (type.resolveBinding() != null) {
+                resolvedTypes.add(type.getName().getIdentifier());
+              }
+            }
+            if (node instanceof FieldDeclaration && node.toString().contains("removed")) {
+              rewriter.remove(node, null);
+            }
+          }
+        });
+      }
+    });
+
+    assertEquals("Every file should be visited", Set.of("Changed", "Other"), visitedTypes);
+    assertTrue("Bindings should not be resolved", resolvedTypes.isEmpty());
+    String changedContent = Files.readString(changedFile);
+    assertFalse("Field should be removed", changedContent.contains("removed"));
+    assertFalse("Import made unused by the change should be removed", changedContent.contains("import java.util.ArrayList;"));
+  }
+
+
+  /**
+   * With a run cache configured, files which a previous run left unedited are skipped while their
+   * content is unchanged. Edited files, and files whose content has since changed, are processed again.
+   */
+  @Test
+  public void testRunCacheSkipsFilesUnchangedSinceLastRun() throws IOException {
+    Path editedFile = tempDir.resolve("Edited.java");
+    Files.writeString(editedFile, "package sample;\n\npublic class Edited {\n  int removed;\n}\n");
+    Path untouchedFile = tempDir.resolve("Untouched.java");
+    Files.writeString(untouchedFile, "package sample;\n\npublic class Untouched {\n}\n");
+    Path cacheFile = tempDir.resolve("cache").resolve("astra-run-cache.txt");
+
+    Set<String> visitedFiles = ConcurrentHashMap.newKeySet();
+    UseCase useCase = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+          if (node instanceof TypeDeclaration) {
+            visitedFiles.add(((TypeDeclaration) node).getName().getIdentifier());
+          }
+          if (node instanceof FieldDeclaration && node.toString().contains("removed")) {
+            rewriter.remove(node, null);
+          }
+        });
+      }
+
+      @Override
+      public Optional<Path> getRunCacheFile() {
+        return Optional.of(cacheFile);
+      }
+
+      @Override
+      public Optional<String> getRunCacheIdentity() {
+        return Optional.of("remove-fields-1");
+      }
+    };
+
+    AstraCore.run(tempDir.toString(), useCase);
+    assertEquals("First run should visit every file", 2, visitedFiles.size());
+    assertTrue("Run cache should have been written", Files.isRegularFile(cacheFile));
+
+    visitedFiles.clear();
+    AstraCore.run(tempDir.toString(), useCase);
+    assertEquals("Second run should only visit the file edited by the first run", 1, visitedFiles.size());
+    assertEquals(Set.of("Edited"), visitedFiles);
+
+    visitedFiles.clear();
+    AstraCore.run(tempDir.toString(), useCase);
+    assertTrue("Third run should skip every file", visitedFiles.isEmpty());
+
+    Files.writeString(untouchedFile, "package sample;\n\npublic class Untouched {\n  int kept;\n}\n");
+    AstraCore.run(tempDir.toString(), useCase);
+    assertEquals("A file whose content changed should be visited again", Set.of("Untouched"), visitedFiles);
+  }
+
+
+  /**
+   * The run cache is invalidated by a change to the run cache identity, and is not used at all without one, as it
+   * cannot tell otherwise whether the operations still match what they did.
+   */
+  @Test
+  public void testRunCacheIsKeyedByRunCacheIdentity() throws IOException {
+    Files.writeString(tempDir.resolve("Untouched.java"), "package sample;\n\npublic class Untouched {\n}\n");
+    Path cacheFile = tempDir.resolve("cache").resolve("astra-run-cache.txt");
+    AtomicReference<Optional<String>> identity = new AtomicReference<>(Optional.of("match-1"));
+
+    Set<String> visitedFiles = ConcurrentHashMap.newKeySet();
+    UseCase useCase = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+          if (node instanceof TypeDeclaration) {
+            visitedFiles.add(((TypeDeclaration) node).getName().getIdentifier());
+          }
+        });
+      }
+
+      @Override
+      public Optional<Path> getRunCacheFile() {
+        return Optional.of(cacheFile);
+      }
+
+      @Override
+      public Optional<String> getRunCacheIdentity() {
+        return identity.get();
+      }
+    };
+
+    AstraCore.run(tempDir.toString(), useCase);
+    visitedFiles.clear();
+    AstraCore.run(tempDir.toString(), useCase);
+    assertTrue("A run with the same identity should skip the unchanged file", visitedFiles.isEmpty());
+
+    identity.set(Optional.of("match-2"));
+    AstraCore.run(tempDir.toString(), useCase);
+    assertEquals("A run with a new identity should visit every file again", Set.of("Untouched"), visitedFiles);
+
+    Files.delete(cacheFile);
+    identity.set(Optional.empty());
+    visitedFiles.clear();
+    AstraCore.run(tempDir.toString(), useCase);
+    visitedFiles.clear();
+    AstraCore.run(tempDir.toString(), useCase);
+    assertEquals("Without an identity, the run cache should not be used", Set.of("Untouched"), visitedFiles);
+    assertFalse("Without an identity, the run cache should not be written", Files.exists(cacheFile));
+  }
+
+
+  /**
+   * A run stopped by its time budget leaves a journal of the chunks it completed, and running it again resumes
+   * after them, even for files the first run changed, then deletes the journal once every file is complete.
+   */
+  @Test
+  public void testRunStoppedByTimeBudgetResumesFromJournal() throws IOException {
+    for (int i = 0; i < 4; i++) {
+      Files.writeString(tempDir.resolve("Journaled" + i + ".java"), "public class Journaled" + i + " {\n  int before;\n}\n");
+    }
+    Path journalFile = tempDir.resolve("journal").resolve("astra-run-journal.txt");
+    AtomicReference<Optional<Duration>> timeBudget = new AtomicReference<>(Optional.of(Duration.ZERO));
+
+    Set<String> visitedFiles = ConcurrentHashMap.newKeySet();
+    ASTOperation rename = renameField("before", "after");
+    UseCase useCase = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+          if (node instanceof TypeDeclaration) {
+            visitedFiles.add(((TypeDeclaration) node).getName().getIdentifier());
+          }
+          rename.run(cu, node, rewriter);
+        });
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 1;
+      }
+
+      @Override
+      public Optional<Path> getJournalFile() {
+        return Optional.of(journalFile);
+      }
+
+      @Override
+      public Optional<String> getRunCacheIdentity() {
+        return Optional.of("journaled");
+      }
+
+      @Override
+      public Optional<Duration> getTimeBudget() {
+        return timeBudget.get();
+      }
+    };
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), useCase);
+    assertTrue(statistics.isStoppedByTimeBudget());
+    assertEquals("The run should stop after its first chunk", 1, visitedFiles.size());
+    assertTrue("The journal should be left to resume from", Files.isRegularFile(journalFile));
+
+    visitedFiles.clear();
+    timeBudget.set(Optional.empty());
+    statistics = AstraCore.run(tempDir.toString(), useCase);
+    assertFalse(statistics.isStoppedByTimeBudget());
+    assertEquals("The resumed run should only visit the files left", 3, visitedFiles.size());
+    assertEquals(1, statistics.getFilesSkippedCompleted());
+    assertFalse("The journal should be deleted once the run is complete", Files.exists(journalFile));
+    for (int i = 0; i < 4; i++) {
+      assertTrue(Files.readString(tempDir.resolve("Journaled" + i + ".java")).contains("int after;"));
+    }
+  }
+
+
+  /**
+   * With several rounds, a file changed by a run stopped by its time budget is still processed again in the next
+   * round of the resumed run, although its first round is skipped as completed.
+   */
+  @Test
+  public void testResumedRunProcessesFilesChangedByEarlierRunInNextRound() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      Files.writeString(tempDir.resolve("Cascading" + i + ".java"), "public class Cascading" + i + " {\n  int first;\n}\n");
+    }
+    Path journalFile = tempDir.resolve("journal").resolve("astra-run-journal.txt");
+    AtomicReference<Optional<Duration>> timeBudget = new AtomicReference<>(Optional.of(Duration.ZERO));
+    Set<ASTOperation> operations = Set.of(renameField("first", "second"), renameField("second", "third"));
+    UseCase useCase = new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return operations;
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 1;
+      }
+
+      @Override
+      public int getMaximumRounds() {
+        return 5;
+      }
+
+      @Override
+      public Optional<Path> getJournalFile() {
+        return Optional.of(journalFile);
+      }
+
+      @Override
+      public Optional<String> getRunCacheIdentity() {
+        return Optional.of("journaled");
+      }
+
+      @Override
+      public Optional<Duration> getTimeBudget() {
+        return timeBudget.get();
+      }
+    };
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), useCase);
+    assertTrue(statistics.isStoppedByTimeBudget());
+    assertEquals("The run should stop after its first chunk", 1, statistics.getFilesChanged());
+
+    timeBudget.set(Optional.empty());
+    statistics = AstraCore.run(tempDir.toString(), useCase);
+    assertEquals(1, statistics.getFilesSkippedCompleted());
+    assertFalse("The journal should be deleted once the run is complete", Files.exists(journalFile));
+    for (int i = 0; i < 3; i++) {
+      assertTrue("The second round applies the second rename to Cascading" + i,
+          Files.readString(tempDir.resolve("Cascading" + i + ".java")).contains("int third;"));
+    }
+  }
+
+
+  /**
+   * The journal is keyed by the run cache identity, so a differently configured use case of the same class, sharing
+   * the journal file, does not skip the files completed by the other, and is not used at all without an identity.
+   */
+  @Test
+  public void testJournalIsKeyedByRunCacheIdentity() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      Files.writeString(tempDir.resolve("Shared" + i + ".java"), "public class Shared" + i + " {\n  int before;\n}\n");
+    }
+    Path journalFile = tempDir.resolve("journal").resolve("astra-run-journal.txt");
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(),
+        journaledRename(journalFile, "after", Optional.of("rename-to-after"), Optional.of(Duration.ZERO)));
+    assertTrue(statistics.isStoppedByTimeBudget());
+    assertTrue("The journal should be left to resume from", Files.isRegularFile(journalFile));
+
+    statistics = AstraCore.run(tempDir.toString(),
+        journaledRename(journalFile, "renamed", Optional.of("rename-to-renamed"), Optional.empty()));
+    assertEquals("Files completed by another configuration should not be skipped", 0, statistics.getFilesSkippedCompleted());
+    assertEquals(2, statistics.getFilesChanged());
+    assertFalse("The journal should be deleted once the run is complete", Files.exists(journalFile));
+
+    statistics = AstraCore.run(tempDir.toString(),
+        journaledRename(journalFile, "after", Optional.empty(), Optional.of(Duration.ZERO)));
+    assertTrue(statistics.isStoppedByTimeBudget());
+    assertFalse("Without an identity, the journal should not be written", Files.exists(journalFile));
+  }
+
+
+  /**
+   * Files in directories excluded from the run are never read or visited, while files elsewhere
+   * are processed as usual.
+   */
+  @Test
+  public void testExcludedDirectoriesAreNotVisited() throws IOException {
+    Files.createDirectories(tempDir.resolve("src"));
+    Files.createDirectories(tempDir.resolve("build/classes"));
+    Files.writeString(tempDir.resolve("src/Source.java"), "public class Source {}");
+    Files.writeString(tempDir.resolve("build/classes/Output.java"), "public class Output {}");
+
+    Set<String> visitedTypes = ConcurrentHashMap.newKeySet();
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<String> getExcludedDirectoryGlobs() {
+        return Set.of("build");
+      }
+
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((cu, node, rewriter) -> {
+          if (node instanceof TypeDeclaration) {
+            visitedTypes.add(((TypeDeclaration) node).getName().getIdentifier());
+          }
+        });
+      }
+    });
+
+    assertEquals(Set.of("Source"), visitedTypes);
+    assertEquals(1, statistics.getFilesScanned());
+  }
+
+
+  /**
+   * Verifies that when the source path covers the target directory, the parse of each chunk resolves the types of
+   * files which the previous chunk is rewriting at the same time. Each file refers to the one before it, so that with
+   * a batch size of 2, every chunk but the first refers to a file of the chunk before it.
+   */
+  @Test
+  public void testSourcePathOverlappingTargetResolvesFilesBeingWritten() throws IOException {
+    int fileCount = 12;
+    for (int i = 1; i <= fileCount; i++) {
+      int previous = i == 1 ? fileCount : i - 1;
+      Files.writeString(tempDir.resolve("Ring" + i + ".java"),
+          "public class Ring" + i + " {\n  Ring" + previous + " previous;\n  int before;\n}\n");
+    }
+    Set<String> recoveredTypeNames = ConcurrentHashMap.newKeySet();
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of((CompilationUnit cu, ASTNode node, ASTRewrite rewriter) -> {
+          if (node instanceof FieldDeclaration) {
+            ITypeBinding binding = ((FieldDeclaration) node).getType().resolveBinding();
+            if (binding == null || binding.isRecovered()) {
+              recoveredTypeNames.add(((FieldDeclaration) node).getType().toString());
+            }
+          }
+          if (node instanceof SimpleName && ((SimpleName) node).getIdentifier().equals("before")) {
+            rewriter.set(node, SimpleName.IDENTIFIER_PROPERTY, "after", null);
+          }
+        });
+      }
+
+      @Override
+      public String[] getSources() {
+        return new String[] { tempDir.toString() };
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 2;
+      }
+
+      @Override
+      public int getParallelism() {
+        return 2;
+      }
+    });
+
+    assertTrue("Types should resolve while the files declaring them are written: " + recoveredTypeNames,
+        recoveredTypeNames.isEmpty());
+    assertEquals(fileCount, statistics.getFilesChanged());
+    assertEquals(0, statistics.getFilesFailed());
+    for (int i = 1; i <= fileCount; i++) {
+      assertTrue(Files.readString(tempDir.resolve("Ring" + i + ".java")).contains("int after;"));
+    }
+  }
+
+
+  /**
+   * A thread reading a file while it is replaced sees either the old content or the new, never an empty or partly
+   * written file.
+   */
+  @Test
+  public void testReplacedFileIsNeverSeenPartlyWritten() throws IOException, InterruptedException {
+    String before = "public class Replaced {\n" + "  int before;\n".repeat(100_000) + "}\n";
+    String after = "public class Replaced {\n" + "  int after;\n".repeat(100_000) + "}\n";
+    Path file = Files.writeString(tempDir.resolve("Replaced.java"), before);
+    AtomicBoolean writing = new AtomicBoolean(true);
+    Set<Integer> lengthsSeen = ConcurrentHashMap.newKeySet();
+    Thread reader = new Thread(() -> {
+      while (writing.get()) {
+        try {
+          lengthsSeen.add(Files.readString(file).length());
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+    reader.start();
+    try {
+      for (int i = 0; i < 20; i++) {
+        AstraCore.replaceFile(file, i % 2 == 0 ? after : before);
+      }
+    } finally {
+      writing.set(false);
+      reader.join();
+    }
+
+    assertTrue("Only whole files should be read: " + lengthsSeen, Set.of(before.length(), after.length()).containsAll(lengthsSeen));
+  }
+
+
+  /**
+   * A replaced file keeps its permissions, and the temporary file it was written to is not left behind.
+   */
+  @Test
+  public void testReplacedFileKeepsPermissionsAndLeavesNoTemporaryFile() throws IOException {
+    Path file = Files.writeString(tempDir.resolve("Replaced.java"), "public class Replaced {}");
+    Assume.assumeNotNull(Files.getFileAttributeView(file, PosixFileAttributeView.class));
+    Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+    Files.setPosixFilePermissions(file, permissions);
+
+    AstraCore.replaceFile(file, "public class Replaced { int field; }");
+
+    assertEquals("public class Replaced { int field; }", Files.readString(file));
+    assertEquals(permissions, Files.getPosixFilePermissions(file));
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertEquals(List.of(file), files.collect(Collectors.toList()));
+    }
+  }
+
+
   /**
    * Verifies that a run with zero files after content prefiltering (all files excluded) completes
    * cleanly without errors, and the batch parse is not called with an empty file list.
@@ -0,0 +1,116 @@
+package org.alfasoftware.astra.core.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for sizing the chunks of a run, see {@link ChunkSizer}.
+ */
+public class TestChunkSizer {
+
+  private Path tempDir;
+
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("astra-chunk-sizer-test");
+  }
+
+
+  @After
+  public void tearDown() throws IOException {
+    Files.walk(tempDir)
+        .sorted(Comparator.reverseOrder())
+        .forEach(path -> path.toFile().delete());
+  }
+
+
+  @Test
+  public void testFixedSizerUsesBatchSize() throws IOException {
+    List<Path> files = writeFiles(7, 100);
+    ChunkSizer sizer = ChunkSizer.forUseCase(new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of();
+      }
+
+      @Override
+      public int getBatchSize() {
+        return 3;
+      }
+    });
+
+    assertFalse(sizer.isAdaptive());
+    assertEquals(3, sizer.nextChunkSize(files, 0));
+    assertEquals(1, sizer.nextChunkSize(files, 6));
+    assertEquals(0, sizer.nextChunkSize(files, 7));
+
+    assertEquals(1, sizer.outOfMemory(3));
+    assertEquals("Later chunks use half the batch size", 1, sizer.nextChunkSize(files, 0));
+  }
+
+
+  /**
+   * An adaptive chunk holds as many files as fit in half the free heap, so it grows with the free heap and shrinks
+   * with the size of the files.
+   */
+  @Test
+  public void testAdaptiveSizerFitsFilesInFreeHeap() throws IOException {
+    List<Path> files = writeFiles(20, 100);
+    AtomicLong freeHeap = new AtomicLong(2 * 500 * ChunkSizer.INITIAL_HEAP_BYTES_PER_SOURCE_BYTE);
+    ChunkSizer sizer = ChunkSizer.adaptive(3, freeHeap::get);
+
+    assertTrue(sizer.isAdaptive());
+    assertEquals("Half the free heap holds 500 bytes of files", 5, sizer.nextChunkSize(files, 0));
+    assertEquals("Only 2 files remain", 2, sizer.nextChunkSize(files, 18));
+
+    freeHeap.set(freeHeap.get() * 2);
+    assertEquals(10, sizer.nextChunkSize(files, 0));
+
+    freeHeap.set(0);
+    assertEquals("A chunk always holds at least one file", 1, sizer.nextChunkSize(files, 0));
+  }
+
+
+  /**
+   * Running out of memory halves the chunk to retry, and the chunks sized after it.
+   */
+  @Test
+  public void testOutOfMemoryHalvesChunks() throws IOException {
+    List<Path> files = writeFiles(20, 100);
+    ChunkSizer sizer = ChunkSizer.adaptive(3, () -> 2 * 800 * ChunkSizer.INITIAL_HEAP_BYTES_PER_SOURCE_BYTE);
+    assertEquals(8, sizer.nextChunkSize(files, 0));
+
+    assertEquals(4, sizer.outOfMemory(8));
+    assertEquals(2 * ChunkSizer.INITIAL_HEAP_BYTES_PER_SOURCE_BYTE, sizer.getHeapBytesPerSourceByte());
+    assertEquals(4, sizer.nextChunkSize(files, 0));
+
+    assertEquals("A single file cannot be split", 0, sizer.outOfMemory(1));
+  }
+
+
+  private List<Path> writeFiles(int count, int size) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Path file = tempDir.resolve("File" + i + ".java");
+      Files.write(file, new byte[size]);
+      files.add(file);
+    }
+    return files;
+  }
+}
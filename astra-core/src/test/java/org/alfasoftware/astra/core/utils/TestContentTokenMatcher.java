@@ -0,0 +1,103 @@
+package org.alfasoftware.astra.core.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.alfasoftware.astra.core.matchers.MethodMatcher;
+import org.alfasoftware.astra.core.refactoring.operations.methods.MethodInvocationRefactor;
+import org.alfasoftware.astra.core.refactoring.operations.types.TypeReferenceRefactor;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
+import org.junit.Test;
+
+/**
+ * Tests for the multi-token content matcher used to prefilter files, see {@link ContentTokenMatcher}.
+ */
+public class TestContentTokenMatcher {
+
+  @Test
+  public void testContainsAny() {
+    ContentTokenMatcher matcher = ContentTokenMatcher.of(List.of("he", "she", "his", "hers"));
+
+    assertTrue(matcher.containsAny("ushers"));
+    assertTrue(matcher.containsAny("this"));
+    assertTrue(matcher.containsAny("he"));
+    assertFalse(matcher.containsAny("hx sh hi"));
+    assertFalse(matcher.containsAny(""));
+  }
+
+
+  /**
+   * A token may only be found by following a failure link part way through a longer, partially matched token.
+   */
+  @Test
+  public void testContainsAnyAfterPartialMatchOfLongerToken() {
+    ContentTokenMatcher matcher = ContentTokenMatcher.of(List.of("OldFooBar", "FooBaz"));
+
+    assertTrue(matcher.containsAny("new OldFooBaz()"));
+    assertTrue(matcher.containsAny("OldOldFooBar"));
+    assertFalse(matcher.containsAny("OldFooBa FooBa"));
+  }
+
+
+  @Test
+  public void testContainsAnyWithNonAsciiCharacters() {
+    ContentTokenMatcher matcher = ContentTokenMatcher.of(List.of("größe", "naïve"));
+
+    assertTrue(matcher.containsAny("int größe = 1;"));
+    assertTrue(matcher.containsAny("// a naïve approach"));
+    assertFalse(matcher.containsAny("int grösse = 1;"));
+  }
+
+
+  /**
+   * Raw UTF-8 bytes are scanned from the buffer's position to its limit, leaving the buffer unchanged for decoding.
+   */
+  @Test
+  public void testContainsAnyInUtf8Bytes() {
+    ContentTokenMatcher matcher = ContentTokenMatcher.of(List.of("größe"));
+    ByteBuffer content = ByteBuffer.wrap("größe int größe".getBytes(StandardCharsets.UTF_8));
+    content.position(7);
+
+    assertTrue(matcher.containsAny(content));
+    assertEquals(7, content.position());
+    content.limit(content.limit() - 1);
+    assertFalse(matcher.containsAny(content));
+  }
+
+
+  @Test
+  public void testForOperationsCombinesRequiredTokens() {
+    Optional<ContentTokenMatcher> matcher = ContentTokenMatcher.forOperations(Set.of(
+        MethodInvocationRefactor
+          .from(MethodMatcher.builder().withFullyQualifiedDeclaringType("com.example.A").withMethodName("oldMethod").build())
+          .to(new MethodInvocationRefactor.Changes().toNewMethodName("newMethod")),
+        TypeReferenceRefactor.builder().fromType("com.example.OldType").toType("com.example.NewType").build()));
+
+    assertTrue(matcher.isPresent());
+    assertEquals("Both tokens, and the unicode escape marker", 3, matcher.get().getNumberOfTokens());
+    assertTrue(matcher.get().containsAny("a.oldMethod();"));
+    assertTrue(matcher.get().containsAny("OldType t;"));
+    assertTrue("Files using unicode escapes can spell tokens differently", matcher.get().containsAny("\\u004fldType t;"));
+    assertFalse(matcher.get().containsAny("a.newMethod(); NewType t;"));
+  }
+
+
+  @Test
+  public void testForOperationsIsEmptyIfAnyOperationHasNoRequiredTokens() {
+    ASTOperation anyFile = (CompilationUnit compilationUnit, ASTNode node, ASTRewrite rewriter) -> {};
+
+    assertFalse(ContentTokenMatcher.forOperations(Set.of(
+        TypeReferenceRefactor.builder().fromType("com.example.OldType").toType("com.example.NewType").build(),
+        anyFile)).isPresent());
+    assertFalse(ContentTokenMatcher.forOperations(Set.of()).isPresent());
+  }
+}
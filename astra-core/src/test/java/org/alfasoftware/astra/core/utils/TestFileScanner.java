@@ -0,0 +1,126 @@
+package org.alfasoftware.astra.core.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for finding the files of a run, see {@link FileScanner}.
+ */
+public class TestFileScanner {
+
+  private Path tempDir;
+
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("astra-file-scanner-test");
+  }
+
+
+  @After
+  public void tearDown() throws IOException {
+    Files.walk(tempDir)
+        .sorted(Comparator.reverseOrder())
+        .forEach(path -> path.toFile().delete());
+  }
+
+
+  /**
+   * Only {@code .java} files passing the path prefilter are found, and excluded directories are not walked.
+   */
+  @Test
+  public void testExcludedDirectoriesAreSkipped() throws IOException {
+    writeFile("src/Kept.java");
+    writeFile("src/notes.txt");
+    writeFile("src/Filtered.java");
+    writeFile("target/generated/Generated.java");
+    writeFile("module/target/Output.java");
+    writeFile("legacy/generated/Old.java");
+    writeFile("legacy/Legacy.java");
+    writeFile("vendor/Vendor.java");
+
+    RunStatistics statistics = new RunStatistics();
+    Set<String> visitedDirectories = new HashSet<>();
+    try (FileScanner scanner = FileScanner.start(tempDir, new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of();
+      }
+
+      @Override
+      public Predicate<String> getPrefilteringPredicate() {
+        return path -> !path.endsWith("Filtered.java");
+      }
+
+      @Override
+      public Predicate<String> getDirectoryPrefilteringPredicate() {
+        return path -> {
+          visitedDirectories.add(tempDir.relativize(Paths.get(path)).toString());
+          return !path.endsWith("vendor");
+        };
+      }
+
+      @Override
+      public Set<String> getExcludedDirectoryGlobs() {
+        return Set.of("target", "legacy/generated");
+      }
+    }, statistics)) {
+      List<Path> files = scanner.awaitFiles(0, Integer.MAX_VALUE);
+
+      assertTrue(scanner.isComplete());
+      assertEquals(Set.of("src/Kept.java", "legacy/Legacy.java"), files.stream()
+          .map(file -> tempDir.relativize(file).toString().replace('\\', '/'))
+          .collect(Collectors.toSet()));
+      assertEquals(2, statistics.getFilesScanned());
+      assertTrue("Directories inside an excluded directory are not walked", visitedDirectories.stream()
+          .noneMatch(dir -> dir.replace('\\', '/').startsWith("target/")));
+    }
+  }
+
+
+  /**
+   * Files are returned in the order found, a batch at a time, until every file has been returned.
+   */
+  @Test
+  public void testFilesAreReturnedInBatches() throws IOException {
+    for (int i = 0; i < 5; i++) {
+      writeFile("File" + i + ".java");
+    }
+
+    try (FileScanner scanner = FileScanner.start(tempDir, () -> Set.of(), new RunStatistics())) {
+      List<Path> first = scanner.awaitFiles(0, 2);
+      List<Path> second = scanner.awaitFiles(2, 2);
+      List<Path> last = scanner.awaitFiles(4, 2);
+
+      assertEquals(2, first.size());
+      assertEquals(2, second.size());
+      assertEquals("Only one file remains", 1, last.size());
+      assertEquals("Every file is returned once", 5, Set.of(first, second, last).stream().flatMap(List::stream).distinct().count());
+      assertTrue(scanner.awaitFiles(5, 2).isEmpty());
+      assertEquals(5, scanner.getFilesFound());
+    }
+  }
+
+
+  private void writeFile(String relativePath) throws IOException {
+    Path file = tempDir.resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, "class Sample {}");
+  }
+}
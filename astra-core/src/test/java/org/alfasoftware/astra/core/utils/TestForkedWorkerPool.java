@@ -0,0 +1,212 @@
+package org.alfasoftware.astra.core.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.PrimitiveType;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for running a use case in worker processes, see {@link UseCase#getWorkerProcesses()}.
+ */
+public class TestForkedWorkerPool {
+
+  private Path tempDir;
+
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("astra-forked-test");
+  }
+
+
+  @After
+  public void tearDown() throws IOException {
+    Files.walk(tempDir)
+        .sorted(Comparator.reverseOrder())
+        .forEach(path -> path.toFile().delete());
+  }
+
+
+  @Test
+  public void testFilesAreProcessedInWorkerProcesses() throws IOException {
+    for (int i = 0; i < 5; i++) {
+      writeClass("Renamed" + i);
+    }
+
+    RunStatistics statistics = AstraCore.run(tempDir.toString(), new RenameInWorkers());
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(Files.readString(tempDir.resolve("Renamed" + i + ".java")).contains("int after;"));
+    }
+    assertEquals(5, statistics.getFilesScanned());
+    assertEquals(5, statistics.getFilesParsed());
+    assertEquals(5, statistics.getFilesChanged());
+    assertEquals("Statistics of the operations are gathered from the workers", 1, statistics.getOperationStatistics().size());
+  }
+
+
+  /**
+   * A file which stops its worker fails on its own, and every other file in its chunk is still processed.
+   */
+  @Test
+  public void testFileWhichStopsItsWorkerFailsInIsolation() throws IOException {
+    for (int i = 0; i < 5; i++) {
+      writeClass("Renamed" + i);
+    }
+    writeClass("Crash");
+
+    try {
+      AstraCore.run(tempDir.toString(), new RenameInWorkers());
+      fail("The file which stops its worker should fail the run");
+    } catch (RuntimeException e) {
+      assertEquals(1, e.getCause().getSuppressed().length);
+      assertTrue(e.getCause().getSuppressed()[0].getMessage(), e.getCause().getSuppressed()[0].getMessage().contains("Crash.java"));
+    }
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(Files.readString(tempDir.resolve("Renamed" + i + ".java")).contains("int after;"));
+    }
+    assertTrue(Files.readString(tempDir.resolve("Crash.java")).contains("int before;"));
+  }
+
+
+  /**
+   * The files which a worker wrote before it was stopped are not processed again, so an operation which would change
+   * a file again is applied to each file only once.
+   */
+  @Test
+  public void testFilesWrittenBeforeWorkerStopsAreNotProcessedAgain() throws IOException {
+    // Larger, so processed before the crash in the same chunk
+    Files.writeString(tempDir.resolve("Added.java"), "/** Processed first. */\npublic class Added {\n  int before;\n}\n");
+    writeClass("Crash");
+
+    try {
+      AstraCore.run(tempDir.toString(), new AddFieldInWorkers());
+      fail("The file which stops its worker should fail the run");
+    } catch (RuntimeException e) {
+      assertEquals(1, e.getCause().getSuppressed().length);
+      assertTrue(e.getCause().getSuppressed()[0].getMessage(), e.getCause().getSuppressed()[0].getMessage().contains("Crash.java"));
+    }
+
+    String added = Files.readString(tempDir.resolve("Added.java"));
+    assertEquals(added, 1, added.split("int added;", -1).length - 1);
+  }
+
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUseCaseMustHaveNoArgumentConstructor() {
+    AstraCore.run(tempDir.toString(), new UseCase() {
+      @Override
+      public Set<? extends ASTOperation> getOperations() {
+        return Set.of();
+      }
+
+      @Override
+      public int getWorkerProcesses() {
+        return 1;
+      }
+    });
+  }
+
+
+  private void writeClass(String name) throws IOException {
+    Files.writeString(tempDir.resolve(name + ".java"), "public class " + name + " {\n  int before;\n}\n");
+  }
+
+
+  /**
+   * Renames fields named {@code before} in two workers, chunks of two files at a time. A worker processing a class
+   * named {@code Crash} halts, as if killed.
+   */
+  public static final class RenameInWorkers implements UseCase {
+
+    @Override
+    public Set<? extends ASTOperation> getOperations() {
+      return Set.of((compilationUnit, node, rewriter) -> {
+        if (node instanceof TypeDeclaration && ((TypeDeclaration) node).getName().getIdentifier().equals("Crash")) {
+          Runtime.getRuntime().halt(137);
+        }
+        if (node instanceof SimpleName && ((SimpleName) node).getIdentifier().equals("before")) {
+          rewriter.set(node, SimpleName.IDENTIFIER_PROPERTY, "after", null);
+        }
+      });
+    }
+
+    @Override
+    public int getBatchSize() {
+      return 2;
+    }
+
+    @Override
+    public int getParallelism() {
+      return 1;
+    }
+
+    @Override
+    public int getWorkerProcesses() {
+      return 2;
+    }
+
+    @Override
+    public Optional<String> getWorkerMaxHeap() {
+      return Optional.of("256m");
+    }
+  }
+
+
+  /**
+   * Adds a field to every class, in one worker, with both files in one chunk. A worker processing a class named
+   * {@code Crash} halts, as if killed.
+   */
+  public static final class AddFieldInWorkers implements UseCase {
+
+    @Override
+    public Set<? extends ASTOperation> getOperations() {
+      return Set.of((compilationUnit, node, rewriter) -> {
+        if (node instanceof TypeDeclaration) {
+          if (((TypeDeclaration) node).getName().getIdentifier().equals("Crash")) {
+            Runtime.getRuntime().halt(137);
+          }
+          AST ast = node.getAST();
+          VariableDeclarationFragment fragment = ast.newVariableDeclarationFragment();
+          fragment.setName(ast.newSimpleName("added"));
+          FieldDeclaration field = ast.newFieldDeclaration(fragment);
+          field.setType(ast.newPrimitiveType(PrimitiveType.INT));
+          rewriter.getListRewrite(node, TypeDeclaration.BODY_DECLARATIONS_PROPERTY).insertLast(field, null);
+        }
+      });
+    }
+
+    @Override
+    public int getBatchSize() {
+      return 2;
+    }
+
+    @Override
+    public int getParallelism() {
+      return 1;
+    }
+
+    @Override
+    public int getWorkerProcesses() {
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package org.alfasoftware.astra.core.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import org.alfasoftware.astra.core.refactoring.UseCase;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for splitting the files of a run between shards, see {@link Shard}.
+ */
+public class TestShard {
+
+  private Path tempDir;
+
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("astra-shard-test");
+  }
+
+
+  @After
+  public void tearDown() throws IOException {
+    Files.walk(tempDir)
+        .sorted(Comparator.reverseOrder())
+        .forEach(path -> path.toFile().delete());
+  }
+
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIndexMustBeLessThanCount() {
+    Shard.byPathHash(3, 3);
+  }
+
+
+  /**
+   * Files balanced by size are spread so that every shard holds a similar number of bytes.
+   */
+  @Test
+  public void testBalancedShardsHoldSimilarSizes() {
+    Map<Path, Long> sizes = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      sizes.put(Paths.get("pkg" + i % 7, "File" + i + ".java"), 100L + i * 37 % 1000);
+    }
+    long total = sizes.values().stream().mapToLong(Long::longValue).sum();
+
+    long smallest = Long.MAX_VALUE;
+    long largest = 0;
+    int files = 0;
+    for (int index = 0; index < 3; index++) {
+      Set<Path> selected = Shard.byBalancedSize(index, 3).selectByBalancedSize(sizes);
+      assertEquals("The same files are selected every time", selected, Shard.byBalancedSize(index, 3).selectByBalancedSize(sizes));
+      long bytes = selected.stream().mapToLong(sizes::get).sum();
+      smallest = Math.min(smallest, bytes);
+      largest = Math.max(largest, bytes);
+      files += selected.size();
+    }
+    assertEquals(100, files);
+    assertTrue("Shards should differ by less than the largest file", largest - smallest <= 1099);
+    assertTrue(smallest > total / 4);
+  }
+
+
+  @Test
+  public void testEveryFileIsProcessedByOneShardByPathHash() throws IOException {
+    assertEveryFileIsProcessedByOneShard(index -> Shard.byPathHash(index, 3));
+  }
+
+
+  @Test
+  public void testEveryFileIsProcessedByOneShardByBalancedSize() throws IOException {
+    assertEveryFileIsProcessedByOneShard(index -> Shard.byBalancedSize(index, 3));
+  }
+
+
+  private void assertEveryFileIsProcessedByOneShard(IntFunction<Shard> shards) throws IOException {
+    for (int i = 0; i < 12; i++) {
+      Path file = tempDir.resolve("pkg" + i % 3).resolve("Sharded" + i + ".java");
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, "public class Sharded" + i + " {" + " ".repeat(i * 10) + "}");
+    }
+
+    List<String> visited = new ArrayList<>();
+    long filesScanned = 0;
+    for (int index = 0; index < 3; index++) {
+      Shard shard = shards.apply(index);
+      Set<String> visitedByShard = ConcurrentHashMap.newKeySet();
+      RunStatistics statistics = AstraCore.run(tempDir.toString(), new UseCase() {
+        @Override
+        public Set<? extends ASTOperation> getOperations() {
+          return Set.of((cu, node, rewriter) -> {
+            if (node instanceof TypeDeclaration) {
+              visitedByShard.add(((TypeDeclaration) node).getName().getIdentifier());
+            }
+          });
+        }
+
+        @Override
+        public Optional<Shard> getShard() {
+          return Optional.of(shard);
+        }
+      });
+      visited.addAll(visitedByShard);
+      filesScanned += statistics.getFilesScanned();
+    }
+
+    assertEquals("Every file is visited by exactly one shard", 12, visited.size());
+    assertEquals(12, Set.copyOf(visited).size());
+    assertEquals(12, filesScanned);
+  }
+}
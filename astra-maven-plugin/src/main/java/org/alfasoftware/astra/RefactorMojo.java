@@ -3,8 +3,10 @@ package org.alfasoftware.astra;
 import static java.util.stream.Collectors.toList;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -13,6 +15,7 @@ import java.util.function.Predicate;
 import org.alfasoftware.astra.core.refactoring.UseCase;
 import org.alfasoftware.astra.core.utils.ASTOperation;
 import org.alfasoftware.astra.core.utils.AstraCore;
+import org.alfasoftware.astra.core.utils.RunStatistics;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.plugin.AbstractMojo;
@@ -61,6 +64,12 @@ public class RefactorMojo extends AbstractMojo {
   @Parameter(property = "targetDirectory", readonly = true, defaultValue = "${project.build.directory}")
   private String targetDirectory;
 
+  /**
+   * If set, timings and file counts for the run are written to this file, as JSON
+   */
+  @Parameter(property = "astra.statisticsFile")
+  private File statisticsFile;
+
 
   @Parameter(defaultValue = "${plugin}", readonly = true, required = true)
   private PluginDescriptor pluginDescriptor;
@@ -108,7 +117,7 @@ public class RefactorMojo extends AbstractMojo {
     testClasspathElements.removeIf(s -> s.startsWith(targetDirectory));
 
     UseCase useCaseInstance = getUseCaseInstance();
-    AstraCore.run(sourceDirectory.getAbsolutePath(), new UseCase() {
+    RunStatistics statistics = AstraCore.run(sourceDirectory.getAbsolutePath(), new UseCase() {
 
       @Override
       public Set<? extends ASTOperation> getOperations() {
@@ -129,6 +138,15 @@ public class RefactorMojo extends AbstractMojo {
       }
     });
 
+    if (statisticsFile != null) {
+      try {
+        Files.writeString(statisticsFile.toPath(), statistics.toJson());
+      } catch (IOException e) {
+        throw new MojoExecutionException("Unable to write run statistics to [" + statisticsFile + "]", e);
+      }
+      getLog().info("Run statistics written to [" + statisticsFile.getAbsolutePath() + "]");
+    }
+
   }
 
 